@@ -0,0 +1,119 @@
+package us.ihmc.geometry.polytope;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+
+/**
+ * Runs GJK on arrays of shape pairs, split over a {@link ForkJoinPool}. Each worker thread has its own detector and
+ * points, kept in a {@link ThreadLocal}, and the results go in the primitive arrays of a {@link BatchCollisionResult}, so
+ * nothing is allocated per pair.
+ * <p>
+ * A shape is queried by whichever worker handles its pair. The support queries keep no state in the shapes, the warm
+ * start of the walks along the edges is kept by the detector of the worker, so a shape instance can appear in any number
+ * of pairs, for instance a link checked against many obstacles. This holds for {@link ConvexPolytope} and the
+ * {@link PosedSupportingVertexHolder}s. The shapes made of other shapes, such as
+ * {@link MinkowskiSumSupportingVertexHolder} or {@link TransformedSupportingVertexHolder}, keep scratch points and must
+ * not appear in more than one pair. The shapes must not change during a batch.
+ */
+public class BatchCollisionDetector
+{
+   /** The pairs are split in about this many chunks per worker, for load balancing. */
+   private static final int CHUNKS_PER_WORKER = 8;
+   private static final int MINIMUM_CHUNK_SIZE = 16;
+
+   private final ForkJoinPool forkJoinPool;
+   private final ThreadLocal<WorkerState> workerStates = new ThreadLocal<WorkerState>()
+   {
+      @Override
+      protected WorkerState initialValue()
+      {
+         return new WorkerState();
+      }
+   };
+
+   public BatchCollisionDetector()
+   {
+      this(ForkJoinPool.commonPool());
+   }
+
+   public BatchCollisionDetector(ForkJoinPool forkJoinPool)
+   {
+      this.forkJoinPool = forkJoinPool;
+   }
+
+   /**
+    * Checks the pairs (polytopesA[i], polytopesB[i]) for i from 0 to numberOfPairs - 1, and blocks until all the results
+    * are packed.
+    */
+   public void arePolytopesColliding(SupportingVertexHolder[] polytopesA, SupportingVertexHolder[] polytopesB, int numberOfPairs,
+                                     BatchCollisionResult resultToPack)
+   {
+      if (polytopesA.length < numberOfPairs || polytopesB.length < numberOfPairs)
+         throw new RuntimeException("Only " + Math.min(polytopesA.length, polytopesB.length) + " pairs, expected " + numberOfPairs);
+
+      resultToPack.setNumberOfPairs(numberOfPairs);
+      if (numberOfPairs == 0)
+         return;
+
+      int chunkSize = Math.max(MINIMUM_CHUNK_SIZE, numberOfPairs / (CHUNKS_PER_WORKER * forkJoinPool.getParallelism()));
+      forkJoinPool.invoke(new CollisionTask(polytopesA, polytopesB, resultToPack, 0, numberOfPairs, chunkSize));
+   }
+
+   public ForkJoinPool getForkJoinPool()
+   {
+      return forkJoinPool;
+   }
+
+   private class CollisionTask extends RecursiveAction
+   {
+      private static final long serialVersionUID = 1L;
+
+      private final SupportingVertexHolder[] polytopesA;
+      private final SupportingVertexHolder[] polytopesB;
+      private final BatchCollisionResult result;
+      private final int fromIndex;
+      private final int toIndex;
+      private final int chunkSize;
+
+      CollisionTask(SupportingVertexHolder[] polytopesA, SupportingVertexHolder[] polytopesB, BatchCollisionResult result, int fromIndex, int toIndex,
+                    int chunkSize)
+      {
+         this.polytopesA = polytopesA;
+         this.polytopesB = polytopesB;
+         this.result = result;
+         this.fromIndex = fromIndex;
+         this.toIndex = toIndex;
+         this.chunkSize = chunkSize;
+      }
+
+      @Override
+      protected void compute()
+      {
+         if (toIndex - fromIndex <= chunkSize)
+         {
+            WorkerState state = workerStates.get();
+
+            for (int i = fromIndex; i < toIndex; i++)
+            {
+               boolean areColliding = state.detector.arePolytopesColliding(polytopesA[i], polytopesB[i], state.pointOnA, state.pointOnB);
+               result.set(i, areColliding, state.pointOnA, state.pointOnB);
+            }
+         }
+         else
+         {
+            int middleIndex = (fromIndex + toIndex) >>> 1;
+            invokeAll(new CollisionTask(polytopesA, polytopesB, result, fromIndex, middleIndex, chunkSize),
+                      new CollisionTask(polytopesA, polytopesB, result, middleIndex, toIndex, chunkSize));
+         }
+      }
+   }
+
+   private static class WorkerState
+   {
+      private final GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      private final Point3D pointOnA = new Point3D();
+      private final Point3D pointOnB = new Point3D();
+   }
+}
@@ -0,0 +1,125 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Results of {@link BatchCollisionDetector}, one entry per pair, in primitive arrays that are only reallocated when a
+ * batch is larger than any previous one.
+ */
+public class BatchCollisionResult
+{
+   private int numberOfPairs = 0;
+
+   private boolean[] areColliding = new boolean[0];
+   private double[] distances = new double[0];
+   private double[] pointOnAXs = new double[0];
+   private double[] pointOnAYs = new double[0];
+   private double[] pointOnAZs = new double[0];
+   private double[] pointOnBXs = new double[0];
+   private double[] pointOnBYs = new double[0];
+   private double[] pointOnBZs = new double[0];
+
+   void setNumberOfPairs(int numberOfPairs)
+   {
+      if (numberOfPairs > areColliding.length)
+      {
+         areColliding = new boolean[numberOfPairs];
+         distances = new double[numberOfPairs];
+         pointOnAXs = new double[numberOfPairs];
+         pointOnAYs = new double[numberOfPairs];
+         pointOnAZs = new double[numberOfPairs];
+         pointOnBXs = new double[numberOfPairs];
+         pointOnBYs = new double[numberOfPairs];
+         pointOnBZs = new double[numberOfPairs];
+      }
+
+      this.numberOfPairs = numberOfPairs;
+   }
+
+   void set(int pairIndex, boolean areColliding, Point3DBasics pointOnA, Point3DBasics pointOnB)
+   {
+      this.areColliding[pairIndex] = areColliding;
+      distances[pairIndex] = areColliding ? 0.0 : pointOnA.distance(pointOnB);
+      pointOnAXs[pairIndex] = pointOnA.getX();
+      pointOnAYs[pairIndex] = pointOnA.getY();
+      pointOnAZs[pairIndex] = pointOnA.getZ();
+      pointOnBXs[pairIndex] = pointOnB.getX();
+      pointOnBYs[pairIndex] = pointOnB.getY();
+      pointOnBZs[pairIndex] = pointOnB.getZ();
+   }
+
+   public int getNumberOfPairs()
+   {
+      return numberOfPairs;
+   }
+
+   public boolean areColliding(int pairIndex)
+   {
+      return areColliding[pairIndex];
+   }
+
+   /**
+    * Distance between the shapes of the pair, 0 when they are colliding.
+    */
+   public double getDistance(int pairIndex)
+   {
+      return distances[pairIndex];
+   }
+
+   /**
+    * Closest point of A to B when separated, as given by
+    * {@link GilbertJohnsonKeerthiCollisionDetector#arePolytopesColliding(SupportingVertexHolder, SupportingVertexHolder, us.ihmc.euclid.tuple3D.Point3D, us.ihmc.euclid.tuple3D.Point3D)}.
+    */
+   public void getPointOnA(int pairIndex, Point3DBasics pointOnAToPack)
+   {
+      pointOnAToPack.set(pointOnAXs[pairIndex], pointOnAYs[pairIndex], pointOnAZs[pairIndex]);
+   }
+
+   public void getPointOnB(int pairIndex, Point3DBasics pointOnBToPack)
+   {
+      pointOnBToPack.set(pointOnBXs[pairIndex], pointOnBYs[pairIndex], pointOnBZs[pairIndex]);
+   }
+
+   /**
+    * The arrays are at least as long as the number of pairs, the entries past it are from earlier batches.
+    */
+   public boolean[] getCollidingArray()
+   {
+      return areColliding;
+   }
+
+   public double[] getDistanceArray()
+   {
+      return distances;
+   }
+
+   public double[] getPointOnAXArray()
+   {
+      return pointOnAXs;
+   }
+
+   public double[] getPointOnAYArray()
+   {
+      return pointOnAYs;
+   }
+
+   public double[] getPointOnAZArray()
+   {
+      return pointOnAZs;
+   }
+
+   public double[] getPointOnBXArray()
+   {
+      return pointOnBXs;
+   }
+
+   public double[] getPointOnBYArray()
+   {
+      return pointOnBYs;
+   }
+
+   public double[] getPointOnBZArray()
+   {
+      return pointOnBZs;
+   }
+}
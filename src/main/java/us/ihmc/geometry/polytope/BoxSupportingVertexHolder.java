@@ -0,0 +1,55 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Box centered at the origin of its local frame, with the same dimensions as
+ * {@link ConvexPolytopeConstructor#constructBoxWithCenterAtZero(double, double, double)}.
+ */
+public class BoxSupportingVertexHolder extends PosedSupportingVertexHolder
+{
+   private final double halfLengthX;
+   private final double halfWidthY;
+   private final double halfHeightZ;
+
+   public BoxSupportingVertexHolder(double halfLengthX, double halfWidthY, double halfHeightZ)
+   {
+      this.halfLengthX = halfLengthX;
+      this.halfWidthY = halfWidthY;
+      this.halfHeightZ = halfHeightZ;
+   }
+
+   public double getHalfLengthX()
+   {
+      return halfLengthX;
+   }
+
+   public double getHalfWidthY()
+   {
+      return halfWidthY;
+   }
+
+   public double getHalfHeightZ()
+   {
+      return halfHeightZ;
+   }
+
+   @Override
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
+   {
+      double x = localDirectionX >= 0.0 ? halfLengthX : -halfLengthX;
+      double y = localDirectionY >= 0.0 ? halfWidthY : -halfWidthY;
+      double z = localDirectionZ >= 0.0 ? halfHeightZ : -halfHeightZ;
+
+      localSupportingVertexToPack.set(x, y, z);
+   }
+
+   public String toString()
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
+      return "halfLengthX = " + halfLengthX + ", halfWidthY = " + halfWidthY + ", halfHeightZ = " + halfHeightZ + ", transform = " + transform;
+   }
+}
@@ -0,0 +1,73 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Capsule centered at the origin of its local frame, with its axis along z. The length is the
+ * distance between the centers of the two end spheres. Its core is the segment between these
+ * centers and its margin is the radius.
+ */
+public class CapsuleSupportingVertexHolder extends PosedSupportingVertexHolder
+{
+   private final double radius;
+   private final double length;
+
+   public CapsuleSupportingVertexHolder(double radius, double length)
+   {
+      this.radius = radius;
+      this.length = length;
+   }
+
+   public double getRadius()
+   {
+      return radius;
+   }
+
+   public double getLength()
+   {
+      return length;
+   }
+
+   @Override
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
+   {
+      double x = localDirectionX;
+      double y = localDirectionY;
+      double z = localDirectionZ;
+
+      double sphereCenterZ = z > 0.0 ? 0.5 * length : -0.5 * length;
+      double lengthSquared = x * x + y * y + z * z;
+
+      if (lengthSquared > 0.0)
+      {
+         double scale = radius / Math.sqrt(lengthSquared);
+         localSupportingVertexToPack.set(x * scale, y * scale, z * scale + sphereCenterZ);
+      }
+      else
+      {
+         localSupportingVertexToPack.set(radius, 0.0, sphereCenterZ);
+      }
+   }
+
+   @Override
+   public double getMargin()
+   {
+      return radius;
+   }
+
+   @Override
+   protected void getCoreSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                      Point3DBasics localSupportingVertexToPack)
+   {
+      localSupportingVertexToPack.set(0.0, 0.0, localDirectionZ > 0.0 ? 0.5 * length : -0.5 * length);
+   }
+
+   public String toString()
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
+      return "radius = " + radius + ", length = " + length + ", transform = " + transform;
+   }
+}
@@ -0,0 +1,110 @@
+package us.ihmc.geometry.polytope;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+
+/**
+ * Collision queries that can be called from any number of threads. The detectors hold scratch state, so each thread
+ * leases its own {@link Context}, created the first time the thread uses this pool and kept in a {@link ThreadLocal},
+ * so no query ever waits on a lock.
+ * <p>
+ * Only the detectors are thread-confined. The shapes given to the queries have scratch state too, for instance the last
+ * supporting vertex of a {@link PosedConvexPolytope}, so a thread should query its own shape instances. A
+ * {@link ConvexPolytopeGeometry} can be shared by the instances of all the threads.
+ */
+public class CollisionDetectorPool
+{
+   private static final double DEFAULT_EPSILON_RELATIVE = 1e-5;
+
+   private final double epsilonRelative;
+   private final AtomicInteger numberOfContexts = new AtomicInteger();
+   private final ThreadLocal<Context> contexts = new ThreadLocal<Context>()
+   {
+      @Override
+      protected Context initialValue()
+      {
+         numberOfContexts.incrementAndGet();
+         return new Context(epsilonRelative);
+      }
+   };
+
+   public CollisionDetectorPool()
+   {
+      this(DEFAULT_EPSILON_RELATIVE);
+   }
+
+   /**
+    * The relative epsilon is the one of the {@link ExpandingPolytopeAlgorithm} of each context.
+    */
+   public CollisionDetectorPool(double epsilonRelative)
+   {
+      this.epsilonRelative = epsilonRelative;
+   }
+
+   /**
+    * Returns the context of the calling thread, for the queries that this pool does not forward. It must not be handed to
+    * another thread.
+    */
+   public Context getContext()
+   {
+      return contexts.get();
+   }
+
+   /**
+    * Number of contexts created so far, which is the number of threads that have used this pool.
+    */
+   public int getNumberOfContexts()
+   {
+      return numberOfContexts.get();
+   }
+
+   public boolean arePolytopesColliding(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB, Point3D pointOnAToPack, Point3D pointOnBToPack)
+   {
+      return getContext().getCollisionDetector().arePolytopesColliding(polytopeA, polytopeB, pointOnAToPack, pointOnBToPack);
+   }
+
+   public boolean arePolytopesIntersecting(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB)
+   {
+      return getContext().getCollisionDetector().arePolytopesIntersecting(polytopeA, polytopeB);
+   }
+
+   public boolean arePolytopesWithinDistance(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB, double distance)
+   {
+      return getContext().getCollisionDetector().arePolytopesWithinDistance(polytopeA, polytopeB, distance);
+   }
+
+   public void computeSignedDistance(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB, SignedDistanceResult resultToPack)
+   {
+      getContext().getSignedDistanceCalculator().computeSignedDistance(polytopeA, polytopeB, resultToPack);
+   }
+
+   /**
+    * Detectors of a single thread. The collision detector and the expanding polytope algorithm are the ones of the signed
+    * distance calculator.
+    */
+   public static class Context
+   {
+      private final SignedDistanceCalculator signedDistanceCalculator;
+
+      private Context(double epsilonRelative)
+      {
+         signedDistanceCalculator = new SignedDistanceCalculator(epsilonRelative);
+      }
+
+      public GilbertJohnsonKeerthiCollisionDetector getCollisionDetector()
+      {
+         return signedDistanceCalculator.getCollisionDetector();
+      }
+
+      public ExpandingPolytopeAlgorithm getExpandingPolytopeAlgorithm()
+      {
+         return signedDistanceCalculator.getExpandingPolytopeAlgorithm();
+      }
+
+      public SignedDistanceCalculator getSignedDistanceCalculator()
+      {
+         return signedDistanceCalculator;
+      }
+   }
+}
@@ -0,0 +1,67 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Cone with its axis along z, its base disk at z = -height / 2 and its apex at z = height / 2 of its
+ * local frame, so that it fits in the same bounds as a {@link CylinderSupportingVertexHolder}.
+ */
+public class ConeSupportingVertexHolder extends PosedSupportingVertexHolder
+{
+   private final double radius;
+   private final double height;
+
+   public ConeSupportingVertexHolder(double radius, double height)
+   {
+      this.radius = radius;
+      this.height = height;
+   }
+
+   public double getRadius()
+   {
+      return radius;
+   }
+
+   public double getHeight()
+   {
+      return height;
+   }
+
+   @Override
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
+   {
+      double x = localDirectionX;
+      double y = localDirectionY;
+      double z = localDirectionZ;
+
+      double halfHeight = 0.5 * height;
+      double lengthXY = Math.sqrt(x * x + y * y);
+
+      // The supporting vertex is either the apex or a point on the rim of the base.
+      double apexDotProduct = z * halfHeight;
+      double rimDotProduct = radius * lengthXY - z * halfHeight;
+
+      if (apexDotProduct >= rimDotProduct)
+      {
+         localSupportingVertexToPack.set(0.0, 0.0, halfHeight);
+      }
+      else if (lengthXY > 0.0)
+      {
+         double scale = radius / lengthXY;
+         localSupportingVertexToPack.set(x * scale, y * scale, -halfHeight);
+      }
+      else
+      {
+         localSupportingVertexToPack.set(radius, 0.0, -halfHeight);
+      }
+   }
+
+   public String toString()
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
+      return "radius = " + radius + ", height = " + height + ", transform = " + transform;
+   }
+}
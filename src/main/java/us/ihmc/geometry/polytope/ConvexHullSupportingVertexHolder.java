@@ -0,0 +1,61 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Convex hull of two shapes. The supporting vertex is whichever of the two supporting vertices goes
+ * further along the support direction. The hull of two swept shapes is not a swept shape, so it has
+ * no margin and its core is the hull itself.
+ */
+public class ConvexHullSupportingVertexHolder implements SupportingVertexHolder
+{
+   private final SupportingVertexHolder shapeA;
+   private final SupportingVertexHolder shapeB;
+
+   private final Point3D tempSupportingVertexA = new Point3D();
+   private final Point3D tempSupportingVertexB = new Point3D();
+
+   public ConvexHullSupportingVertexHolder(SupportingVertexHolder shapeA, SupportingVertexHolder shapeB)
+   {
+      this.shapeA = shapeA;
+      this.shapeB = shapeB;
+   }
+
+   public SupportingVertexHolder getShapeA()
+   {
+      return shapeA;
+   }
+
+   public SupportingVertexHolder getShapeB()
+   {
+      return shapeB;
+   }
+
+   @Override
+   public Point3D getSupportingVertex(Vector3D supportDirection)
+   {
+      Point3D supportingVertex = new Point3D();
+      getSupportingVertex(supportDirection, supportingVertex);
+      return supportingVertex;
+   }
+
+   @Override
+   public void getSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      shapeA.getSupportingVertex(supportDirection, tempSupportingVertexA);
+      shapeB.getSupportingVertex(supportDirection, tempSupportingVertexB);
+
+      if (tempSupportingVertexA.dot(supportDirection) >= tempSupportingVertexB.dot(supportDirection))
+         supportingVertexToPack.set(tempSupportingVertexA);
+      else
+         supportingVertexToPack.set(tempSupportingVertexB);
+   }
+
+   public String toString()
+   {
+      return "Convex hull of {" + shapeA + "} and {" + shapeB + "}";
+   }
+}
@@ -6,37 +6,75 @@ import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
-
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * The vertex coordinates are stored in contiguous x, y, and z arrays and the edges in a compressed
+ * (CSR) adjacency, so that the supporting vertex search, bounding box, and transform run over
+ * primitive arrays. Nothing else is kept per vertex: the {@link PolytopeVertex} objects are views
+ * into this storage, created when asked for.
+ * <p>
+ * The adjacency, lookup table and bounding box are updated on the first query after a change. The
+ * queries that pack their result can then be called from several threads at once, as long as the
+ * polytope does not change meanwhile.
+ */
 public class ConvexPolytope implements SupportingVertexHolder
 {
-   private final ArrayList<PolytopeVertex> vertices = new ArrayList<>();
+   private static final int INITIAL_CAPACITY = 8;
+   private static final int BATCH_VERTEX_TILE_SIZE = 256;
+
+   private int numberOfVertices = 0;
+   private double[] vertexXs = new double[INITIAL_CAPACITY];
+   private double[] vertexYs = new double[INITIAL_CAPACITY];
+   private double[] vertexZs = new double[INITIAL_CAPACITY];
+
+   // Neighbors of vertex i are adjacentVertexIndices[adjacencyStartIndices[i]] to adjacentVertexIndices[adjacencyStartIndices[i + 1] - 1].
+   private boolean adjacencyNeedsUpdating = false;
+   private int numberOfAdjacencyVertices = 0;
+   private int[] adjacencyStartIndices = new int[1];
+   private int[] adjacentVertexIndices = new int[0];
+
+   // Connections added since the adjacency was last updated, as pairs of vertex indices, from then to.
+   private int numberOfPendingConnections = 0;
+   private int[] pendingConnectionVertexIndices = new int[0];
+
+   private final Point3D vertexPosition = new Point3D();
+
+   private boolean hasEdges = false;
+   private boolean useHillClimbingForSupportingVertex = false;
+
+   // Cube map from a query direction to the vertex to start climbing from, resolution by resolution cells on each face.
+   private int supportingVertexLookupTableResolution = 0;
+   private boolean supportingVertexLookupTableNeedsUpdating = false;
+   private int[] supportingVertexLookupTable = new int[0];
 
    private boolean boundingBoxNeedsUpdating = false;
    private final BoundingBox3D boundingBox = new BoundingBox3D(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
                                                                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
 
+   // Cleared once the adjacency, lookup table and bounding box are up to date, volatile so that the update done by one query
+   // is seen by the queries of the other threads.
+   private volatile boolean isUpToDate = true;
+
    public ConvexPolytope()
    {
    }
 
    public ConvexPolytope(ConvexPolytope polytope)
    {
-      for (PolytopeVertex vertex : polytope.vertices)
+      for (int i = 0; i < polytope.numberOfVertices; i++)
       {
-         this.vertices.add(new PolytopeVertex(vertex));
+         addVertex(polytope.vertexXs[i], polytope.vertexYs[i], polytope.vertexZs[i]);
       }
 
       boundingBoxNeedsUpdating = true;
+      isUpToDate = false;
    }
 
    public void getBoundingBox(BoundingBox3D boundingBoxToPack)
    {
-      if (boundingBoxNeedsUpdating)
-      {
-         updateBoundingBox();
-         boundingBoxNeedsUpdating = false;
-      }
-
+      updateIfNeeded();
       boundingBoxToPack.set(boundingBox);
    }
 
@@ -50,12 +88,11 @@ public class ConvexPolytope implements SupportingVertexHolder
       double yMax = Double.NEGATIVE_INFINITY;
       double zMax = Double.NEGATIVE_INFINITY;
 
-      for (int i = 0; i < vertices.size(); i++)
+      for (int i = 0; i < numberOfVertices; i++)
       {
-         PolytopeVertex polytopeVertex = vertices.get(i);
-         double x = polytopeVertex.getX();
-         double y = polytopeVertex.getY();
-         double z = polytopeVertex.getZ();
+         double x = vertexXs[i];
+         double y = vertexYs[i];
+         double z = vertexZs[i];
 
          if (x < xMin)
             xMin = x;
@@ -77,23 +114,31 @@ public class ConvexPolytope implements SupportingVertexHolder
 
    public void copyVerticesFrom(ConvexPolytope polytope)
    {
-      int numberOfVertices = this.vertices.size();
-
-      if (numberOfVertices != polytope.vertices.size())
+      if (numberOfVertices != polytope.numberOfVertices)
       {
          throw new RuntimeException("Vertices are not same size!");
       }
 
-      for (int i = 0; i < numberOfVertices; i++)
-      {
-         this.vertices.get(i).setPosition(polytope.vertices.get(i));
-      }
+      System.arraycopy(polytope.vertexXs, 0, vertexXs, 0, numberOfVertices);
+      System.arraycopy(polytope.vertexYs, 0, vertexYs, 0, numberOfVertices);
+      System.arraycopy(polytope.vertexZs, 0, vertexZs, 0, numberOfVertices);
 
       boundingBoxNeedsUpdating = true;
+      supportingVertexLookupTableNeedsUpdating = true;
+      isUpToDate = false;
    }
 
+   /**
+    * Returns a new list with a view of each vertex.
+    */
    public ArrayList<PolytopeVertex> getVertices()
    {
+      ArrayList<PolytopeVertex> vertices = new ArrayList<>(numberOfVertices);
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         vertices.add(new PolytopeVertex(this, i));
+      }
+
       return vertices;
    }
 
@@ -105,141 +150,609 @@ public class ConvexPolytope implements SupportingVertexHolder
       }
 
       boundingBoxNeedsUpdating = true;
+      isUpToDate = false;
    }
 
    public PolytopeVertex addVertex(Point3D position)
    {
-      PolytopeVertex vertex = new PolytopeVertex(position);
-      vertices.add(vertex);
-      boundingBoxNeedsUpdating = true;
-      return vertex;
+      return addVertex(position.getX(), position.getY(), position.getZ());
    }
 
    public PolytopeVertex addVertex(double x, double y, double z)
    {
-      PolytopeVertex vertex = new PolytopeVertex(x, y, z);
-      vertices.add(vertex);
+      ensureCapacity(numberOfVertices + 1);
+
+      int index = numberOfVertices;
+      vertexXs[index] = x;
+      vertexYs[index] = y;
+      vertexZs[index] = z;
+      numberOfVertices++;
+
+      adjacencyNeedsUpdating = true;
       boundingBoxNeedsUpdating = true;
-      return vertex;
+      supportingVertexLookupTableNeedsUpdating = true;
+      isUpToDate = false;
+      return new PolytopeVertex(this, index);
    }
 
    public PolytopeVertex addVertex(double[] xyzValues)
    {
-      PolytopeVertex vertex = new PolytopeVertex(xyzValues[0], xyzValues[1], xyzValues[2]);
-      vertices.add(vertex);
-      boundingBoxNeedsUpdating = true;
-      return vertex;
+      return addVertex(xyzValues[0], xyzValues[1], xyzValues[2]);
    }
 
-   public void addEdge(PolytopeVertex vertexOne, PolytopeVertex vertexTwo)
+   private void ensureCapacity(int capacity)
    {
-      vertexOne.addConnectingVertex(vertexTwo);
-      vertexTwo.addConnectingVertex(vertexOne);
+      if (capacity <= vertexXs.length)
+         return;
+
+      int newCapacity = Math.max(capacity, 2 * vertexXs.length);
+      vertexXs = copyOf(vertexXs, newCapacity);
+      vertexYs = copyOf(vertexYs, newCapacity);
+      vertexZs = copyOf(vertexZs, newCapacity);
    }
 
-   public int getNumberOfVertices()
+   private static double[] copyOf(double[] array, int newLength)
    {
-      return vertices.size();
+      double[] newArray = new double[newLength];
+      System.arraycopy(array, 0, newArray, 0, Math.min(array.length, newLength));
+      return newArray;
    }
 
-   public PolytopeVertex getVertex(int index)
+   public void addEdge(PolytopeVertex vertexOne, PolytopeVertex vertexTwo)
    {
-      return vertices.get(index);
+      // The edges are stored with the vertex indices in this polytope.
+      if (vertexOne.getPolytope() != this || vertexTwo.getPolytope() != this)
+         throw new RuntimeException("Edge vertices must be created by this polytope: " + vertexOne + ", " + vertexTwo);
+
+      addConnection(vertexOne.getIndex(), vertexTwo.getIndex());
+      addConnection(vertexTwo.getIndex(), vertexOne.getIndex());
    }
 
-   public int getNumberOfEdges()
+   /**
+    * Connects the vertex at fromIndex to the vertex at toIndex, in that direction only. Connections already there are
+    * ignored when the adjacency is updated.
+    */
+   void addConnection(int fromIndex, int toIndex)
    {
-      int numberOfEdges = 0;
-
-      for (int i = 0; i < vertices.size(); i++)
+      if (2 * numberOfPendingConnections + 2 > pendingConnectionVertexIndices.length)
       {
-         numberOfEdges = numberOfEdges + vertices.get(i).getNumberOfConnectingVertices();
+         int[] newPendingConnectionVertexIndices = new int[Math.max(16, 2 * pendingConnectionVertexIndices.length)];
+         System.arraycopy(pendingConnectionVertexIndices, 0, newPendingConnectionVertexIndices, 0, 2 * numberOfPendingConnections);
+         pendingConnectionVertexIndices = newPendingConnectionVertexIndices;
       }
 
-      numberOfEdges = numberOfEdges / 2;
+      pendingConnectionVertexIndices[2 * numberOfPendingConnections] = fromIndex;
+      pendingConnectionVertexIndices[2 * numberOfPendingConnections + 1] = toIndex;
+      numberOfPendingConnections++;
+      adjacencyNeedsUpdating = true;
+      isUpToDate = false;
+   }
+
+   int getNumberOfConnectingVertices(int vertexIndex)
+   {
+      updateIfNeeded();
+
+      return adjacencyStartIndices[vertexIndex + 1] - adjacencyStartIndices[vertexIndex];
+   }
+
+   int getConnectingVertexIndex(int vertexIndex, int connectionIndex)
+   {
+      updateIfNeeded();
 
-      return numberOfEdges;
+      if (connectionIndex < 0 || connectionIndex >= adjacencyStartIndices[vertexIndex + 1] - adjacencyStartIndices[vertexIndex])
+         throw new IndexOutOfBoundsException("Connection index: " + connectionIndex + ", number of connecting vertices: "
+               + (adjacencyStartIndices[vertexIndex + 1] - adjacencyStartIndices[vertexIndex]));
+
+      return adjacentVertexIndices[adjacencyStartIndices[vertexIndex] + connectionIndex];
    }
 
-   public ArrayList<PolytopeVertex[]> getEdges()
+   int[] getAdjacencyStartIndices()
    {
-      //TODO: Make this more efficient, and the representation of edges in a Polytope in general.
-      ArrayList<PolytopeVertex[]> edgesToReturn = new ArrayList<>();
+      updateIfNeeded();
+
+      return adjacencyStartIndices;
+   }
+
+   int[] getAdjacentVertexIndices()
+   {
+      updateIfNeeded();
+
+      return adjacentVertexIndices;
+   }
+
+   /**
+    * Brings the adjacency, lookup table and bounding box up to date after a change. The first of the queries running at
+    * once does it, the others wait for it.
+    */
+   private void updateIfNeeded()
+   {
+      if (isUpToDate)
+         return;
+
+      synchronized (this)
+      {
+         if (isUpToDate)
+            return;
+
+         if (adjacencyNeedsUpdating)
+            updateAdjacency();
+         if (supportingVertexLookupTableNeedsUpdating && supportingVertexLookupTableResolution > 0)
+            updateSupportingVertexLookupTable();
+         if (boundingBoxNeedsUpdating)
+         {
+            updateBoundingBox();
+            boundingBoxNeedsUpdating = false;
+         }
+
+         isUpToDate = true;
+      }
+   }
+
+   /**
+    * Merges the pending connections into the adjacency, after the connections already there and in the order they were
+    * added, and covers the vertices added since the last update.
+    */
+   private void updateAdjacency()
+   {
+      int[] newAdjacencyStartIndices = new int[numberOfVertices + 1];
+
+      for (int i = 0; i < numberOfAdjacencyVertices; i++)
+      {
+         newAdjacencyStartIndices[i + 1] = adjacencyStartIndices[i + 1] - adjacencyStartIndices[i];
+      }
+      for (int i = 0; i < numberOfPendingConnections; i++)
+      {
+         newAdjacencyStartIndices[pendingConnectionVertexIndices[2 * i] + 1]++;
+      }
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         newAdjacencyStartIndices[i + 1] += newAdjacencyStartIndices[i];
+      }
+
+      int[] newAdjacentVertexIndices = new int[newAdjacencyStartIndices[numberOfVertices]];
+      int[] fillIndices = new int[numberOfVertices];
+      System.arraycopy(newAdjacencyStartIndices, 0, fillIndices, 0, numberOfVertices);
 
-      for (int i = 0; i < vertices.size(); i++)
+      for (int i = 0; i < numberOfAdjacencyVertices; i++)
       {
-         PolytopeVertex vertex = vertices.get(i);
-         int numberOfConnectingVertices = vertex.getNumberOfConnectingVertices();
-         for (int j = 0; j < numberOfConnectingVertices; j++)
+         for (int j = adjacencyStartIndices[i]; j < adjacencyStartIndices[i + 1]; j++)
          {
-            PolytopeVertex connectingVertex = vertex.getConnectingVertex(j);
+            newAdjacentVertexIndices[fillIndices[i]++] = adjacentVertexIndices[j];
+         }
+      }
+      for (int i = 0; i < numberOfPendingConnections; i++)
+      {
+         int fromIndex = pendingConnectionVertexIndices[2 * i];
+         newAdjacentVertexIndices[fillIndices[fromIndex]++] = pendingConnectionVertexIndices[2 * i + 1];
+      }
+
+      // Drops the repeated connections of each vertex, keeping the first one, with the last vertex each neighbor was seen from.
+      int[] lastConnectedVertexIndices = fillIndices;
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         lastConnectedVertexIndices[i] = -1;
+      }
 
-            if (!alreadyHaveEdgeInList(edgesToReturn, vertex, connectingVertex))
+      int numberOfAdjacencies = 0;
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         int start = newAdjacencyStartIndices[i];
+         int end = newAdjacencyStartIndices[i + 1];
+         newAdjacencyStartIndices[i] = numberOfAdjacencies;
+
+         for (int j = start; j < end; j++)
+         {
+            int neighborIndex = newAdjacentVertexIndices[j];
+            if (neighborIndex != i && lastConnectedVertexIndices[neighborIndex] != i)
             {
-               edgesToReturn.add(new PolytopeVertex[] {vertex, connectingVertex});
+               lastConnectedVertexIndices[neighborIndex] = i;
+               newAdjacentVertexIndices[numberOfAdjacencies++] = neighborIndex;
             }
          }
       }
+      newAdjacencyStartIndices[numberOfVertices] = numberOfAdjacencies;
 
-      return edgesToReturn;
+      if (numberOfAdjacencies < newAdjacentVertexIndices.length)
+      {
+         adjacentVertexIndices = new int[numberOfAdjacencies];
+         System.arraycopy(newAdjacentVertexIndices, 0, adjacentVertexIndices, 0, numberOfAdjacencies);
+      }
+      else
+      {
+         adjacentVertexIndices = newAdjacentVertexIndices;
+      }
+
+      adjacencyStartIndices = newAdjacencyStartIndices;
+      numberOfAdjacencyVertices = numberOfVertices;
+      numberOfPendingConnections = 0;
+      pendingConnectionVertexIndices = new int[0];
+
+      hasEdges = numberOfAdjacencies > 0;
+      adjacencyNeedsUpdating = false;
+      supportingVertexLookupTableNeedsUpdating = true;
+   }
+
+   /**
+    * When enabled, {@link #getSupportingVertex(Vector3D)} walks uphill along the edges instead of scanning every vertex,
+    * starting from the vertex given to {@link #getCoreSupportingVertexIndex(Vector3DReadOnly, int, Point3DBasics)}, or
+    * from the first vertex. This is only valid when the edges of this
+    * polytope are the edges of its convex hull, since a vertex with no better neighbor is then the global maximum.
+    * Polytopes without edges always use the linear scan.
+    */
+   public void setUseHillClimbingForSupportingVertex(boolean useHillClimbingForSupportingVertex)
+   {
+      this.useHillClimbingForSupportingVertex = useHillClimbingForSupportingVertex;
+   }
+
+   public boolean isUsingHillClimbingForSupportingVertex()
+   {
+      return useHillClimbingForSupportingVertex;
+   }
+
+   /**
+    * For polytopes that do not change, the walk along the edges can start from a vertex looked up in a cube
+    * map of the query direction rather than from the previously returned vertex, so it usually finishes in
+    * one or two steps whatever the previous query was. Each face of the cube is split in resolution by
+    * resolution cells, so the table holds 6 * resolution * resolution ints. It is rebuilt on the next query
+    * after the vertices or edges change. A resolution of 0, the default, disables the table. The table is
+    * only used along with {@link #setUseHillClimbingForSupportingVertex(boolean)}.
+    */
+   public void setSupportingVertexLookupTableResolution(int resolution)
+   {
+      if (resolution < 0)
+         throw new RuntimeException("Resolution must not be negative: " + resolution);
+
+      supportingVertexLookupTableResolution = resolution;
+      supportingVertexLookupTableNeedsUpdating = true;
+      isUpToDate = false;
    }
 
-   private boolean alreadyHaveEdgeInList(ArrayList<PolytopeVertex[]> listOfEdges, PolytopeVertex vertexOne, PolytopeVertex vertexTwo)
+   public int getSupportingVertexLookupTableResolution()
    {
-      for (int k = 0; k < listOfEdges.size(); k++)
+      return supportingVertexLookupTableResolution;
+   }
+
+   public int getNumberOfVertices()
+   {
+      return numberOfVertices;
+   }
+
+   /**
+    * Returns a new view of the vertex at the given index.
+    */
+   public PolytopeVertex getVertex(int index)
+   {
+      if (index < 0 || index >= numberOfVertices)
+         throw new IndexOutOfBoundsException("Index: " + index + ", number of vertices: " + numberOfVertices);
+
+      return new PolytopeVertex(this, index);
+   }
+
+   double getVertexX(int index)
+   {
+      return vertexXs[index];
+   }
+
+   double getVertexY(int index)
+   {
+      return vertexYs[index];
+   }
+
+   double getVertexZ(int index)
+   {
+      return vertexZs[index];
+   }
+
+   /**
+    * Packs the position of the vertex in the point shared by all the vertices of this polytope and by
+    * {@link #getSupportingVertex(Vector3D)}, and returns it.
+    */
+   Point3D getVertexPosition(int index)
+   {
+      vertexPosition.set(vertexXs[index], vertexYs[index], vertexZs[index]);
+      return vertexPosition;
+   }
+
+   void setVertex(int index, double x, double y, double z)
+   {
+      vertexXs[index] = x;
+      vertexYs[index] = y;
+      vertexZs[index] = z;
+
+      boundingBoxNeedsUpdating = true;
+      supportingVertexLookupTableNeedsUpdating = true;
+      isUpToDate = false;
+   }
+
+   public int getNumberOfEdges()
+   {
+      updateIfNeeded();
+
+      return adjacencyStartIndices[numberOfVertices] / 2;
+   }
+
+   public ArrayList<PolytopeVertex[]> getEdges()
+   {
+      updateIfNeeded();
+
+      ArrayList<PolytopeVertex[]> edgesToReturn = new ArrayList<>();
+
+      for (int i = 0; i < numberOfVertices; i++)
       {
-         PolytopeVertex[] edgeToReturn = listOfEdges.get(k);
-         if (((edgeToReturn[0] == vertexOne) && (edgeToReturn[1] == vertexTwo)) || ((edgeToReturn[0] == vertexTwo) && (edgeToReturn[1] == vertexOne)))
+         for (int j = adjacencyStartIndices[i]; j < adjacencyStartIndices[i + 1]; j++)
          {
-            return true;
+            int connectingVertexIndex = adjacentVertexIndices[j];
+
+            // Each edge is stored in both directions, only report it once.
+            if (i < connectingVertexIndex)
+            {
+               edgesToReturn.add(new PolytopeVertex[] {new PolytopeVertex(this, i), new PolytopeVertex(this, connectingVertexIndex)});
+            }
          }
       }
 
-      return false;
+      return edgesToReturn;
    }
 
    public void applyTransform(RigidBodyTransform transform)
    {
-      for (int i = 0; i < vertices.size(); i++)
+      double m00 = transform.getM00();
+      double m01 = transform.getM01();
+      double m02 = transform.getM02();
+      double m03 = transform.getM03();
+      double m10 = transform.getM10();
+      double m11 = transform.getM11();
+      double m12 = transform.getM12();
+      double m13 = transform.getM13();
+      double m20 = transform.getM20();
+      double m21 = transform.getM21();
+      double m22 = transform.getM22();
+      double m23 = transform.getM23();
+
+      for (int i = 0; i < numberOfVertices; i++)
       {
-         PolytopeVertex polytopeVertex = vertices.get(i);
-         polytopeVertex.applyTransform(transform);
+         double x = vertexXs[i];
+         double y = vertexYs[i];
+         double z = vertexZs[i];
+
+         vertexXs[i] = m00 * x + m01 * y + m02 * z + m03;
+         vertexYs[i] = m10 * x + m11 * y + m12 * z + m13;
+         vertexZs[i] = m20 * x + m21 * y + m22 * z + m23;
       }
 
       boundingBoxNeedsUpdating = true;
+      supportingVertexLookupTableNeedsUpdating = true;
+      isUpToDate = false;
    }
 
+   /**
+    * Returns the point shared with {@link PolytopeVertex#getPosition()}, overwritten by the next call to either.
+    */
    @Override
    public Point3D getSupportingVertex(Vector3D supportDirection)
    {
-      // Naive implementation. Just search through all of them.
-      // TODO: Smart downhill march along edges. But will require always having the edges...
+      int bestVertexIndex = getSupportingVertexIndex(supportDirection.getX(), supportDirection.getY(), supportDirection.getZ(), -1);
+      return getVertexPosition(bestVertexIndex);
+   }
+
+   @Override
+   public void getSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      getCoreSupportingVertexIndex(supportDirection, -1, supportingVertexToPack);
+   }
 
-      double maxDotSquared = Double.NEGATIVE_INFINITY;
-      PolytopeVertex bestVertex = null;
+   @Override
+   public int getCoreSupportingVertexIndex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      return getCoreSupportingVertexIndex(supportDirection, -1, supportingVertexToPack);
+   }
 
-      int numberOfVertices = vertices.size();
-      for (int i = 0; i < numberOfVertices; i++)
+   @Override
+   public int getCoreSupportingVertexIndex(Vector3DReadOnly supportDirection, int startVertexIndex, Point3DBasics supportingVertexToPack)
+   {
+      int bestVertexIndex = getSupportingVertexIndex(supportDirection.getX(), supportDirection.getY(), supportDirection.getZ(), startVertexIndex);
+      supportingVertexToPack.set(vertexXs[bestVertexIndex], vertexYs[bestVertexIndex], vertexZs[bestVertexIndex]);
+      return bestVertexIndex;
+   }
+
+   @Override
+   public boolean getCoreVertex(int vertexIndex, Point3DBasics vertexToPack)
+   {
+      if (vertexIndex < 0 || vertexIndex >= numberOfVertices)
+         return false;
+
+      vertexToPack.set(vertexXs[vertexIndex], vertexYs[vertexIndex], vertexZs[vertexIndex]);
+      return true;
+   }
+
+   /**
+    * Goes through the vertices in tiles that stay in cache while they are tested against all the directions, so each
+    * vertex is loaded once per tile rather than once per direction. This is always a full scan, and the result is the
+    * same as the linear scan for each direction.
+    */
+   @Override
+   public void getSupportingVertices(double[] directionXs, double[] directionYs, double[] directionZs, int numberOfDirections,
+                                     double[] supportingVertexXsToPack, double[] supportingVertexYsToPack, double[] supportingVertexZsToPack)
+   {
+      double[] batchMaxDotProducts = new double[numberOfDirections];
+      int[] batchSupportingVertexIndices = new int[numberOfDirections];
+
+      for (int i = 0; i < numberOfDirections; i++)
       {
-         PolytopeVertex vertex = vertices.get(i);
-         double dotProduct = vertex.dot(supportDirection);
-         if (dotProduct > maxDotSquared)
+         batchMaxDotProducts[i] = Double.NEGATIVE_INFINITY;
+         batchSupportingVertexIndices[i] = -1;
+      }
+
+      for (int tileStart = 0; tileStart < numberOfVertices; tileStart += BATCH_VERTEX_TILE_SIZE)
+      {
+         int tileEnd = Math.min(tileStart + BATCH_VERTEX_TILE_SIZE, numberOfVertices);
+
+         for (int i = 0; i < numberOfDirections; i++)
+         {
+            double directionX = directionXs[i];
+            double directionY = directionYs[i];
+            double directionZ = directionZs[i];
+
+            double maxDotProduct = batchMaxDotProducts[i];
+            int bestVertexIndex = batchSupportingVertexIndices[i];
+
+            for (int j = tileStart; j < tileEnd; j++)
+            {
+               double dotProduct = vertexXs[j] * directionX + vertexYs[j] * directionY + vertexZs[j] * directionZ;
+               if (dotProduct > maxDotProduct)
+               {
+                  maxDotProduct = dotProduct;
+                  bestVertexIndex = j;
+               }
+            }
+
+            batchMaxDotProducts[i] = maxDotProduct;
+            batchSupportingVertexIndices[i] = bestVertexIndex;
+         }
+      }
+
+      for (int i = 0; i < numberOfDirections; i++)
+      {
+         int bestVertexIndex = batchSupportingVertexIndices[i];
+         supportingVertexXsToPack[i] = vertexXs[bestVertexIndex];
+         supportingVertexYsToPack[i] = vertexYs[bestVertexIndex];
+         supportingVertexZsToPack[i] = vertexZs[bestVertexIndex];
+      }
+   }
+
+   private int getSupportingVertexIndex(double directionX, double directionY, double directionZ, int startVertexIndex)
+   {
+      updateIfNeeded();
+
+      if (!useHillClimbingForSupportingVertex || !hasEdges)
+         return getSupportingVertexIndexByLinearScan(directionX, directionY, directionZ);
+
+      if (supportingVertexLookupTableResolution > 0)
+         startVertexIndex = getSupportingVertexLookupTableStartIndex(directionX, directionY, directionZ);
+
+      return getSupportingVertexIndexByHillClimbing(directionX, directionY, directionZ, startVertexIndex);
+   }
+
+   private int getSupportingVertexIndexByLinearScan(double directionX, double directionY, double directionZ)
+   {
+      return ConvexPolytopeAdjacencyTools.getSupportingVertexIndexByLinearScan(directionX, directionY, directionZ, vertexXs, vertexYs, vertexZs,
+                                                                              numberOfVertices);
+   }
+
+   /**
+    * Vertex the walk along the edges starts from for the given direction, when the lookup table is enabled.
+    */
+   int getSupportingVertexLookupTableStartIndex(double directionX, double directionY, double directionZ)
+   {
+      updateIfNeeded();
+
+      return supportingVertexLookupTable[getSupportingVertexLookupTableCell(directionX, directionY, directionZ)];
+   }
+
+   private void updateSupportingVertexLookupTable()
+   {
+      int resolution = supportingVertexLookupTableResolution;
+      int numberOfCells = 6 * resolution * resolution;
+      if (supportingVertexLookupTable.length != numberOfCells)
+         supportingVertexLookupTable = new int[numberOfCells];
+
+      // Neighboring cells have close answers, so each one is found by climbing from the previous one.
+      int vertexIndex = 0;
+
+      for (int face = 0; face < 6; face++)
+      {
+         for (int cellV = 0; cellV < resolution; cellV++)
          {
-            maxDotSquared = dotProduct;
-            bestVertex = vertex;
+            double v = -1.0 + (2.0 * cellV + 1.0) / resolution;
+
+            for (int cellU = 0; cellU < resolution; cellU++)
+            {
+               double u = -1.0 + (2.0 * cellU + 1.0) / resolution;
+
+               switch (face)
+               {
+               case 0:
+                  vertexIndex = getSupportingVertexIndexByHillClimbing(1.0, u, v, vertexIndex);
+                  break;
+               case 1:
+                  vertexIndex = getSupportingVertexIndexByHillClimbing(-1.0, u, v, vertexIndex);
+                  break;
+               case 2:
+                  vertexIndex = getSupportingVertexIndexByHillClimbing(u, 1.0, v, vertexIndex);
+                  break;
+               case 3:
+                  vertexIndex = getSupportingVertexIndexByHillClimbing(u, -1.0, v, vertexIndex);
+                  break;
+               case 4:
+                  vertexIndex = getSupportingVertexIndexByHillClimbing(u, v, 1.0, vertexIndex);
+                  break;
+               default:
+                  vertexIndex = getSupportingVertexIndexByHillClimbing(u, v, -1.0, vertexIndex);
+                  break;
+               }
+
+               supportingVertexLookupTable[(face * resolution + cellV) * resolution + cellU] = vertexIndex;
+            }
          }
       }
 
-      return bestVertex.getPosition();
+      supportingVertexLookupTableNeedsUpdating = false;
+   }
+
+   private int getSupportingVertexLookupTableCell(double directionX, double directionY, double directionZ)
+   {
+      double absoluteX = Math.abs(directionX);
+      double absoluteY = Math.abs(directionY);
+      double absoluteZ = Math.abs(directionZ);
+
+      int face;
+      double u, v, majorComponent;
+
+      if (absoluteX >= absoluteY && absoluteX >= absoluteZ)
+      {
+         face = directionX >= 0.0 ? 0 : 1;
+         u = directionY;
+         v = directionZ;
+         majorComponent = absoluteX;
+      }
+      else if (absoluteY >= absoluteZ)
+      {
+         face = directionY >= 0.0 ? 2 : 3;
+         u = directionX;
+         v = directionZ;
+         majorComponent = absoluteY;
+      }
+      else
+      {
+         face = directionZ >= 0.0 ? 4 : 5;
+         u = directionX;
+         v = directionY;
+         majorComponent = absoluteZ;
+      }
+
+      if (!(majorComponent > 0.0))
+         return 0;
+
+      int resolution = supportingVertexLookupTableResolution;
+      int cellU = Math.min((int) ((u / majorComponent + 1.0) * 0.5 * resolution), resolution - 1);
+      int cellV = Math.min((int) ((v / majorComponent + 1.0) * 0.5 * resolution), resolution - 1);
+
+      return (face * resolution + cellV) * resolution + cellU;
+   }
+
+   private int getSupportingVertexIndexByHillClimbing(double directionX, double directionY, double directionZ, int startVertexIndex)
+   {
+      return ConvexPolytopeAdjacencyTools.getSupportingVertexIndexByHillClimbing(directionX, directionY, directionZ, startVertexIndex, vertexXs, vertexYs,
+                                                                                vertexZs, numberOfVertices, adjacencyStartIndices, adjacentVertexIndices);
    }
 
    public String toString()
    {
       String string = "";
 
-      for (PolytopeVertex vertex : vertices)
+      for (int i = 0; i < numberOfVertices; i++)
       {
-         string = string + "\n" + vertex;
+         string = string + "\n" + new PolytopeVertex(this, i);
       }
 
       return string;
@@ -0,0 +1,76 @@
+package us.ihmc.geometry.polytope;
+
+/**
+ * Supporting vertex queries over the edges of a convex polytope stored as adjacency lists, the neighbors of vertex i
+ * being adjacentVertexIndices[adjacencyStartIndices[i]] to adjacentVertexIndices[adjacencyStartIndices[i + 1] - 1],
+ * shared by {@link ConvexPolytope}, {@link ConvexPolytopeGeometry} and {@link DobkinKirkpatrickHierarchy}.
+ */
+final class ConvexPolytopeAdjacencyTools
+{
+   private ConvexPolytopeAdjacencyTools()
+   {
+   }
+
+   static int getSupportingVertexIndexByLinearScan(double directionX, double directionY, double directionZ, double[] vertexXs, double[] vertexYs,
+                                                   double[] vertexZs, int numberOfVertices)
+   {
+      double maxDotProduct = Double.NEGATIVE_INFINITY;
+      int bestVertexIndex = -1;
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         double dotProduct = vertexXs[i] * directionX + vertexYs[i] * directionY + vertexZs[i] * directionZ;
+         if (dotProduct > maxDotProduct)
+         {
+            maxDotProduct = dotProduct;
+            bestVertexIndex = i;
+         }
+      }
+
+      return bestVertexIndex;
+   }
+
+   /**
+    * Walks uphill along the edges from startVertexIndex. Falls back to the linear scan when the start vertex has no edge.
+    */
+   static int getSupportingVertexIndexByHillClimbing(double directionX, double directionY, double directionZ, int startVertexIndex, double[] vertexXs,
+                                                     double[] vertexYs, double[] vertexZs, int numberOfVertices, int[] adjacencyStartIndices,
+                                                     int[] adjacentVertexIndices)
+   {
+      int currentVertexIndex = startVertexIndex;
+      if (currentVertexIndex < 0 || currentVertexIndex >= numberOfVertices)
+         currentVertexIndex = 0;
+
+      // A vertex that is not part of the edge graph cannot be walked from.
+      if (adjacencyStartIndices[currentVertexIndex] == adjacencyStartIndices[currentVertexIndex + 1])
+         return getSupportingVertexIndexByLinearScan(directionX, directionY, directionZ, vertexXs, vertexYs, vertexZs, numberOfVertices);
+
+      double currentDotProduct = vertexXs[currentVertexIndex] * directionX + vertexYs[currentVertexIndex] * directionY
+            + vertexZs[currentVertexIndex] * directionZ;
+
+      while (true)
+      {
+         int bestNeighborIndex = -1;
+         double bestNeighborDotProduct = currentDotProduct;
+
+         int adjacencyEnd = adjacencyStartIndices[currentVertexIndex + 1];
+         for (int i = adjacencyStartIndices[currentVertexIndex]; i < adjacencyEnd; i++)
+         {
+            int neighborIndex = adjacentVertexIndices[i];
+            double dotProduct = vertexXs[neighborIndex] * directionX + vertexYs[neighborIndex] * directionY + vertexZs[neighborIndex] * directionZ;
+            if (dotProduct > bestNeighborDotProduct)
+            {
+               bestNeighborDotProduct = dotProduct;
+               bestNeighborIndex = neighborIndex;
+            }
+         }
+
+         // On a convex polytope, a vertex with no better neighbor is the supporting vertex.
+         if (bestNeighborIndex < 0)
+            return currentVertexIndex;
+
+         currentVertexIndex = bestNeighborIndex;
+         currentDotProduct = bestNeighborDotProduct;
+      }
+   }
+}
@@ -0,0 +1,104 @@
+package us.ihmc.geometry.polytope;
+
+import java.util.Arrays;
+
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Immutable vertices and edges of a convex polytope, expressed in its local frame. A single geometry
+ * can be shared by any number of {@link PosedConvexPolytope} instances, and across threads, since
+ * queries do not modify it.
+ */
+public class ConvexPolytopeGeometry
+{
+   private final int numberOfVertices;
+   private final double[] vertexXs;
+   private final double[] vertexYs;
+   private final double[] vertexZs;
+
+   private final int[] adjacencyStartIndices;
+   private final int[] adjacentVertexIndices;
+   private final boolean useHillClimbing;
+
+   /**
+    * Copies the current vertices and edges of the polytope. Hill climbing along the edges is used if the
+    * polytope is set to use it and has edges.
+    */
+   public ConvexPolytopeGeometry(ConvexPolytope polytope)
+   {
+      numberOfVertices = polytope.getNumberOfVertices();
+      if (numberOfVertices == 0)
+         throw new RuntimeException("Polytope has no vertices!");
+
+      vertexXs = new double[numberOfVertices];
+      vertexYs = new double[numberOfVertices];
+      vertexZs = new double[numberOfVertices];
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         vertexXs[i] = polytope.getVertexX(i);
+         vertexYs[i] = polytope.getVertexY(i);
+         vertexZs[i] = polytope.getVertexZ(i);
+      }
+
+      adjacencyStartIndices = Arrays.copyOf(polytope.getAdjacencyStartIndices(), numberOfVertices + 1);
+      int numberOfAdjacencies = adjacencyStartIndices[numberOfVertices];
+      adjacentVertexIndices = Arrays.copyOf(polytope.getAdjacentVertexIndices(), numberOfAdjacencies);
+
+      useHillClimbing = polytope.isUsingHillClimbingForSupportingVertex() && (numberOfAdjacencies > 0);
+   }
+
+   public int getNumberOfVertices()
+   {
+      return numberOfVertices;
+   }
+
+   public double getVertexX(int index)
+   {
+      return vertexXs[index];
+   }
+
+   public double getVertexY(int index)
+   {
+      return vertexYs[index];
+   }
+
+   public double getVertexZ(int index)
+   {
+      return vertexZs[index];
+   }
+
+   public void getVertex(int index, Point3DBasics vertexToPack)
+   {
+      vertexToPack.set(vertexXs[index], vertexYs[index], vertexZs[index]);
+   }
+
+   int[] getAdjacencyStartIndices()
+   {
+      return adjacencyStartIndices;
+   }
+
+   int[] getAdjacentVertexIndices()
+   {
+      return adjacentVertexIndices;
+   }
+
+   boolean isUsingHillClimbing()
+   {
+      return useHillClimbing;
+   }
+
+   /**
+    * Returns the index of the vertex that is the furthest in the given direction. When walking along the
+    * edges, the walk starts at startVertexIndex, which is typically the result of the previous query.
+    */
+   public int getSupportingVertexIndex(double directionX, double directionY, double directionZ, int startVertexIndex)
+   {
+      if (useHillClimbing)
+         return ConvexPolytopeAdjacencyTools.getSupportingVertexIndexByHillClimbing(directionX, directionY, directionZ, startVertexIndex, vertexXs, vertexYs,
+                                                                                   vertexZs, numberOfVertices, adjacencyStartIndices, adjacentVertexIndices);
+      else
+         return ConvexPolytopeAdjacencyTools.getSupportingVertexIndexByLinearScan(directionX, directionY, directionZ, vertexXs, vertexYs, vertexZs,
+                                                                                 numberOfVertices);
+   }
+}
@@ -1,16 +1,16 @@
 package us.ihmc.geometry.polytope;
 
 import us.ihmc.euclid.transform.RigidBodyTransform;
-import us.ihmc.euclid.tuple3D.Point3D;
-import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
 
-public class CylinderSupportingVertexHolder implements SupportingVertexHolder
+/**
+ * Cylinder centered at the origin of its local frame, with its axis along z.
+ */
+public class CylinderSupportingVertexHolder extends PosedSupportingVertexHolder
 {
    private double radius;
    private double height;
 
-   private final RigidBodyTransform transform = new RigidBodyTransform();
-
    public CylinderSupportingVertexHolder(double radius, double height)
    {
       this.radius = radius;
@@ -27,68 +27,44 @@ public class CylinderSupportingVertexHolder implements SupportingVertexHolder
       return height;
    }
 
-   public void getTransform(RigidBodyTransform transformToPack)
-   {
-      transformToPack.set(transform);
-   }
-
-   public void setTransform(RigidBodyTransform transform)
-   {
-      this.transform.set(transform);
-   }
-
-   public void applyTransform(RigidBodyTransform transform)
-   {
-      this.transform.preMultiply(transform);
-   }
-
-   private final Vector3D tempVectorForSupportingVertex = new Vector3D();
-   private final RigidBodyTransform tempTransform = new RigidBodyTransform();
-
    @Override
-   public Point3D getSupportingVertex(Vector3D supportDirection)
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
    {
-      tempTransform.set(transform);
-      tempTransform.invert();
-      
-      tempVectorForSupportingVertex.set(supportDirection);
-      tempTransform.transform(tempVectorForSupportingVertex);
+      double x = localDirectionX;
+      double y = localDirectionY;
+      boolean up = localDirectionZ > 0.0;
 
-      boolean up = tempVectorForSupportingVertex.getZ() > 0.0;
+      double lengthSquared = x * x + y * y;
 
-      tempVectorForSupportingVertex.setZ(0.0);
-      double lengthSquared = tempVectorForSupportingVertex.lengthSquared();
-
-      if (lengthSquared > 1e-10)
+      if (lengthSquared > 0.0)
       {
-         tempVectorForSupportingVertex.normalize();
+         double scale = radius / Math.sqrt(lengthSquared);
+         x *= scale;
+         y *= scale;
       }
       else
       {
-         tempVectorForSupportingVertex.set(1.0, 0.0, 0.0);
+         x = radius;
+         y = 0.0;
       }
 
-      tempVectorForSupportingVertex.scale(radius);
-
       if (up)
       {
-         tempVectorForSupportingVertex.setZ(height / 2.0);
+         localSupportingVertexToPack.set(x, y, height / 2.0);
       }
       else
       {
-         tempVectorForSupportingVertex.setZ(-height / 2.0);
+         localSupportingVertexToPack.set(x, y, -height / 2.0);
       }
-
-      Point3D supportingVertex = new Point3D(tempVectorForSupportingVertex);
-
-      transform.transform(supportingVertex);
-      return supportingVertex;
    }
-   
+
    public String toString()
    {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
       String string = "radius = " + radius + ", height = " + height + ", transform = " + transform;
-      
+
       return string;
    }
 
@@ -0,0 +1,338 @@
+package us.ihmc.geometry.polytope;
+
+import java.util.ArrayList;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Dobkin-Kirkpatrick hierarchy over the convex hull of the vertices of a {@link ConvexPolytope}. Each
+ * level is the hull of the previous one with an independent set of low degree vertices removed, up to
+ * a top level of a few vertices, so there are O(log n) levels. A query scans the top level, then walks
+ * down one level at a time. The supporting vertex of a level is either the one of the level above or
+ * one of the vertices removed next to it, since the part of the lower hull beyond the supporting plane
+ * of the upper hull is made of the caps of these removed vertices. Each step therefore only compares the
+ * previous answer with its removed neighbors, rather than climbing over all its neighbors.
+ * <p>
+ * The hierarchy is built from the vertices of the polytope as they are at construction, in its local
+ * frame. It can then be placed like any {@link PosedSupportingVertexHolder}. Building costs more than
+ * a query by far, see {@link #getBuildTimeInSeconds()} to decide whether it pays off for a shape.
+ */
+public class DobkinKirkpatrickHierarchy extends PosedSupportingVertexHolder
+{
+   private static final int MAXIMUM_DEGREE_OF_REMOVED_VERTICES = 8;
+   private static final int MAXIMUM_NUMBER_OF_VERTICES_IN_TOP_LEVEL = 12;
+
+   private final Level[] levels;
+   private final double buildTimeInSeconds;
+
+   public DobkinKirkpatrickHierarchy(ConvexPolytope polytope)
+   {
+      long startTime = System.nanoTime();
+
+      int numberOfVertices = polytope.getNumberOfVertices();
+      if (numberOfVertices == 0)
+         throw new RuntimeException("Polytope has no vertices!");
+
+      double[] xs = new double[numberOfVertices];
+      double[] ys = new double[numberOfVertices];
+      double[] zs = new double[numberOfVertices];
+      int[] polytopeIndices = new int[numberOfVertices];
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         xs[i] = polytope.getVertexX(i);
+         ys[i] = polytope.getVertexY(i);
+         zs[i] = polytope.getVertexZ(i);
+         polytopeIndices[i] = i;
+      }
+
+      IncrementalConvexHullCalculator hullCalculator = new IncrementalConvexHullCalculator();
+      ArrayList<Level> levelList = new ArrayList<>();
+
+      if (hullCalculator.compute(xs, ys, zs, numberOfVertices))
+      {
+         levelList.add(new Level(xs, ys, zs, polytopeIndices, hullCalculator));
+
+         while (levelList.get(levelList.size() - 1).numberOfVertices > MAXIMUM_NUMBER_OF_VERTICES_IN_TOP_LEVEL)
+         {
+            Level nextLevel = levelList.get(levelList.size() - 1).createNextLevel(hullCalculator);
+            if (nextLevel == null)
+               break;
+
+            levelList.add(nextLevel);
+         }
+      }
+      else
+      {
+         // Flat or degenerate point set, a single level that is scanned.
+         levelList.add(new Level(xs, ys, zs, polytopeIndices));
+      }
+
+      levels = levelList.toArray(new Level[levelList.size()]);
+      buildTimeInSeconds = (System.nanoTime() - startTime) * 1.0e-9;
+   }
+
+   public double getBuildTimeInSeconds()
+   {
+      return buildTimeInSeconds;
+   }
+
+   public int getNumberOfLevels()
+   {
+      return levels.length;
+   }
+
+   /**
+    * Number of vertices in the given level, level 0 being the hull of the polytope.
+    */
+   public int getNumberOfVertices(int level)
+   {
+      return levels[level].numberOfVertices;
+   }
+
+   public int getTotalNumberOfStoredVertices()
+   {
+      int total = 0;
+      for (Level level : levels)
+      {
+         total += level.numberOfVertices;
+      }
+      return total;
+   }
+
+   /**
+    * Returns the index in the original polytope of the vertex that is the furthest in the given
+    * direction, expressed in the local frame.
+    */
+   public int getSupportingVertexIndex(double directionX, double directionY, double directionZ)
+   {
+      return levels[0].indicesInLowerLevel[getSupportingVertexIndexInBottomLevel(directionX, directionY, directionZ)];
+   }
+
+   private int getSupportingVertexIndexInBottomLevel(double directionX, double directionY, double directionZ)
+   {
+      int topLevel = levels.length - 1;
+      int vertexIndex = levels[topLevel].getSupportingVertexIndexByLinearScan(directionX, directionY, directionZ);
+
+      for (int level = topLevel; level > 0; level--)
+      {
+         vertexIndex = levels[level].getSupportingVertexIndexInLowerLevel(directionX, directionY, directionZ, vertexIndex, levels[level - 1]);
+      }
+
+      return vertexIndex;
+   }
+
+   @Override
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
+   {
+      int vertexIndex = getSupportingVertexIndexInBottomLevel(localDirectionX, localDirectionY, localDirectionZ);
+
+      Level bottomLevel = levels[0];
+      localSupportingVertexToPack.set(bottomLevel.vertexXs[vertexIndex], bottomLevel.vertexYs[vertexIndex], bottomLevel.vertexZs[vertexIndex]);
+   }
+
+   public String toString()
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
+      return "numberOfLevels = " + levels.length + ", numberOfVerticesInBottomLevel = " + levels[0].numberOfVertices + ", buildTimeInSeconds = "
+            + buildTimeInSeconds + ", transform = " + transform;
+   }
+
+   private static class Level
+   {
+      private final int numberOfVertices;
+      private final double[] vertexXs;
+      private final double[] vertexYs;
+      private final double[] vertexZs;
+
+      /** For each vertex, its index in the level below, or in the polytope for the bottom level. */
+      private final int[] indicesInLowerLevel;
+
+      private final int[] adjacencyStartIndices;
+      private final int[] adjacentVertexIndices;
+
+      /**
+       * For each vertex, its neighbors in the level below that are not part of this level, as indices in the level below.
+       * Empty for the bottom level.
+       */
+      private final int[] removedNeighborStartIndices;
+      private int[] removedNeighborIndices = new int[0];
+
+      /**
+       * Level made of the hull just computed for the given points.
+       */
+      Level(double[] xs, double[] ys, double[] zs, int[] indicesOfPoints, IncrementalConvexHullCalculator hullCalculator)
+      {
+         numberOfVertices = hullCalculator.getNumberOfHullVertices();
+         vertexXs = new double[numberOfVertices];
+         vertexYs = new double[numberOfVertices];
+         vertexZs = new double[numberOfVertices];
+         indicesInLowerLevel = new int[numberOfVertices];
+
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            int pointIndex = hullCalculator.getHullVertexIndex(i);
+            vertexXs[i] = xs[pointIndex];
+            vertexYs[i] = ys[pointIndex];
+            vertexZs[i] = zs[pointIndex];
+            indicesInLowerLevel[i] = indicesOfPoints[pointIndex];
+         }
+
+         adjacencyStartIndices = hullCalculator.getAdjacencyStartIndices();
+         adjacentVertexIndices = hullCalculator.getAdjacentVertexIndices();
+         removedNeighborStartIndices = new int[numberOfVertices + 1];
+      }
+
+      /**
+       * Level without edges.
+       */
+      Level(double[] xs, double[] ys, double[] zs, int[] indicesOfPoints)
+      {
+         numberOfVertices = xs.length;
+         vertexXs = xs;
+         vertexYs = ys;
+         vertexZs = zs;
+         indicesInLowerLevel = indicesOfPoints;
+
+         adjacencyStartIndices = new int[numberOfVertices + 1];
+         adjacentVertexIndices = new int[0];
+         removedNeighborStartIndices = new int[numberOfVertices + 1];
+      }
+
+      /**
+       * Removes an independent set of low degree vertices and returns the hull of the remaining ones, or
+       * null if no vertex can be removed.
+       */
+      Level createNextLevel(IncrementalConvexHullCalculator hullCalculator)
+      {
+         boolean[] isRemovedOrNeighborOfRemoved = new boolean[numberOfVertices];
+         boolean[] isRemoved = new boolean[numberOfVertices];
+         int numberOfRemovedVertices = 0;
+
+         // Trying the lowest degrees first removes more vertices, and keeps the walks short.
+         for (int degree = 0; degree <= MAXIMUM_DEGREE_OF_REMOVED_VERTICES; degree++)
+         {
+            for (int i = 0; i < numberOfVertices; i++)
+            {
+               if (isRemovedOrNeighborOfRemoved[i] || adjacencyStartIndices[i + 1] - adjacencyStartIndices[i] != degree)
+                  continue;
+
+               isRemoved[i] = true;
+               isRemovedOrNeighborOfRemoved[i] = true;
+               numberOfRemovedVertices++;
+
+               for (int j = adjacencyStartIndices[i]; j < adjacencyStartIndices[i + 1]; j++)
+               {
+                  isRemovedOrNeighborOfRemoved[adjacentVertexIndices[j]] = true;
+               }
+            }
+         }
+
+         int numberOfRemainingVertices = numberOfVertices - numberOfRemovedVertices;
+         if (numberOfRemovedVertices == 0 || numberOfRemainingVertices < 4)
+            return null;
+
+         double[] xs = new double[numberOfRemainingVertices];
+         double[] ys = new double[numberOfRemainingVertices];
+         double[] zs = new double[numberOfRemainingVertices];
+         int[] indicesInThisLevel = new int[numberOfRemainingVertices];
+
+         int remainingIndex = 0;
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            if (isRemoved[i])
+               continue;
+
+            xs[remainingIndex] = vertexXs[i];
+            ys[remainingIndex] = vertexYs[i];
+            zs[remainingIndex] = vertexZs[i];
+            indicesInThisLevel[remainingIndex] = i;
+            remainingIndex++;
+         }
+
+         if (!hullCalculator.compute(xs, ys, zs, numberOfRemainingVertices))
+            return null;
+
+         Level nextLevel = new Level(xs, ys, zs, indicesInThisLevel, hullCalculator);
+         nextLevel.packRemovedNeighbors(this);
+         return nextLevel;
+      }
+
+      /**
+       * Finds the neighbors of each vertex in the lower level that are not in this level. Besides the removed vertices,
+       * these are the remaining ones that are not vertices of this hull, as points within the tolerance of a face.
+       */
+      private void packRemovedNeighbors(Level lowerLevel)
+      {
+         int[] indicesInThisLevel = new int[lowerLevel.numberOfVertices];
+         for (int i = 0; i < lowerLevel.numberOfVertices; i++)
+         {
+            indicesInThisLevel[i] = -1;
+         }
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            indicesInThisLevel[indicesInLowerLevel[i]] = i;
+         }
+
+         int numberOfRemovedNeighbors = 0;
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            int lowerIndex = indicesInLowerLevel[i];
+            for (int j = lowerLevel.adjacencyStartIndices[lowerIndex]; j < lowerLevel.adjacencyStartIndices[lowerIndex + 1]; j++)
+            {
+               if (indicesInThisLevel[lowerLevel.adjacentVertexIndices[j]] < 0)
+                  numberOfRemovedNeighbors++;
+            }
+         }
+
+         removedNeighborIndices = new int[numberOfRemovedNeighbors];
+         int removedNeighborIndex = 0;
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            removedNeighborStartIndices[i] = removedNeighborIndex;
+
+            int lowerIndex = indicesInLowerLevel[i];
+            for (int j = lowerLevel.adjacencyStartIndices[lowerIndex]; j < lowerLevel.adjacencyStartIndices[lowerIndex + 1]; j++)
+            {
+               int neighborIndex = lowerLevel.adjacentVertexIndices[j];
+               if (indicesInThisLevel[neighborIndex] < 0)
+                  removedNeighborIndices[removedNeighborIndex++] = neighborIndex;
+            }
+         }
+         removedNeighborStartIndices[numberOfVertices] = removedNeighborIndex;
+      }
+
+      /**
+       * Given the supporting vertex of this level, returns the one of the level below, as an index in the level below.
+       */
+      int getSupportingVertexIndexInLowerLevel(double directionX, double directionY, double directionZ, int vertexIndex, Level lowerLevel)
+      {
+         int bestVertexIndex = indicesInLowerLevel[vertexIndex];
+         double maxDotProduct = lowerLevel.vertexXs[bestVertexIndex] * directionX + lowerLevel.vertexYs[bestVertexIndex] * directionY
+               + lowerLevel.vertexZs[bestVertexIndex] * directionZ;
+
+         for (int i = removedNeighborStartIndices[vertexIndex]; i < removedNeighborStartIndices[vertexIndex + 1]; i++)
+         {
+            int neighborIndex = removedNeighborIndices[i];
+            double dotProduct = lowerLevel.vertexXs[neighborIndex] * directionX + lowerLevel.vertexYs[neighborIndex] * directionY
+                  + lowerLevel.vertexZs[neighborIndex] * directionZ;
+            if (dotProduct > maxDotProduct)
+            {
+               maxDotProduct = dotProduct;
+               bestVertexIndex = neighborIndex;
+            }
+         }
+
+         return bestVertexIndex;
+      }
+
+      int getSupportingVertexIndexByLinearScan(double directionX, double directionY, double directionZ)
+      {
+         return ConvexPolytopeAdjacencyTools.getSupportingVertexIndexByLinearScan(directionX, directionY, directionZ, vertexXs, vertexYs, vertexZs,
+                                                                                 numberOfVertices);
+      }
+   }
+}
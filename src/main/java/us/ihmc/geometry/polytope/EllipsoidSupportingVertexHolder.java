@@ -0,0 +1,65 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Ellipsoid centered at the origin of its local frame, with its principal axes along x, y, and z.
+ */
+public class EllipsoidSupportingVertexHolder extends PosedSupportingVertexHolder
+{
+   private final double radiusX;
+   private final double radiusY;
+   private final double radiusZ;
+
+   public EllipsoidSupportingVertexHolder(double radiusX, double radiusY, double radiusZ)
+   {
+      this.radiusX = radiusX;
+      this.radiusY = radiusY;
+      this.radiusZ = radiusZ;
+   }
+
+   public double getRadiusX()
+   {
+      return radiusX;
+   }
+
+   public double getRadiusY()
+   {
+      return radiusY;
+   }
+
+   public double getRadiusZ()
+   {
+      return radiusZ;
+   }
+
+   @Override
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
+   {
+      // With R = diag(radiusX, radiusY, radiusZ), the supporting vertex is R^2 d / |R d|.
+      double x = radiusX * localDirectionX;
+      double y = radiusY * localDirectionY;
+      double z = radiusZ * localDirectionZ;
+
+      double lengthSquared = x * x + y * y + z * z;
+
+      if (lengthSquared > 0.0)
+      {
+         double scale = 1.0 / Math.sqrt(lengthSquared);
+         localSupportingVertexToPack.set(radiusX * x * scale, radiusY * y * scale, radiusZ * z * scale);
+      }
+      else
+      {
+         localSupportingVertexToPack.set(radiusX, 0.0, 0.0);
+      }
+   }
+
+   public String toString()
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
+      return "radiusX = " + radiusX + ", radiusY = " + radiusY + ", radiusZ = " + radiusZ + ", transform = " + transform;
+   }
+}
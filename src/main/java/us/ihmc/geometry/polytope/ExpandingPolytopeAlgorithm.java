@@ -1,7 +1,7 @@
 package us.ihmc.geometry.polytope;
 
+import java.util.ArrayList;
 import java.util.PriorityQueue;
-import java.util.Set;
 
 import us.ihmc.commons.lists.RecyclingArrayList;
 import us.ihmc.euclid.tuple3D.Point3D;
@@ -10,6 +10,8 @@ import gnu.trove.map.hash.THashMap;
 
 public class ExpandingPolytopeAlgorithm
 {
+   private static final double DISTANCE_SQUARED_EPSILON = 1e-12;
+
    private final PriorityQueue<ExpandingPolytopeEntry> triangleEntryQueue = new PriorityQueue<ExpandingPolytopeEntry>();
    private final ExpandingPolytopeEdgeList edgeList = new ExpandingPolytopeEdgeList();
 
@@ -24,7 +26,17 @@ public class ExpandingPolytopeAlgorithm
 
    private ExpandingPolytopeAlgorithmListener listener;
 
+   private int numberOfIterations = 0;
+   private SignedDistanceResult.TerminationReason terminationReason = null;
+
    private final RecyclingArrayList<ExpandingPolytopeEntry> polytopeEntryPool = new RecyclingArrayList<>(ExpandingPolytopeEntry.class);
+   private final RecyclingArrayList<Point3D> poolOfPoints = new RecyclingArrayList<>(Point3D.class);
+   private final RecyclingArrayList<Vector3D> poolOfVectors = new RecyclingArrayList<>(Vector3D.class);
+
+   private final THashMap<Point3D, ExpandingPolytopeEntry[]> mapFromStitchVertexToTriangles = new THashMap<>();
+   private final ArrayList<Point3D> stitchVertices = new ArrayList<>();
+   private final ArrayList<ExpandingPolytopeEntry[]> poolOfTwoTriangleArrays = new ArrayList<>();
+   private int numberOfTwoTriangleArraysInUse = 0;
 
    private final Vector3D tempVector12 = new Vector3D();
    private final Vector3D tempVector13 = new Vector3D();
@@ -44,6 +56,8 @@ public class ExpandingPolytopeAlgorithm
    public void setPolytopes(SimplexPolytope simplex, SupportingVertexHolder polytopeOne, SupportingVertexHolder polytopeTwo)
    {
       polytopeEntryPool.clear();
+      poolOfPoints.clear();
+      poolOfVectors.clear();
 
       correspondingPointsOnA.clear();
       correspondingPointsOnB.clear();
@@ -141,6 +155,29 @@ public class ExpandingPolytopeAlgorithm
       }
    }
 
+   /**
+    * Whether the simplex given to {@link #setPolytopes(SimplexPolytope, SupportingVertexHolder, SupportingVertexHolder)}
+    * has a triangle to start expanding from, that is a triangle whose closest point to the origin is inside it.
+    */
+   boolean hasTriangleToExpand()
+   {
+      return !triangleEntryQueue.isEmpty();
+   }
+
+   /**
+    * Number of triangles expanded, or skipped as obsolete, in the last call to
+    * {@link #computeExpandedPolytope(Vector3D, Point3D, Point3D)}.
+    */
+   public int getNumberOfIterations()
+   {
+      return numberOfIterations;
+   }
+
+   SignedDistanceResult.TerminationReason getTerminationReason()
+   {
+      return terminationReason;
+   }
+
    private final Vector3D supportDirection = new Vector3D();
 
    public void computeExpandedPolytope(Vector3D separatingVectorToPack, Point3D closestPointOnA, Point3D closestPointOnB)
@@ -149,7 +186,7 @@ public class ExpandingPolytopeAlgorithm
       Vector3D closestPointToOrigin = null;
       ExpandingPolytopeEntry closestTriangleToOrigin = null;
 
-      int numberOfIterations = 0;
+      numberOfIterations = 0;
       while (true)
       {
          //TODO: Stop the looping!
@@ -187,11 +224,14 @@ public class ExpandingPolytopeAlgorithm
                supportDirection.set(closestPointToOrigin);
             }
             
-            Point3D supportingVertexA = polytopeA.getSupportingVertex(supportDirection);
+            // The supporting vertices are packed into pooled points, since the polytope keeps references to them.
+            Point3D supportingVertexA = poolOfPoints.add();
+            polytopeA.getCoreSupportingVertex(supportDirection, supportingVertexA);
             supportDirection.negate();
-            Point3D supportingVertexB = polytopeB.getSupportingVertex(supportDirection);
+            Point3D supportingVertexB = poolOfPoints.add();
+            polytopeB.getCoreSupportingVertex(supportDirection, supportingVertexB);
 
-            Vector3D w = new Vector3D();
+            Vector3D w = poolOfVectors.add();
             w.sub(supportingVertexA, supportingVertexB);
 
             if (listener != null)
@@ -201,7 +241,10 @@ public class ExpandingPolytopeAlgorithm
 
             double vDotW = closestPointToOrigin.dot(w);
             double lengthSquared = closestPointToOrigin.lengthSquared();
-            mu = Math.min(mu, vDotW * vDotW / lengthSquared);
+            // The distance of w along the support direction, which was negated for B, bounds the penetration depth. Unlike
+            // v.w / |v|, it is still a bound when the closest point is at the origin.
+            double supportDistance = -supportDirection.dot(w) / supportDirection.length();
+            mu = Math.min(mu, supportDistance * supportDistance);
             closeEnough = (mu <= (1.0 + epsilonRelative) * (1.0 + epsilonRelative) * lengthSquared);
 
             if (listener != null)
@@ -222,14 +265,14 @@ public class ExpandingPolytopeAlgorithm
                // edgeList now is the entire silhouette of the current polytope as seen from w.
 
                ExpandingPolytopeEntry firstNewEntry = null;
-               Point3D wPoint = new Point3D(w);
+               Point3D wPoint = poolOfPoints.add();
+               wPoint.set(w);
                correspondingPointsOnA.put(wPoint, supportingVertexA);
                correspondingPointsOnB.put(wPoint, supportingVertexB);
 
                int numberOfEdges = edgeList.getNumberOfEdges();
 
-               //TODO: Recycle the trash here...
-               THashMap<Point3D, ExpandingPolytopeEntry[]> mapFromStitchVertexToTriangles = new THashMap<>();
+               clearStitchVertices();
 
                for (int edgeIndex = 0; edgeIndex < numberOfEdges; edgeIndex++)
                {
@@ -251,18 +294,20 @@ public class ExpandingPolytopeAlgorithm
 
                   if (newEntry.isAffinelyDependent())
                   {
+                     terminationReason = SignedDistanceResult.TerminationReason.PENETRATION_DEGENERATE;
                      computeClosestPointsOnAAndB(closestTriangleToOrigin, closestPointOnA, closestPointOnB);
                      if (listener != null)
                      {
                         listener.foundMinimumPenetrationVector(closestPointToOrigin, closestPointOnA, closestPointOnB);
                      }
                      separatingVectorToPack.set(closestPointToOrigin);
+                     addMargins(separatingVectorToPack, closestPointOnA, closestPointOnB);
                      return;
                   }
 
-                  ExpandingPolytopeEntry[] twoTriangles = getOrCreateTwoTriangleArray(mapFromStitchVertexToTriangles, sentryVertexOne);
+                  ExpandingPolytopeEntry[] twoTriangles = getOrCreateTwoTriangleArray(sentryVertexOne);
                   storeNewEntry(newEntry, twoTriangles);
-                  twoTriangles = getOrCreateTwoTriangleArray(mapFromStitchVertexToTriangles, sentryVertexTwo);
+                  twoTriangles = getOrCreateTwoTriangleArray(sentryVertexTwo);
                   storeNewEntry(newEntry, twoTriangles);
 
                   newEntry.setAdjacentTriangle(0, sentry, sentryEdgeIndex);
@@ -275,7 +320,8 @@ public class ExpandingPolytopeAlgorithm
                      listener.createdNewEntry(newEntry);
 
                   double newEntryClosestDistanceSquared = newEntry.getClosestPointToOrigin().lengthSquared();
-                  if ((newEntry.closestIsInternal()) && (closestPointToOrigin.lengthSquared() <= newEntryClosestDistanceSquared)
+                  // The slack keeps the triangles that are through the origin as well, where round off decides which one is the closest.
+                  if ((newEntry.closestIsInternal()) && (closestPointToOrigin.lengthSquared() <= newEntryClosestDistanceSquared + DISTANCE_SQUARED_EPSILON)
                         && (newEntryClosestDistanceSquared <= mu))
                   {
                      triangleEntryQueue.add(newEntry);
@@ -286,10 +332,9 @@ public class ExpandingPolytopeAlgorithm
                }
 
                // Stich em up:
-               Set<Point3D> keySet = mapFromStitchVertexToTriangles.keySet();
-
-               for (Point3D stitchVertex : keySet)
+               for (int stitchVertexIndex = 0; stitchVertexIndex < stitchVertices.size(); stitchVertexIndex++)
                {
+                  Point3D stitchVertex = stitchVertices.get(stitchVertexIndex);
                   ExpandingPolytopeEntry[] trianglesToStitch = mapFromStitchVertexToTriangles.get(stitchVertex);
                   if ((trianglesToStitch[0] == null) || (trianglesToStitch[1] == null))
                   {
@@ -316,6 +361,11 @@ public class ExpandingPolytopeAlgorithm
          if ((numberOfIterations > 1000) || (closeEnough) || (triangleEntryQueue.isEmpty())
                || (triangleEntryQueue.peek().getClosestPointToOrigin().lengthSquared() > mu))
          {
+            if (closeEnough || numberOfIterations <= 1000)
+               terminationReason = SignedDistanceResult.TerminationReason.PENETRATION_CONVERGED;
+            else
+               terminationReason = SignedDistanceResult.TerminationReason.PENETRATION_MAXIMUM_ITERATIONS;
+
             computeClosestPointsOnAAndB(closestTriangleToOrigin, closestPointOnA, closestPointOnB);
 
             if (listener != null)
@@ -323,11 +373,35 @@ public class ExpandingPolytopeAlgorithm
                listener.foundMinimumPenetrationVector(closestPointToOrigin, closestPointOnA, closestPointOnB);
             }
             separatingVectorToPack.set(closestPointToOrigin);
+            addMargins(separatingVectorToPack, closestPointOnA, closestPointOnB);
             return;
          }
       }
    }
 
+   /**
+    * The polytope is expanded on the cores of the shapes, see {@link SupportingVertexHolder#getMargin()}. The margins are
+    * added to the penetration afterwards, along the separating vector.
+    */
+   private void addMargins(Vector3D separatingVector, Point3D closestPointOnA, Point3D closestPointOnB)
+   {
+      double marginA = polytopeA.getMargin();
+      double marginB = polytopeB.getMargin();
+      double separatingVectorLength = separatingVector.length();
+
+      if ((marginA == 0.0 && marginB == 0.0) || separatingVectorLength == 0.0)
+         return;
+
+      double scale = 1.0 / separatingVectorLength;
+      double directionX = separatingVector.getX() * scale;
+      double directionY = separatingVector.getY() * scale;
+      double directionZ = separatingVector.getZ() * scale;
+
+      closestPointOnA.add(marginA * directionX, marginA * directionY, marginA * directionZ);
+      closestPointOnB.sub(marginB * directionX, marginB * directionY, marginB * directionZ);
+      separatingVector.scale((separatingVectorLength + marginA + marginB) * scale);
+   }
+
    private void storeNewEntry(ExpandingPolytopeEntry newEntry, ExpandingPolytopeEntry[] twoTriangles)
    {
       if (twoTriangles[0] == null)
@@ -342,14 +416,27 @@ public class ExpandingPolytopeAlgorithm
       }
    }
 
-   private ExpandingPolytopeEntry[] getOrCreateTwoTriangleArray(THashMap<Point3D, ExpandingPolytopeEntry[]> mapFromStitchVertexToTriangles,
-         Point3D sentryVertexOne)
+   private void clearStitchVertices()
+   {
+      mapFromStitchVertexToTriangles.clear();
+      stitchVertices.clear();
+      numberOfTwoTriangleArraysInUse = 0;
+   }
+
+   private ExpandingPolytopeEntry[] getOrCreateTwoTriangleArray(Point3D sentryVertexOne)
    {
       ExpandingPolytopeEntry[] twoTriangleArray = mapFromStitchVertexToTriangles.get(sentryVertexOne);
       if (twoTriangleArray == null)
       {
-         twoTriangleArray = new ExpandingPolytopeEntry[2];
+         if (numberOfTwoTriangleArraysInUse == poolOfTwoTriangleArrays.size())
+            poolOfTwoTriangleArrays.add(new ExpandingPolytopeEntry[2]);
+
+         twoTriangleArray = poolOfTwoTriangleArrays.get(numberOfTwoTriangleArraysInUse++);
+         twoTriangleArray[0] = null;
+         twoTriangleArray[1] = null;
+
          mapFromStitchVertexToTriangles.put(sentryVertexOne, twoTriangleArray);
+         stitchVertices.add(sentryVertexOne);
       }
 
       return twoTriangleArray;
@@ -12,6 +12,8 @@ import us.ihmc.euclid.tuple3D.Vector3D;
  */
 public class ExpandingPolytopeEntry implements Comparable<ExpandingPolytopeEntry>
 {
+   private static final double LAMBDA_EPSILON = 1e-10;
+
    private final Point3D[] triangleVertices = new Point3D[3];
    private final Vector3D closestPointToOrigin = new Vector3D();
    private final double[] lambdas = new double[3];
@@ -79,11 +81,12 @@ public class ExpandingPolytopeEntry implements Comparable<ExpandingPolytopeEntry
 
    public boolean closestIsInternal()
    {
+      // The tolerance keeps the triangles whose closest point is on an edge, as when the origin is on an edge of the polytope.
       for (int i = 0; i < 3; i++)
       {
-         if (lambdas[i] < 0.0)
+         if (lambdas[i] < -LAMBDA_EPSILON)
             return false;
-         if (lambdas[i] > 1.0)
+         if (lambdas[i] > 1.0 + LAMBDA_EPSILON)
             return false;
       }
 
@@ -1,9 +1,13 @@
 package us.ihmc.geometry.polytope;
 
+import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
 
 public class ExpandingPolytopeSilhouetteConstructor
 {
+   private static final double ORIGIN_ON_TRIANGLE_DISTANCE_SQUARED = 1e-6;
+   private static final double COPLANAR_EPSILON = 1e-10;
+
    public static void computeSilhouetteFromW(ExpandingPolytopeEntry triangleEntrySeenByW, Vector3D w, ExpandingPolytopeEdgeList edgeListToPack)
    {
       triangleEntrySeenByW.setObsolete(); // This triangle is visible from w.
@@ -28,8 +32,7 @@ public class ExpandingPolytopeSilhouetteConstructor
       {
          // Facet entry is visited for the first time.
 
-         Vector3D closestPointToOrigin = entry.getClosestPointToOrigin();
-         if (isNotVisibleFromW(closestPointToOrigin, w))
+         if (isNotVisibleFromW(entry, w))
          {
             // Facet entry is not visible from w.
             edgeList.addEdge(entry, i);
@@ -46,6 +49,50 @@ public class ExpandingPolytopeSilhouetteConstructor
       }
    }
 
+   /**
+    * When the origin is on the triangle, its closest point to the origin has no direction. The plane of the triangle is
+    * then oriented with the vertex of an adjacent triangle that is not on it, which is behind it since the polytope is
+    * convex.
+    */
+   static boolean isNotVisibleFromW(ExpandingPolytopeEntry entry, Vector3D w)
+   {
+      Vector3D closestPointToOrigin = entry.getClosestPointToOrigin();
+      if (closestPointToOrigin.lengthSquared() >= ORIGIN_ON_TRIANGLE_DISTANCE_SQUARED)
+         return isNotVisibleFromW(closestPointToOrigin, w);
+
+      Point3D vertexOne = entry.getVertex(0);
+      Point3D vertexTwo = entry.getVertex(1);
+      Point3D vertexThree = entry.getVertex(2);
+      double edgeOneX = vertexTwo.getX() - vertexOne.getX();
+      double edgeOneY = vertexTwo.getY() - vertexOne.getY();
+      double edgeOneZ = vertexTwo.getZ() - vertexOne.getZ();
+      double edgeTwoX = vertexThree.getX() - vertexOne.getX();
+      double edgeTwoY = vertexThree.getY() - vertexOne.getY();
+      double edgeTwoZ = vertexThree.getZ() - vertexOne.getZ();
+      double normalX = edgeOneY * edgeTwoZ - edgeOneZ * edgeTwoY;
+      double normalY = edgeOneZ * edgeTwoX - edgeOneX * edgeTwoZ;
+      double normalZ = edgeOneX * edgeTwoY - edgeOneY * edgeTwoX;
+
+      for (int i = 0; i < 3; i++)
+      {
+         ExpandingPolytopeEntry adjacentTriangle = entry.getAdjacentTriangle(i);
+         if (adjacentTriangle == null)
+            continue;
+
+         Point3D oppositeVertex = adjacentTriangle.getVertex((entry.getAdjacentTriangleEdgeIndex(i) + 2) % 3);
+         double polytopeSide = normalX * (oppositeVertex.getX() - vertexOne.getX()) + normalY * (oppositeVertex.getY() - vertexOne.getY())
+               + normalZ * (oppositeVertex.getZ() - vertexOne.getZ());
+
+         if (Math.abs(polytopeSide) > COPLANAR_EPSILON)
+         {
+            double wSide = normalX * (w.getX() - vertexOne.getX()) + normalY * (w.getY() - vertexOne.getY()) + normalZ * (w.getZ() - vertexOne.getZ());
+            return wSide * polytopeSide > 0.0;
+         }
+      }
+
+      return isNotVisibleFromW(closestPointToOrigin, w);
+   }
+
    public static boolean isNotVisibleFromW(Vector3D closestPointToOriginOnTriangle, Vector3D w)
    {
       return closestPointToOriginOnTriangle.dot(w) < closestPointToOriginOnTriangle.dot(closestPointToOriginOnTriangle);
@@ -0,0 +1,127 @@
+package us.ihmc.geometry.polytope;
+
+/**
+ * Single precision copy of a {@link ConvexPolytopeGeometry}, which takes half the memory and half the memory traffic of
+ * the double precision one. The vertices are rounded to floats, about 7 significant digits, so this is meant for batch
+ * queries that can live with an accuracy of about 1e-5 relative to the size of the polytopes, see
+ * {@link FloatGilbertJohnsonKeerthiCollisionDetector}.
+ */
+public class FloatConvexPolytopeGeometry
+{
+   private final int numberOfVertices;
+   private final float[] vertexXs;
+   private final float[] vertexYs;
+   private final float[] vertexZs;
+
+   private final int[] adjacencyStartIndices;
+   private final int[] adjacentVertexIndices;
+   private final boolean useHillClimbing;
+
+   public FloatConvexPolytopeGeometry(ConvexPolytope polytope)
+   {
+      this(new ConvexPolytopeGeometry(polytope));
+   }
+
+   public FloatConvexPolytopeGeometry(ConvexPolytopeGeometry geometry)
+   {
+      numberOfVertices = geometry.getNumberOfVertices();
+
+      vertexXs = new float[numberOfVertices];
+      vertexYs = new float[numberOfVertices];
+      vertexZs = new float[numberOfVertices];
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         vertexXs[i] = (float) geometry.getVertexX(i);
+         vertexYs[i] = (float) geometry.getVertexY(i);
+         vertexZs[i] = (float) geometry.getVertexZ(i);
+      }
+
+      // The adjacency is only indices, it is shared with the double precision geometry.
+      adjacencyStartIndices = geometry.getAdjacencyStartIndices();
+      adjacentVertexIndices = geometry.getAdjacentVertexIndices();
+      useHillClimbing = geometry.isUsingHillClimbing();
+   }
+
+   public int getNumberOfVertices()
+   {
+      return numberOfVertices;
+   }
+
+   public float getVertexX(int index)
+   {
+      return vertexXs[index];
+   }
+
+   public float getVertexY(int index)
+   {
+      return vertexYs[index];
+   }
+
+   public float getVertexZ(int index)
+   {
+      return vertexZs[index];
+   }
+
+   /**
+    * Returns the index of the vertex that is the furthest in the given direction. When walking along the
+    * edges, the walk starts at startVertexIndex, which is typically the result of the previous query.
+    */
+   public int getSupportingVertexIndex(float directionX, float directionY, float directionZ, int startVertexIndex)
+   {
+      if (useHillClimbing && (startVertexIndex >= 0) && (startVertexIndex < numberOfVertices)
+            && (adjacencyStartIndices[startVertexIndex] != adjacencyStartIndices[startVertexIndex + 1]))
+         return getSupportingVertexIndexByHillClimbing(directionX, directionY, directionZ, startVertexIndex);
+      else
+         return getSupportingVertexIndexByLinearScan(directionX, directionY, directionZ);
+   }
+
+   private int getSupportingVertexIndexByLinearScan(float directionX, float directionY, float directionZ)
+   {
+      float maxDotProduct = Float.NEGATIVE_INFINITY;
+      int bestVertexIndex = -1;
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         float dotProduct = vertexXs[i] * directionX + vertexYs[i] * directionY + vertexZs[i] * directionZ;
+         if (dotProduct > maxDotProduct)
+         {
+            maxDotProduct = dotProduct;
+            bestVertexIndex = i;
+         }
+      }
+
+      return bestVertexIndex;
+   }
+
+   private int getSupportingVertexIndexByHillClimbing(float directionX, float directionY, float directionZ, int startVertexIndex)
+   {
+      int currentVertexIndex = startVertexIndex;
+      float currentDotProduct = vertexXs[currentVertexIndex] * directionX + vertexYs[currentVertexIndex] * directionY
+            + vertexZs[currentVertexIndex] * directionZ;
+
+      while (true)
+      {
+         int bestNeighborIndex = -1;
+         float bestNeighborDotProduct = currentDotProduct;
+
+         int adjacencyEnd = adjacencyStartIndices[currentVertexIndex + 1];
+         for (int i = adjacencyStartIndices[currentVertexIndex]; i < adjacencyEnd; i++)
+         {
+            int neighborIndex = adjacentVertexIndices[i];
+            float dotProduct = vertexXs[neighborIndex] * directionX + vertexYs[neighborIndex] * directionY + vertexZs[neighborIndex] * directionZ;
+            if (dotProduct > bestNeighborDotProduct)
+            {
+               bestNeighborDotProduct = dotProduct;
+               bestNeighborIndex = neighborIndex;
+            }
+         }
+
+         if (bestNeighborIndex < 0)
+            return currentVertexIndex;
+
+         currentVertexIndex = bestNeighborIndex;
+         currentDotProduct = bestNeighborDotProduct;
+      }
+   }
+}
@@ -0,0 +1,95 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Single precision GJK between {@link FloatPosedConvexPolytope}s, for batch queries where memory traffic matters more
+ * than accuracy. Everything, from the vertices to the simplex, is stored and computed in floats.
+ * <p>
+ * Floats have about 7 significant digits, so the distances and closest points are accurate to about 1e-5 relative to
+ * the size of the polytopes and to their distance from the origin of the world; translate the polytopes close to the
+ * origin for the best accuracy. As in {@link GilbertJohnsonKeerthiCollisionDetector}, polytopes that are closer than
+ * 1e-4 are reported as colliding, and there are no margins.
+ */
+public class FloatGilbertJohnsonKeerthiCollisionDetector
+{
+   private static final float COLLISION_DISTANCE_SQUARED = 1e-8f;
+   private static final float RELATIVE_TOLERANCE = 1e-5f;
+   private static final int MAXIMUM_NUMBER_OF_ITERATIONS = 32;
+
+   private final FloatSimplexPolytope simplex = new FloatSimplexPolytope();
+   private final float[] supportingVertexOnA = new float[3];
+   private final float[] supportingVertexOnB = new float[3];
+   private int numberOfIterations = 0;
+
+   public boolean arePolytopesColliding(FloatPosedConvexPolytope polytopeA, FloatPosedConvexPolytope polytopeB, Point3DBasics pointOnAToPack,
+                                        Point3DBasics pointOnBToPack)
+   {
+      return arePolytopesColliding(0.0f, 0.0f, 1.0f, polytopeA, polytopeB, pointOnAToPack, pointOnBToPack);
+   }
+
+   /**
+    * When the polytopes are not colliding, packs their closest points. The initial guess is the direction from A to B,
+    * as in {@link GilbertJohnsonKeerthiCollisionDetector}.
+    */
+   public boolean arePolytopesColliding(float initialGuessX, float initialGuessY, float initialGuessZ, FloatPosedConvexPolytope polytopeA,
+                                        FloatPosedConvexPolytope polytopeB, Point3DBasics pointOnAToPack, Point3DBasics pointOnBToPack)
+   {
+      simplex.clearPoints();
+      numberOfIterations = 0;
+
+      // The walks along the edges start from the previous supporting vertices of the query.
+      int vertexIndexOnA = polytopeA.getSupportingVertex(initialGuessX, initialGuessY, initialGuessZ, 0, supportingVertexOnA);
+      int vertexIndexOnB = polytopeB.getSupportingVertex(-initialGuessX, -initialGuessY, -initialGuessZ, 0, supportingVertexOnB);
+      simplex.addVertex(supportingVertexOnA, supportingVertexOnB);
+      float previousVLengthSquared = Float.POSITIVE_INFINITY;
+
+      while (true)
+      {
+         numberOfIterations++;
+
+         boolean originIsOutside = simplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices();
+         float vX = simplex.getClosestPointX();
+         float vY = simplex.getClosestPointY();
+         float vZ = simplex.getClosestPointZ();
+         float vLengthSquared = vX * vX + vY * vY + vZ * vZ;
+
+         if (!originIsOutside || vLengthSquared < COLLISION_DISTANCE_SQUARED)
+         {
+            simplex.getClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+            return true;
+         }
+
+         // v only gets shorter in exact arithmetic, in floats it can cycle once it is as short as it gets.
+         if (vLengthSquared >= previousVLengthSquared)
+         {
+            simplex.getClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+            return false;
+         }
+         previousVLengthSquared = vLengthSquared;
+
+         vertexIndexOnA = polytopeA.getSupportingVertex(-vX, -vY, -vZ, vertexIndexOnA, supportingVertexOnA);
+         vertexIndexOnB = polytopeB.getSupportingVertex(vX, vY, vZ, vertexIndexOnB, supportingVertexOnB);
+         float vDotW = vX * (supportingVertexOnA[0] - supportingVertexOnB[0]) + vY * (supportingVertexOnA[1] - supportingVertexOnB[1])
+               + vZ * (supportingVertexOnA[2] - supportingVertexOnB[2]);
+
+         // The new supporting vertex is no closer to the origin than v, up to the tolerance, or was already in the simplex.
+         if (vLengthSquared - vDotW <= RELATIVE_TOLERANCE * vLengthSquared || numberOfIterations == MAXIMUM_NUMBER_OF_ITERATIONS
+               || !simplex.addVertex(supportingVertexOnA, supportingVertexOnB))
+         {
+            simplex.getClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+            return false;
+         }
+      }
+   }
+
+   public int getNumberOfIterations()
+   {
+      return numberOfIterations;
+   }
+
+   public FloatSimplexPolytope getSimplex()
+   {
+      return simplex;
+   }
+}
@@ -0,0 +1,88 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+
+/**
+ * Single precision counterpart of {@link PosedConvexPolytope}: a shared {@link FloatConvexPolytopeGeometry} placed with
+ * a pose rounded to floats. Supporting vertices are given and returned as arrays of floats, so that
+ * {@link FloatGilbertJohnsonKeerthiCollisionDetector} never goes through doubles.
+ */
+public class FloatPosedConvexPolytope
+{
+   private final FloatConvexPolytopeGeometry geometry;
+
+   private float m00 = 1.0f, m01 = 0.0f, m02 = 0.0f;
+   private float m10 = 0.0f, m11 = 1.0f, m12 = 0.0f;
+   private float m20 = 0.0f, m21 = 0.0f, m22 = 1.0f;
+   private float tx = 0.0f, ty = 0.0f, tz = 0.0f;
+
+   public FloatPosedConvexPolytope(FloatConvexPolytopeGeometry geometry)
+   {
+      this.geometry = geometry;
+   }
+
+   public FloatPosedConvexPolytope(FloatConvexPolytopeGeometry geometry, RigidBodyTransform transform)
+   {
+      this(geometry);
+      setTransform(transform);
+   }
+
+   public FloatConvexPolytopeGeometry getGeometry()
+   {
+      return geometry;
+   }
+
+   public void setTransform(RigidBodyTransform transform)
+   {
+      m00 = (float) transform.getM00();
+      m01 = (float) transform.getM01();
+      m02 = (float) transform.getM02();
+      m10 = (float) transform.getM10();
+      m11 = (float) transform.getM11();
+      m12 = (float) transform.getM12();
+      m20 = (float) transform.getM20();
+      m21 = (float) transform.getM21();
+      m22 = (float) transform.getM22();
+
+      tx = (float) transform.getM03();
+      ty = (float) transform.getM13();
+      tz = (float) transform.getM23();
+   }
+
+   /**
+    * Packs the supporting vertex in the given direction into the first three elements of supportingVertexToPack.
+    */
+   public void getSupportingVertex(float directionX, float directionY, float directionZ, float[] supportingVertexToPack)
+   {
+      getSupportingVertex(directionX, directionY, directionZ, 0, supportingVertexToPack);
+   }
+
+   /**
+    * Same as {@link #getSupportingVertex(float, float, float, float[])}, with the walk along the edges starting from the
+    * vertex with the given index, see {@link FloatConvexPolytopeGeometry#getSupportingVertexIndex}, and returns the index
+    * of the supporting vertex. The instance keeps nothing from the query, so it can be queried from several threads at once.
+    */
+   public int getSupportingVertex(float directionX, float directionY, float directionZ, int startVertexIndex, float[] supportingVertexToPack)
+   {
+      // The inverse of a rotation is its transpose.
+      float localX = m00 * directionX + m10 * directionY + m20 * directionZ;
+      float localY = m01 * directionX + m11 * directionY + m21 * directionZ;
+      float localZ = m02 * directionX + m12 * directionY + m22 * directionZ;
+
+      int vertexIndex = geometry.getSupportingVertexIndex(localX, localY, localZ, startVertexIndex);
+
+      float x = geometry.getVertexX(vertexIndex);
+      float y = geometry.getVertexY(vertexIndex);
+      float z = geometry.getVertexZ(vertexIndex);
+
+      supportingVertexToPack[0] = m00 * x + m01 * y + m02 * z + tx;
+      supportingVertexToPack[1] = m10 * x + m11 * y + m12 * z + ty;
+      supportingVertexToPack[2] = m20 * x + m21 * y + m22 * z + tz;
+      return vertexIndex;
+   }
+
+   public String toString()
+   {
+      return "numberOfVertices = " + geometry.getNumberOfVertices() + ", translation = (" + tx + ", " + ty + ", " + tz + ")";
+   }
+}
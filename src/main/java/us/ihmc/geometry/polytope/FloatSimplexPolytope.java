@@ -0,0 +1,351 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Single precision counterpart of {@link SimplexPolytope}. It stores up to four points of the Minkowski difference A - B,
+ * with the points on A and B they come from, as floats, and reduces itself to the feature closest to the origin with
+ * the Voronoi region tests of Ericson, Real-Time Collision Detection, 5.1.5 and 5.1.6. The barycentric coordinates of the
+ * closest point give the closest points on A and B.
+ */
+public class FloatSimplexPolytope
+{
+   // Faces abc, acd, adb, and bdc of the tetrahedron abcd, each followed by its opposite vertex.
+   private static final int[][] TETRAHEDRON_FACES = {{0, 1, 2, 3}, {0, 2, 3, 1}, {0, 3, 1, 2}, {1, 3, 2, 0}};
+
+   private final float[] xs = new float[4];
+   private final float[] ys = new float[4];
+   private final float[] zs = new float[4];
+   private final float[] pointOnAXs = new float[4];
+   private final float[] pointOnAYs = new float[4];
+   private final float[] pointOnAZs = new float[4];
+   private final float[] pointOnBXs = new float[4];
+   private final float[] pointOnBYs = new float[4];
+   private final float[] pointOnBZs = new float[4];
+   private final float[] lambdas = new float[4];
+   private int numberOfPoints = 0;
+
+   private float closestPointX, closestPointY, closestPointZ;
+
+   // Result of the last triangle query, with one bit per kept vertex and the barycentric coordinates indexed by vertex.
+   private final float[] triangleLambdas = new float[4];
+   private float triangleClosestX, triangleClosestY, triangleClosestZ;
+   private int triangleVertexMask;
+
+   public void clearPoints()
+   {
+      numberOfPoints = 0;
+   }
+
+   public int getNumberOfPoints()
+   {
+      return numberOfPoints;
+   }
+
+   /**
+    * Adds the point pointOnA - pointOnB, given as arrays of three coordinates. Returns false, without adding it, if the
+    * point is already in the simplex.
+    */
+   public boolean addVertex(float[] pointOnA, float[] pointOnB)
+   {
+      float x = pointOnA[0] - pointOnB[0];
+      float y = pointOnA[1] - pointOnB[1];
+      float z = pointOnA[2] - pointOnB[2];
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         if (xs[i] == x && ys[i] == y && zs[i] == z)
+            return false;
+      }
+
+      xs[numberOfPoints] = x;
+      ys[numberOfPoints] = y;
+      zs[numberOfPoints] = z;
+      pointOnAXs[numberOfPoints] = pointOnA[0];
+      pointOnAYs[numberOfPoints] = pointOnA[1];
+      pointOnAZs[numberOfPoints] = pointOnA[2];
+      pointOnBXs[numberOfPoints] = pointOnB[0];
+      pointOnBYs[numberOfPoints] = pointOnB[1];
+      pointOnBZs[numberOfPoints] = pointOnB[2];
+      numberOfPoints++;
+      return true;
+   }
+
+   public float getClosestPointX()
+   {
+      return closestPointX;
+   }
+
+   public float getClosestPointY()
+   {
+      return closestPointY;
+   }
+
+   public float getClosestPointZ()
+   {
+      return closestPointZ;
+   }
+
+   /**
+    * Computes the point of the simplex closest to the origin and removes the points that are not needed to describe it.
+    * Returns false if the simplex is a tetrahedron that contains the origin.
+    */
+   public boolean getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices()
+   {
+      switch (numberOfPoints)
+      {
+      case 1:
+         lambdas[0] = 1.0f;
+         closestPointX = xs[0];
+         closestPointY = ys[0];
+         closestPointZ = zs[0];
+         return true;
+      case 2:
+         updateClosestPointOnSegment();
+         return true;
+      case 3:
+         computeClosestPointOnTriangle(0, 1, 2);
+         setClosestPointFromTriangle();
+         return true;
+      case 4:
+         return updateClosestPointOnTetrahedron();
+      default:
+         throw new RuntimeException("Simplex has " + numberOfPoints + " points!");
+      }
+   }
+
+   /**
+    * Packs the points on A and B of the closest point of the simplex to the origin.
+    */
+   public void getClosestPointsOnAAndB(Point3DBasics pointOnAToPack, Point3DBasics pointOnBToPack)
+   {
+      float pointOnAX = 0.0f, pointOnAY = 0.0f, pointOnAZ = 0.0f;
+      float pointOnBX = 0.0f, pointOnBY = 0.0f, pointOnBZ = 0.0f;
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         pointOnAX += lambdas[i] * pointOnAXs[i];
+         pointOnAY += lambdas[i] * pointOnAYs[i];
+         pointOnAZ += lambdas[i] * pointOnAZs[i];
+         pointOnBX += lambdas[i] * pointOnBXs[i];
+         pointOnBY += lambdas[i] * pointOnBYs[i];
+         pointOnBZ += lambdas[i] * pointOnBZs[i];
+      }
+
+      pointOnAToPack.set(pointOnAX, pointOnAY, pointOnAZ);
+      pointOnBToPack.set(pointOnBX, pointOnBY, pointOnBZ);
+   }
+
+   private void updateClosestPointOnSegment()
+   {
+      float abX = xs[1] - xs[0];
+      float abY = ys[1] - ys[0];
+      float abZ = zs[1] - zs[0];
+
+      float numerator = -(xs[0] * abX + ys[0] * abY + zs[0] * abZ);
+      float lengthSquared = abX * abX + abY * abY + abZ * abZ;
+
+      if (numerator <= 0.0f || lengthSquared == 0.0f)
+      {
+         retainPoints(0b0001);
+         lambdas[0] = 1.0f;
+      }
+      else if (numerator >= lengthSquared)
+      {
+         retainPoints(0b0010);
+         lambdas[0] = 1.0f;
+      }
+      else
+      {
+         lambdas[1] = numerator / lengthSquared;
+         lambdas[0] = 1.0f - lambdas[1];
+         closestPointX = xs[0] + lambdas[1] * abX;
+         closestPointY = ys[0] + lambdas[1] * abY;
+         closestPointZ = zs[0] + lambdas[1] * abZ;
+         return;
+      }
+
+      closestPointX = xs[0];
+      closestPointY = ys[0];
+      closestPointZ = zs[0];
+   }
+
+   private boolean updateClosestPointOnTetrahedron()
+   {
+      float bestDistanceSquared = Float.POSITIVE_INFINITY;
+      int bestFace = -1;
+
+      for (int face = 0; face < 4; face++)
+      {
+         int a = TETRAHEDRON_FACES[face][0];
+         int b = TETRAHEDRON_FACES[face][1];
+         int c = TETRAHEDRON_FACES[face][2];
+         int opposite = TETRAHEDRON_FACES[face][3];
+
+         if (!isOriginOnOtherSideOfFace(a, b, c, opposite))
+            continue;
+
+         computeClosestPointOnTriangle(a, b, c);
+
+         float distanceSquared = triangleClosestX * triangleClosestX + triangleClosestY * triangleClosestY + triangleClosestZ * triangleClosestZ;
+         if (distanceSquared < bestDistanceSquared)
+         {
+            bestDistanceSquared = distanceSquared;
+            bestFace = face;
+         }
+      }
+
+      if (bestFace < 0)
+      {
+         closestPointX = 0.0f;
+         closestPointY = 0.0f;
+         closestPointZ = 0.0f;
+         return false;
+      }
+
+      computeClosestPointOnTriangle(TETRAHEDRON_FACES[bestFace][0], TETRAHEDRON_FACES[bestFace][1], TETRAHEDRON_FACES[bestFace][2]);
+      setClosestPointFromTriangle();
+      return true;
+   }
+
+   /**
+    * A flat tetrahedron has its opposite vertex in the plane of the face, and the face is then tested as if the origin
+    * were outside, which is always safe. In floats, the opposite vertex of a nearly flat tetrahedron can end up on either
+    * side of the face, so the origin also has to be closer to the face than the opposite vertex to be inside.
+    */
+   private boolean isOriginOnOtherSideOfFace(int a, int b, int c, int opposite)
+   {
+      float abX = xs[b] - xs[a], abY = ys[b] - ys[a], abZ = zs[b] - zs[a];
+      float acX = xs[c] - xs[a], acY = ys[c] - ys[a], acZ = zs[c] - zs[a];
+
+      float normalX = abY * acZ - abZ * acY;
+      float normalY = abZ * acX - abX * acZ;
+      float normalZ = abX * acY - abY * acX;
+
+      float originSide = -(xs[a] * normalX + ys[a] * normalY + zs[a] * normalZ);
+      float oppositeSide = (xs[opposite] - xs[a]) * normalX + (ys[opposite] - ys[a]) * normalY + (zs[opposite] - zs[a]) * normalZ;
+
+      return originSide * oppositeSide <= 0.0f || Math.abs(originSide) > Math.abs(oppositeSide);
+   }
+
+   private void computeClosestPointOnTriangle(int a, int b, int c)
+   {
+      float abX = xs[b] - xs[a], abY = ys[b] - ys[a], abZ = zs[b] - zs[a];
+      float acX = xs[c] - xs[a], acY = ys[c] - ys[a], acZ = zs[c] - zs[a];
+
+      float d1 = -(abX * xs[a] + abY * ys[a] + abZ * zs[a]);
+      float d2 = -(acX * xs[a] + acY * ys[a] + acZ * zs[a]);
+      if (d1 <= 0.0f && d2 <= 0.0f)
+      {
+         setTriangleResult(a, b, c, 1.0f, 0.0f, 0.0f);
+         return;
+      }
+
+      float d3 = -(abX * xs[b] + abY * ys[b] + abZ * zs[b]);
+      float d4 = -(acX * xs[b] + acY * ys[b] + acZ * zs[b]);
+      if (d3 >= 0.0f && d4 <= d3)
+      {
+         setTriangleResult(a, b, c, 0.0f, 1.0f, 0.0f);
+         return;
+      }
+
+      float vc = d1 * d4 - d3 * d2;
+      if (vc <= 0.0f && d1 >= 0.0f && d3 <= 0.0f)
+      {
+         float t = d1 / (d1 - d3);
+         setTriangleResult(a, b, c, 1.0f - t, t, 0.0f);
+         return;
+      }
+
+      float d5 = -(abX * xs[c] + abY * ys[c] + abZ * zs[c]);
+      float d6 = -(acX * xs[c] + acY * ys[c] + acZ * zs[c]);
+      if (d6 >= 0.0f && d5 <= d6)
+      {
+         setTriangleResult(a, b, c, 0.0f, 0.0f, 1.0f);
+         return;
+      }
+
+      float vb = d5 * d2 - d1 * d6;
+      if (vb <= 0.0f && d2 >= 0.0f && d6 <= 0.0f)
+      {
+         float t = d2 / (d2 - d6);
+         setTriangleResult(a, b, c, 1.0f - t, 0.0f, t);
+         return;
+      }
+
+      float va = d3 * d6 - d5 * d4;
+      if (va <= 0.0f && (d4 - d3) >= 0.0f && (d5 - d6) >= 0.0f)
+      {
+         float t = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+         setTriangleResult(a, b, c, 0.0f, 1.0f - t, t);
+         return;
+      }
+
+      float denominator = va + vb + vc;
+      if (denominator == 0.0f)
+      {
+         // Degenerate triangle, the origin projects on one of its edges, which the tests above already covered.
+         setTriangleResult(a, b, c, 1.0f, 0.0f, 0.0f);
+         return;
+      }
+
+      float v = vb / denominator;
+      float w = vc / denominator;
+      setTriangleResult(a, b, c, 1.0f - v - w, v, w);
+   }
+
+   private void setTriangleResult(int a, int b, int c, float lambdaA, float lambdaB, float lambdaC)
+   {
+      triangleVertexMask = 0;
+      if (lambdaA > 0.0f)
+         triangleVertexMask |= 1 << a;
+      if (lambdaB > 0.0f)
+         triangleVertexMask |= 1 << b;
+      if (lambdaC > 0.0f)
+         triangleVertexMask |= 1 << c;
+
+      triangleLambdas[a] = lambdaA;
+      triangleLambdas[b] = lambdaB;
+      triangleLambdas[c] = lambdaC;
+
+      triangleClosestX = lambdaA * xs[a] + lambdaB * xs[b] + lambdaC * xs[c];
+      triangleClosestY = lambdaA * ys[a] + lambdaB * ys[b] + lambdaC * ys[c];
+      triangleClosestZ = lambdaA * zs[a] + lambdaB * zs[b] + lambdaC * zs[c];
+   }
+
+   private void setClosestPointFromTriangle()
+   {
+      closestPointX = triangleClosestX;
+      closestPointY = triangleClosestY;
+      closestPointZ = triangleClosestZ;
+
+      for (int i = 0; i < numberOfPoints; i++)
+         lambdas[i] = triangleLambdas[i];
+      retainPoints(triangleVertexMask);
+   }
+
+   private void retainPoints(int vertexMask)
+   {
+      int numberOfRetainedPoints = 0;
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         if ((vertexMask & (1 << i)) == 0)
+            continue;
+
+         xs[numberOfRetainedPoints] = xs[i];
+         ys[numberOfRetainedPoints] = ys[i];
+         zs[numberOfRetainedPoints] = zs[i];
+         pointOnAXs[numberOfRetainedPoints] = pointOnAXs[i];
+         pointOnAYs[numberOfRetainedPoints] = pointOnAYs[i];
+         pointOnAZs[numberOfRetainedPoints] = pointOnAZs[i];
+         pointOnBXs[numberOfRetainedPoints] = pointOnBXs[i];
+         pointOnBYs[numberOfRetainedPoints] = pointOnBYs[i];
+         pointOnBZs[numberOfRetainedPoints] = pointOnBZs[i];
+         lambdas[numberOfRetainedPoints] = lambdas[i];
+         numberOfRetainedPoints++;
+      }
+
+      numberOfPoints = numberOfRetainedPoints;
+   }
+}
@@ -3,6 +3,7 @@ package us.ihmc.geometry.polytope;
 import us.ihmc.commons.lists.RecyclingArrayList;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
+import gnu.trove.list.array.TIntArrayList;
 
 /**
  * GilbertJohnsonKeerthi (GJK) algorithm for doing collision detection
@@ -11,28 +12,57 @@ import us.ihmc.euclid.tuple3D.Vector3D;
  */
 public class GilbertJohnsonKeerthiCollisionDetector
 {
-   private static final double LAMBDA_STOPPING_DELTA = 1e-6;
-
    private final Vector3D supportDirection = new Vector3D();
    private final Vector3D negativeSupportDirection = new Vector3D();
    private final Vector3D supportingVertexOnSimplex = new Vector3D();
    private final Vector3D tempPVector = new Vector3D();
+   private final Vector3D nesterovDirection = new Vector3D();
+   private boolean useNesterovAcceleration = false;
+   private GilbertJohnsonKeerthiTerminationPolicy terminationPolicy = new GilbertJohnsonKeerthiTerminationPolicy();
 
    private final SimplexPolytope simplex = new SimplexPolytope();
    private GilbertJohnsonKeerthiCollisionDetectorListener listener;
 
    private final RecyclingArrayList<Point3D> poolOfPoints = new RecyclingArrayList<Point3D>(Point3D.class);
 
+   private final Point3D tempSupportingVertexOne = new Point3D();
+   private final Point3D tempSupportingVertexTwo = new Point3D();
+
+   private final Vector3D coreSeparationDirection = new Vector3D();
+   private boolean coresAreColliding = false;
+   private int numberOfIterations = 0;
+   private SignedDistanceResult.TerminationReason terminationReason = null;
+
+   private GilbertJohnsonKeerthiWarmStartCache.Entry warmStartEntry = null;
+
+   // Vertex indices of the supporting vertices of the current query, for shapes that have indexed vertices.
+   private final TIntArrayList supportingVertexIndicesOnA = new TIntArrayList();
+   private final TIntArrayList supportingVertexIndicesOnB = new TIntArrayList();
+   // Vertices the walks along the edges of the shapes start from: the previous supporting vertices of the current query.
+   private int startVertexIndexOnA = -1;
+   private int startVertexIndexOnB = -1;
+
+   private final IntersectionTestSimplex intersectionTestSimplex = new IntersectionTestSimplex();
+   private final Vector3D intersectionSupportDirection = new Vector3D();
+   private final Point3D fallbackPointOnA = new Point3D();
+   private final Point3D fallbackPointOnB = new Point3D();
+
+   private final Vector3D boundingBoxDirection = new Vector3D();
+   private final Point3D boundingBoxCenterA = new Point3D();
+   private final Point3D boundingBoxCenterB = new Point3D();
+
    public void computeSupportPointOnMinkowskiDifference(ConvexPolytope cubeOne, ConvexPolytope cubeTwo, Vector3D supportDirection, Point3D supportPoint)
    {
       // Because everything is linear and convex, the support point on the Minkowski difference is s_{a minkowskidiff b}(d) = s_a(d) - s_b(-d)
 
-      Point3D supportingVertexOne = cubeOne.getSupportingVertex(supportDirection);
+      Point3D supportingVertexOne = tempSupportingVertexOne;
+      cubeOne.getSupportingVertex(supportDirection, supportingVertexOne);
 
       negativeSupportDirection.set(supportDirection);
       negativeSupportDirection.scale(-1.0);
 
-      Point3D supportingVertexTwo = cubeTwo.getSupportingVertex(negativeSupportDirection);
+      Point3D supportingVertexTwo = tempSupportingVertexTwo;
+      cubeTwo.getSupportingVertex(negativeSupportDirection, supportingVertexTwo);
 
       supportPoint.set(supportingVertexOne);
       supportPoint.sub(supportingVertexTwo);
@@ -43,6 +73,47 @@ public class GilbertJohnsonKeerthiCollisionDetector
       this.listener = listener;
    }
 
+   /**
+    * Selects how the closest point on the simplex is computed, {@link SimplexPolytope.DistanceSubalgorithm#VORONOI_REGIONS}
+    * by default.
+    */
+   public void setDistanceSubalgorithm(SimplexPolytope.DistanceSubalgorithm distanceSubalgorithm)
+   {
+      simplex.setDistanceSubalgorithm(distanceSubalgorithm);
+   }
+
+   /**
+    * Whether to search for the supporting vertices with Nesterov momentum, see Montaut et al., "Collision Detection
+    * Accelerated: An Optimization Perspective", 2022. The search direction is averaged with the previous ones and the
+    * previous supporting vertex. This takes fewer iterations for curved shapes that are close to each other, where GJK
+    * otherwise zigzags toward the closest points, and more for shapes that are far apart. As soon as a supporting vertex
+    * in that direction would stop the query, the momentum is dropped for the rest of it and the step is redone without,
+    * so the stopping conditions are only ever checked on the supporting vertices of plain GJK. False by default.
+    */
+   public void setUseNesterovAcceleration(boolean useNesterovAcceleration)
+   {
+      this.useNesterovAcceleration = useNesterovAcceleration;
+   }
+
+   public boolean getUseNesterovAcceleration()
+   {
+      return useNesterovAcceleration;
+   }
+
+   /**
+    * Sets when the queries stop, see {@link GilbertJohnsonKeerthiTerminationPolicy}. Each detector has its own policy with
+    * the default tolerances, which can also be changed through {@link #getTerminationPolicy()}.
+    */
+   public void setTerminationPolicy(GilbertJohnsonKeerthiTerminationPolicy terminationPolicy)
+   {
+      this.terminationPolicy = terminationPolicy;
+   }
+
+   public GilbertJohnsonKeerthiTerminationPolicy getTerminationPolicy()
+   {
+      return terminationPolicy;
+   }
+
    private final Vector3D defaultInitialGuessOfSeparatingVector = new Vector3D(0.0, 0.0, 1.0);
 
    public boolean arePolytopesColliding(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB, Point3D pointOnAToPack, Point3D pointOnBToPack)
@@ -50,46 +121,353 @@ public class GilbertJohnsonKeerthiCollisionDetector
       return arePolytopesColliding(defaultInitialGuessOfSeparatingVector, polytopeA, polytopeB, pointOnAToPack, pointOnBToPack);
    }
 
+   /**
+    * Runs GJK on the cores of the shapes, see {@link SupportingVertexHolder#getMargin()}, then adds the margins. When the
+    * shapes are not colliding, the points are the closest points of the shapes. When they are colliding but their cores
+    * are not, the points are the deepest points of each shape in the other one. Only when the cores are colliding, see
+    * {@link #areCoresColliding()}, does the penetration need to be computed with {@link ExpandingPolytopeAlgorithm},
+    * starting from {@link #getSimplex()}.
+    */
    public boolean arePolytopesColliding(Vector3D initialGuessOfSeparatingVector, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB,
          Point3D pointOnAToPack, Point3D pointOnBToPack)
    {
-      poolOfPoints.clear();
+      coresAreColliding = areCoresColliding(initialGuessOfSeparatingVector, polytopeA, polytopeB, pointOnAToPack, pointOnBToPack);
+      if (coresAreColliding)
+      {
+         terminationReason = null;
+         return true;
+      }
 
-      if (listener != null)
+      double marginA = polytopeA.getMargin();
+      double marginB = polytopeB.getMargin();
+      if (marginA == 0.0 && marginB == 0.0)
+         return false;
+
+      coreSeparationDirection.sub(pointOnBToPack, pointOnAToPack);
+      double coreDistance = coreSeparationDirection.length();
+      coreSeparationDirection.scale(1.0 / coreDistance);
+
+      pointOnAToPack.scaleAdd(marginA, coreSeparationDirection, pointOnAToPack);
+      pointOnBToPack.scaleAdd(-marginB, coreSeparationDirection, pointOnBToPack);
+
+      if (coreDistance > marginA + marginB)
+         return false;
+
+      terminationReason = SignedDistanceResult.TerminationReason.OVERLAPPING_MARGINS;
+      return true;
+   }
+
+   public boolean arePolytopesIntersecting(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB)
+   {
+      return arePolytopesIntersecting(defaultInitialGuessOfSeparatingVector, polytopeA, polytopeB);
+   }
+
+   /**
+    * Intersection test only, which gives the same answer as
+    * {@link #arePolytopesColliding(Vector3D, SupportingVertexHolder, SupportingVertexHolder, Point3D, Point3D)} without
+    * computing any point. It returns as soon as a supporting vertex shows a separating axis, which for separated shapes is
+    * usually after one or two iterations. The simplex only keeps the points of the Minkowski difference, and
+    * {@link #getSimplex()} is not updated, unless the iterations run out and the full query decides.
+    */
+   public boolean arePolytopesIntersecting(Vector3D initialGuessOfSeparatingVector, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB)
+   {
+      return isCoreDistanceWithin(initialGuessOfSeparatingVector, polytopeA, polytopeB, polytopeA.getMargin() + polytopeB.getMargin());
+   }
+
+   public boolean arePolytopesWithinDistance(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB, double distance)
+   {
+      return arePolytopesWithinDistance(defaultInitialGuessOfSeparatingVector, polytopeA, polytopeB, distance);
+   }
+
+   /**
+    * Proximity query: whether the distance between the shapes is at most the given distance. The iterations stop as soon
+    * as the lower bound of the distance, v.w / |v|, goes above the distance, or the upper bound, |v|, goes below it,
+    * instead of converging to the exact distance. Like
+    * {@link #arePolytopesIntersecting(Vector3D, SupportingVertexHolder, SupportingVertexHolder)}, no point is computed.
+    */
+   public boolean arePolytopesWithinDistance(Vector3D initialGuessOfSeparatingVector, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB,
+                                             double distance)
+   {
+      if (distance < 0.0)
+         throw new RuntimeException("Distance must not be negative: " + distance);
+
+      return isCoreDistanceWithin(initialGuessOfSeparatingVector, polytopeA, polytopeB, polytopeA.getMargin() + polytopeB.getMargin() + distance);
+   }
+
+   /**
+    * Whether the distance between the cores of the shapes is at most the threshold. When the iterations of the termination
+    * policy run out, the full query decides, and the shapes are reported within the threshold if it runs out too, which is
+    * the safe answer for a collision filter.
+    */
+   private boolean isCoreDistanceWithin(Vector3D initialGuessOfSeparatingVector, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB,
+                                        double threshold)
+   {
+      double thresholdSquared = threshold * threshold;
+
+      intersectionTestSimplex.clear();
+
+      // v is the point of the simplex closest to the origin, starting with the supporting vertex in the initial direction.
+      polytopeA.getCoreSupportingVertex(initialGuessOfSeparatingVector, tempSupportingVertexOne);
+      intersectionSupportDirection.set(initialGuessOfSeparatingVector);
+      intersectionSupportDirection.negate();
+      polytopeB.getCoreSupportingVertex(intersectionSupportDirection, tempSupportingVertexTwo);
+
+      double vX = tempSupportingVertexOne.getX() - tempSupportingVertexTwo.getX();
+      double vY = tempSupportingVertexOne.getY() - tempSupportingVertexTwo.getY();
+      double vZ = tempSupportingVertexOne.getZ() - tempSupportingVertexTwo.getZ();
+      intersectionTestSimplex.addPoint(vX, vY, vZ);
+
+      numberOfIterations = 0;
+
+      while (!terminationPolicy.isMaximumNumberOfIterationsReached(numberOfIterations))
       {
-         listener.checkingIfPolytopesAreColliding(polytopeA, polytopeB);
+         numberOfIterations++;
+
+         double vLengthSquared = vX * vX + vY * vY + vZ * vZ;
+
+         // |v| is an upper bound of the distance. The second test is the same as arePolytopesColliding for shapes that touch.
+         if (vLengthSquared <= thresholdSquared || terminationPolicy.isOriginReached(vLengthSquared, intersectionTestSimplex.getMaximumPointLengthSquared()))
+            return true;
+
+         // w is the supporting vertex of the Minkowski difference in the direction -v.
+         intersectionSupportDirection.set(-vX, -vY, -vZ);
+         polytopeA.getCoreSupportingVertex(intersectionSupportDirection, tempSupportingVertexOne);
+         intersectionSupportDirection.negate();
+         polytopeB.getCoreSupportingVertex(intersectionSupportDirection, tempSupportingVertexTwo);
+
+         double wX = tempSupportingVertexOne.getX() - tempSupportingVertexTwo.getX();
+         double wY = tempSupportingVertexOne.getY() - tempSupportingVertexTwo.getY();
+         double wZ = tempSupportingVertexOne.getZ() - tempSupportingVertexTwo.getZ();
+
+         // v.w / |v| is a lower bound of the distance between the cores, v is a separating axis once it exceeds the threshold.
+         double vDotW = vX * wX + vY * wY + vZ * wZ;
+         if (vDotW > 0.0 && vDotW * vDotW > thresholdSquared * vLengthSquared)
+            return false;
+
+         // Converged, the distance between the cores is |v|, which is more than the threshold.
+         if (terminationPolicy.hasConverged(vLengthSquared, vDotW))
+            return false;
+
+         intersectionTestSimplex.addPoint(wX, wY, wZ);
+
+         if (!intersectionTestSimplex.updateClosestPointToOrigin())
+            return true;
+
+         vX = intersectionTestSimplex.getClosestPointX();
+         vY = intersectionTestSimplex.getClosestPointY();
+         vZ = intersectionTestSimplex.getClosestPointZ();
       }
 
-      simplex.clearPoints();
+      int intersectionIterations = numberOfIterations;
+      boolean isWithin = areCoresColliding(initialGuessOfSeparatingVector, polytopeA, polytopeB, fallbackPointOnA, fallbackPointOnB)
+            || terminationReason == SignedDistanceResult.TerminationReason.SEPARATED_MAXIMUM_ITERATIONS
+            || fallbackPointOnA.distanceSquared(fallbackPointOnB) <= thresholdSquared;
+      numberOfIterations += intersectionIterations;
+      return isWithin;
+   }
 
-      // Step 1) Initialize Simplex Q to a single point in A minkowskiDifference B. Here we'll search in the direction of 
-      // initialGuessOfSeparatingVector. That will ensure that the point is on the exterior of the Minkowski Difference
-      // and will allow us to speed things up by remembering the previous separating vector.
+   /**
+    * Same as {@link #arePolytopesColliding(Vector3D, SupportingVertexHolder, SupportingVertexHolder, Point3D, Point3D)},
+    * starting from where the last query for this pair ended, as stored in the cache. The first query for a pair starts
+    * in the direction from the center of the bounding box of A to the one of B.
+    */
+   public boolean arePolytopesColliding(GilbertJohnsonKeerthiWarmStartCache cache, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB,
+         Point3D pointOnAToPack, Point3D pointOnBToPack)
+   {
+      GilbertJohnsonKeerthiWarmStartCache.Entry entry = cache.getOrCreateEntry(polytopeA, polytopeB);
 
-      Point3D vertexOne = polytopeA.getSupportingVertex(initialGuessOfSeparatingVector);
-      negativeSupportDirection.set(initialGuessOfSeparatingVector);
-      negativeSupportDirection.negate();
-      Point3D vertexTwo = polytopeB.getSupportingVertex(negativeSupportDirection);
+      if (!entry.hasSeparatingDirection)
+      {
+         computeBoundingBoxCenter(polytopeA, boundingBoxCenterA);
+         computeBoundingBoxCenter(polytopeB, boundingBoxCenterB);
+         entry.separatingDirection.sub(boundingBoxCenterB, boundingBoxCenterA);
 
-      Point3D minkowskiDifferenceVertex = poolOfPoints.add();//new Point3D();
-      minkowskiDifferenceVertex.sub(vertexOne, vertexTwo);
+         if (entry.separatingDirection.lengthSquared() == 0.0)
+            entry.separatingDirection.set(defaultInitialGuessOfSeparatingVector);
+         entry.hasSeparatingDirection = true;
+      }
 
-      simplex.addVertex(minkowskiDifferenceVertex, vertexOne, vertexTwo);
+      warmStartEntry = entry;
+      boolean areColliding;
+      try
+      {
+         areColliding = arePolytopesColliding(entry.separatingDirection, polytopeA, polytopeB, pointOnAToPack, pointOnBToPack);
+      }
+      finally
+      {
+         warmStartEntry = null;
+      }
+
+      if (!coresAreColliding)
+      {
+         coreSeparationDirection.sub(pointOnBToPack, pointOnAToPack);
+         if (coreSeparationDirection.lengthSquared() > 0.0)
+            entry.separatingDirection.set(coreSeparationDirection);
+      }
+
+      storeSimplexIndices(entry);
+
+      return areColliding;
+   }
+
+   private void computeBoundingBoxCenter(SupportingVertexHolder shape, Point3D centerToPack)
+   {
+      // The supporting vertices along the axes give the exact bounding box of any convex shape.
+      centerToPack.set(0.0, 0.0, 0.0);
+
+      for (int axis = 0; axis < 3; axis++)
+      {
+         boundingBoxDirection.set(axis == 0 ? 1.0 : 0.0, axis == 1 ? 1.0 : 0.0, axis == 2 ? 1.0 : 0.0);
+         shape.getSupportingVertex(boundingBoxDirection, tempSupportingVertexOne);
+         boundingBoxDirection.negate();
+         shape.getSupportingVertex(boundingBoxDirection, tempSupportingVertexTwo);
+
+         double center = 0.5 * (tempSupportingVertexOne.getElement(axis) + tempSupportingVertexTwo.getElement(axis));
+         centerToPack.setElement(axis, center);
+      }
+   }
+
+   private void storeSimplexIndices(GilbertJohnsonKeerthiWarmStartCache.Entry entry)
+   {
+      entry.numberOfSimplexIndices = 0;
+
+      int numberOfPoints = simplex.getNumberOfPoints();
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         int indexOnA = simplex.getVertexIndexOnA(i);
+         int indexOnB = simplex.getVertexIndexOnB(i);
+
+         if (indexOnA < 0 || indexOnB < 0)
+         {
+            entry.numberOfSimplexIndices = 0;
+            return;
+         }
+
+         entry.simplexIndicesOnA[i] = indexOnA;
+         entry.simplexIndicesOnB[i] = indexOnB;
+         entry.numberOfSimplexIndices++;
+      }
+   }
+
+   /**
+    * Remembers the pair of vertex indices, and returns false if it was already returned in the current query.
+    */
+   private boolean rememberSupportingVertexIndices(int indexOnA, int indexOnB)
+   {
+      if (wereSupportingVertexIndicesReturned(indexOnA, indexOnB))
+         return false;
+
+      supportingVertexIndicesOnA.add(indexOnA);
+      supportingVertexIndicesOnB.add(indexOnB);
+      return true;
+   }
+
+   private boolean wereSupportingVertexIndicesReturned(int indexOnA, int indexOnB)
+   {
+      for (int i = 0; i < supportingVertexIndicesOnA.size(); i++)
+      {
+         if (supportingVertexIndicesOnA.getQuick(i) == indexOnA && supportingVertexIndicesOnB.getQuick(i) == indexOnB)
+            return true;
+      }
+
+      return false;
+   }
+
+   /**
+    * Seeds the simplex with the vertices of the final simplex of the previous query, at their current positions.
+    */
+   private boolean seedSimplexFromWarmStart(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB)
+   {
+      if (warmStartEntry == null || warmStartEntry.numberOfSimplexIndices == 0)
+         return false;
+
+      for (int i = 0; i < warmStartEntry.numberOfSimplexIndices; i++)
+      {
+         int indexOnA = warmStartEntry.simplexIndicesOnA[i];
+         int indexOnB = warmStartEntry.simplexIndicesOnB[i];
+
+         Point3D vertexOnA = poolOfPoints.add();
+         Point3D vertexOnB = poolOfPoints.add();
+
+         if (!polytopeA.getCoreVertex(indexOnA, vertexOnA) || !polytopeB.getCoreVertex(indexOnB, vertexOnB))
+         {
+            simplex.clearPoints();
+            return false;
+         }
+
+         Point3D minkowskiDifferenceVertex = poolOfPoints.add();
+         minkowskiDifferenceVertex.sub(vertexOnA, vertexOnB);
+
+         rememberSupportingVertexIndices(indexOnA, indexOnB);
+         startVertexIndexOnA = indexOnA;
+         startVertexIndexOnB = indexOnB;
+
+         if (simplex.addVertex(minkowskiDifferenceVertex, vertexOnA, vertexOnB, indexOnA, indexOnB) && listener != null)
+         {
+            listener.addedVertexToSimplex(simplex, minkowskiDifferenceVertex, vertexOnA, vertexOnB);
+         }
+      }
+
+      return simplex.getNumberOfPoints() > 0;
+   }
+
+   /**
+    * Number of iterations of the last query, that is the number of times the closest point on the simplex was computed.
+    */
+   public int getNumberOfIterations()
+   {
+      return numberOfIterations;
+   }
+
+   /**
+    * Why the last call to {@link #arePolytopesColliding(Vector3D, SupportingVertexHolder, SupportingVertexHolder, Point3D, Point3D)}
+    * stopped, or null when the cores are colliding and the penetration is left to {@link ExpandingPolytopeAlgorithm}.
+    */
+   SignedDistanceResult.TerminationReason getTerminationReason()
+   {
+      return terminationReason;
+   }
+
+   /**
+    * Whether the cores of the shapes were colliding in the last call to
+    * {@link #arePolytopesColliding(Vector3D, SupportingVertexHolder, SupportingVertexHolder, Point3D, Point3D)}. For shapes
+    * without margin, this is the same as the shapes colliding.
+    */
+   public boolean areCoresColliding()
+   {
+      return coresAreColliding;
+   }
+
+   private boolean areCoresColliding(Vector3D initialGuessOfSeparatingVector, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB,
+         Point3D pointOnAToPack, Point3D pointOnBToPack)
+   {
+      poolOfPoints.clear();
+      supportingVertexIndicesOnA.resetQuick();
+      supportingVertexIndicesOnB.resetQuick();
+      startVertexIndexOnA = -1;
+      startVertexIndexOnB = -1;
+      numberOfIterations = 0;
 
       if (listener != null)
       {
-         listener.addedVertexToSimplex(simplex, minkowskiDifferenceVertex, vertexOne, vertexTwo);
+         listener.checkingIfPolytopesAreColliding(polytopeA, polytopeB);
       }
 
-      int iterations = 0;
-      int metStoppingConditionsCount = 0;
+      simplex.clearPoints();
+
+      if (!seedSimplexFromWarmStart(polytopeA, polytopeB))
+      {
+         addInitialVertex(initialGuessOfSeparatingVector, polytopeA, polytopeB);
+      }
+
+      boolean isMomentumActive = useNesterovAcceleration;
       Point3D closestPointToOrigin = poolOfPoints.add();
       closestPointToOrigin.set(0.0, 0.0, 0.0);
-      Point3D origin = poolOfPoints.add();
-      origin.set(0.0, 0.0, 0.0);
 
       while (true)
       {
+         numberOfIterations++;
+
          // Step 2) Compute closest point to origin in the simplex. 4) Reduce points of Q not used in determining P.
          simplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(closestPointToOrigin);
 
@@ -103,9 +481,8 @@ public class GilbertJohnsonKeerthiCollisionDetector
          }
 
          // Step 3) If P is origin, done.
-         double distanceSquared = closestPointToOrigin.distanceSquared(origin);
-         //TODO: Magic epsilon here...
-         if (distanceSquared < 1e-8)
+         double distanceSquared = closestPointToOrigin.distanceFromOriginSquared();
+         if (terminationPolicy.isOriginReached(distanceSquared, simplex.getMaximumPointLengthSquared()))
          {
             if (listener != null)
             {
@@ -119,16 +496,44 @@ public class GilbertJohnsonKeerthiCollisionDetector
          // Step 5) v = support vector in negative P direction on A minkowskiDifference B.
          // In other words, it is suppport vector on A in P direction minus support vector on B in negative P direction.
 
-         supportDirection.set(closestPointToOrigin);
+         boolean isMomentumStep = isMomentumActive;
+         if (isMomentumStep)
+            computeNesterovDirection(closestPointToOrigin, numberOfIterations - 1, supportDirection);
+         else
+            supportDirection.set(closestPointToOrigin);
+
          supportDirection.negate();
-         Point3D supportingVertexOnA = polytopeA.getSupportingVertex(supportDirection);
+         Point3D supportingVertexOnA = poolOfPoints.add();
+         int supportingVertexIndexOnA = polytopeA.getCoreSupportingVertexIndex(supportDirection, startVertexIndexOnA, supportingVertexOnA);
 
          supportDirection.negate();
-         Point3D supportingVertexOnB = polytopeB.getSupportingVertex(supportDirection);
+         Point3D supportingVertexOnB = poolOfPoints.add();
+         int supportingVertexIndexOnB = polytopeB.getCoreSupportingVertexIndex(supportDirection, startVertexIndexOnB, supportingVertexOnB);
 
-         if (simplex.wereMostRecentlyDiscared(supportingVertexOnA, supportingVertexOnB))
+         if (isMomentumStep
+               && isStoppingConditionMet(supportingVertexOnA, supportingVertexOnB, supportingVertexIndexOnA, supportingVertexIndexOnB, closestPointToOrigin))
+         {
+            // The momentum overshoots, go on with plain GJK, whose supporting vertices give the stopping conditions.
+            isMomentumStep = false;
+            isMomentumActive = false;
+
+            supportDirection.set(closestPointToOrigin);
+            supportDirection.negate();
+            supportingVertexIndexOnA = polytopeA.getCoreSupportingVertexIndex(supportDirection, startVertexIndexOnA, supportingVertexOnA);
+            supportDirection.negate();
+            supportingVertexIndexOnB = polytopeB.getCoreSupportingVertexIndex(supportDirection, startVertexIndexOnB, supportingVertexOnB);
+         }
+
+         startVertexIndexOnA = supportingVertexIndexOnA;
+         startVertexIndexOnB = supportingVertexIndexOnB;
+
+         // Shapes with indexed vertices are checked for repeated vertices below, with the progress.
+         boolean areVerticesIndexed = supportingVertexIndexOnA >= 0 && supportingVertexIndexOnB >= 0;
+
+         if (!areVerticesIndexed && simplex.wereMostRecentlyDiscared(supportingVertexOnA, supportingVertexOnB))
          {
             simplex.getClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+            terminationReason = SignedDistanceResult.TerminationReason.SEPARATED_REPEATED_SUPPORTING_VERTEX;
 
             if (listener != null)
             {
@@ -156,19 +561,10 @@ public class GilbertJohnsonKeerthiCollisionDetector
             listener.computeVDotPAndPercentCloser(vDotP, percentCloser);
          }
 
-         //         System.out.println("vDotP - PSquared = " + foo);
-
-         // TODO: Do we need this epsilon here. Seems when to abort is tricky. Maybe look that the extremal points in the
-         // simplex stop changing?
-         if (percentCloser >= 1.0 - LAMBDA_STOPPING_DELTA)
-         {
-            metStoppingConditionsCount++;
-         }
-
-         // TODO: Get rid of this. Hack right now to make sure really hard cases get a full shot...
-         if (metStoppingConditionsCount == 4)
+         if (terminationPolicy.hasConverged(distanceSquared, vDotP))
          {
             simplex.getClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+            terminationReason = SignedDistanceResult.TerminationReason.SEPARATED_CONVERGED;
 
             if (listener != null)
             {
@@ -178,16 +574,31 @@ public class GilbertJohnsonKeerthiCollisionDetector
             return false;
          }
 
-         iterations++;
-         if (iterations > 100)
+         if (areVerticesIndexed)
          {
-            System.out.println("Seems to be looping... lambda = " + percentCloser);
-            System.out.println("Seems to be looping... closestPointToOrigin = " + closestPointToOrigin);
+            // Getting a pair of vertices that was already returned in this query, without getting closer by more than the
+            // rounding, means that GJK is cycling between vertices at the same distance, which an exact comparison of the
+            // indices finds even when the relative tolerance is too tight to be met.
+            boolean isRepeatedSupportingVertex = !rememberSupportingVertexIndices(supportingVertexIndexOnA, supportingVertexIndexOnB);
+
+            if (isRepeatedSupportingVertex && terminationPolicy.isWithinPrecision(distanceSquared, vDotP, simplex.getMaximumPointLengthSquared()))
+            {
+               simplex.getClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+               terminationReason = SignedDistanceResult.TerminationReason.SEPARATED_REPEATED_SUPPORTING_VERTEX;
+
+               if (listener != null)
+               {
+                  listener.metStoppingConditionForNoIntersection(pointOnAToPack, pointOnBToPack);
+               }
+
+               return false;
+            }
          }
 
-         if (iterations > 106)
+         if (terminationPolicy.isMaximumNumberOfIterationsReached(numberOfIterations))
          {
             simplex.getClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+            terminationReason = SignedDistanceResult.TerminationReason.SEPARATED_MAXIMUM_ITERATIONS;
 
             if (listener != null)
             {
@@ -200,11 +611,20 @@ public class GilbertJohnsonKeerthiCollisionDetector
          // Step 7) Add v to Q and got to step 2.
          Point3D pointToAddToSimplex = poolOfPoints.add();
          pointToAddToSimplex.set(supportingVertexOnSimplex);
-         boolean successfullyAddedVertex = simplex.addVertex(pointToAddToSimplex, supportingVertexOnA, supportingVertexOnB);
+         boolean successfullyAddedVertex = simplex.addVertex(pointToAddToSimplex, supportingVertexOnA, supportingVertexOnB, supportingVertexIndexOnA,
+                                                             supportingVertexIndexOnB);
+
+         if (!successfullyAddedVertex && isMomentumStep)
+         {
+            // The supporting vertex in the direction of the momentum was already in the simplex, redo the iteration with plain GJK.
+            isMomentumActive = false;
+            continue;
+         }
 
          if (!successfullyAddedVertex)
          {
             simplex.getClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+            terminationReason = SignedDistanceResult.TerminationReason.SEPARATED_REPEATED_SUPPORTING_VERTEX;
 
             if (listener != null)
             {
@@ -222,6 +642,93 @@ public class GilbertJohnsonKeerthiCollisionDetector
       }
    }
 
+   /**
+    * Direction d_k = delta_k d_(k-1) + 2 (1 - delta_k) y_k, where y_k = delta_k x_k + (1 - delta_k) s_k averages the
+    * closest point x_k with the last supporting vertex s_k of the Minkowski difference, and delta_k = (k + 1) / (k + 3).
+    * At the first iteration, d_(-1) and s_0 are x_0.
+    */
+   private void computeNesterovDirection(Point3D closestPointToOrigin, int iteration, Vector3D directionToPack)
+   {
+      if (iteration == 0)
+      {
+         nesterovDirection.set(closestPointToOrigin);
+         supportingVertexOnSimplex.set(closestPointToOrigin);
+      }
+
+      double delta = (iteration + 1.0) / (iteration + 3.0);
+
+      double yX = delta * closestPointToOrigin.getX() + (1.0 - delta) * supportingVertexOnSimplex.getX();
+      double yY = delta * closestPointToOrigin.getY() + (1.0 - delta) * supportingVertexOnSimplex.getY();
+      double yZ = delta * closestPointToOrigin.getZ() + (1.0 - delta) * supportingVertexOnSimplex.getZ();
+
+      // The gradient of |y|^2 is 2 y.
+      double gradientScale = 2.0 * (1.0 - delta);
+      nesterovDirection.set(delta * nesterovDirection.getX() + gradientScale * yX, delta * nesterovDirection.getY() + gradientScale * yY,
+                            delta * nesterovDirection.getZ() + gradientScale * yZ);
+      directionToPack.set(nesterovDirection);
+   }
+
+   /**
+    * Whether the supporting vertex of the Minkowski difference does not get closer to the origin than the closest point P,
+    * according to the termination policy.
+    */
+   /**
+    * Whether any of the conditions on which the iteration stops as separated holds for these supporting vertices, without
+    * remembering their indices.
+    */
+   private boolean isStoppingConditionMet(Point3D supportingVertexOnA, Point3D supportingVertexOnB, int supportingVertexIndexOnA,
+         int supportingVertexIndexOnB, Point3D closestPointToOrigin)
+   {
+      boolean areVerticesIndexed = supportingVertexIndexOnA >= 0 && supportingVertexIndexOnB >= 0;
+
+      if (!areVerticesIndexed && simplex.wereMostRecentlyDiscared(supportingVertexOnA, supportingVertexOnB))
+         return true;
+
+      double x = closestPointToOrigin.getX();
+      double y = closestPointToOrigin.getY();
+      double z = closestPointToOrigin.getZ();
+
+      double distanceSquared = x * x + y * y + z * z;
+      double vDotP = (supportingVertexOnA.getX() - supportingVertexOnB.getX()) * x + (supportingVertexOnA.getY() - supportingVertexOnB.getY()) * y
+            + (supportingVertexOnA.getZ() - supportingVertexOnB.getZ()) * z;
+
+      if (terminationPolicy.hasConverged(distanceSquared, vDotP))
+         return true;
+
+      return areVerticesIndexed && wereSupportingVertexIndicesReturned(supportingVertexIndexOnA, supportingVertexIndexOnB)
+            && terminationPolicy.isWithinPrecision(distanceSquared, vDotP, simplex.getMaximumPointLengthSquared());
+   }
+
+   private void addInitialVertex(Vector3D initialGuessOfSeparatingVector, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB)
+   {
+      // Step 1) Initialize Simplex Q to a single point in A minkowskiDifference B. Here we'll search in the direction of 
+      // initialGuessOfSeparatingVector. That will ensure that the point is on the exterior of the Minkowski Difference
+      // and will allow us to speed things up by remembering the previous separating vector.
+
+      // The supporting vertices are packed into pooled points, since the simplex keeps references to them.
+      Point3D vertexOne = poolOfPoints.add();
+      int vertexIndexOne = polytopeA.getCoreSupportingVertexIndex(initialGuessOfSeparatingVector, startVertexIndexOnA, vertexOne);
+      negativeSupportDirection.set(initialGuessOfSeparatingVector);
+      negativeSupportDirection.negate();
+      Point3D vertexTwo = poolOfPoints.add();
+      int vertexIndexTwo = polytopeB.getCoreSupportingVertexIndex(negativeSupportDirection, startVertexIndexOnB, vertexTwo);
+      startVertexIndexOnA = vertexIndexOne;
+      startVertexIndexOnB = vertexIndexTwo;
+
+      Point3D minkowskiDifferenceVertex = poolOfPoints.add();//new Point3D();
+      minkowskiDifferenceVertex.sub(vertexOne, vertexTwo);
+
+      if (vertexIndexOne >= 0 && vertexIndexTwo >= 0)
+         rememberSupportingVertexIndices(vertexIndexOne, vertexIndexTwo);
+
+      simplex.addVertex(minkowskiDifferenceVertex, vertexOne, vertexTwo, vertexIndexOne, vertexIndexTwo);
+
+      if (listener != null)
+      {
+         listener.addedVertexToSimplex(simplex, minkowskiDifferenceVertex, vertexOne, vertexTwo);
+      }
+   }
+
    public SimplexPolytope getSimplex()
    {
       return simplex;
@@ -0,0 +1,183 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Ray cast against any convex shape given by its supporting vertices, with the GJK ray cast of van den Bergen,
+ * "Ray Casting against General Convex Objects with Application to Continuous Collision Detection". The point of the ray
+ * only moves forward, each time a supporting vertex shows that the shape is entirely ahead of it, and GJK runs on the
+ * shape seen from that point until the point is on the shape.
+ */
+public class GilbertJohnsonKeerthiRayCaster
+{
+   private static final double RELATIVE_TOLERANCE_SQUARED = 1e-12;
+   private static final int DEFAULT_MAXIMUM_NUMBER_OF_ITERATIONS = 64;
+
+   private final int maximumNumberOfIterations;
+
+   private final IntersectionTestSimplex simplex = new IntersectionTestSimplex();
+   private final Vector3D supportDirection = new Vector3D();
+   private final Point3D supportingVertex = new Point3D();
+
+   private double hitFraction;
+   private final Vector3D hitNormal = new Vector3D();
+   private final Point3D hitPoint = new Point3D();
+   private int numberOfIterations = 0;
+   private boolean isMaximumNumberOfIterationsReached = false;
+
+   public GilbertJohnsonKeerthiRayCaster()
+   {
+      this(DEFAULT_MAXIMUM_NUMBER_OF_ITERATIONS);
+   }
+
+   public GilbertJohnsonKeerthiRayCaster(int maximumNumberOfIterations)
+   {
+      if (maximumNumberOfIterations < 1)
+         throw new RuntimeException("Maximum number of iterations must be positive: " + maximumNumberOfIterations);
+
+      this.maximumNumberOfIterations = maximumNumberOfIterations;
+   }
+
+   /**
+    * Casts the ray from rayStart to rayStart + rayVector against the shape. Returns true if the ray hits the shape, the
+    * hit is then given by {@link #getHitFraction()}, {@link #getHitPoint()} and {@link #getHitNormal()}. A ray that
+    * starts inside the shape hits it at the fraction 0, with a zero normal. Returns false when the iterations run out
+    * before the ray gets to the shape, which {@link #isMaximumNumberOfIterationsReached()} tells apart from a miss.
+    */
+   public boolean castRay(SupportingVertexHolder shape, Point3DReadOnly rayStart, Vector3DReadOnly rayVector)
+   {
+      simplex.clear();
+      numberOfIterations = 0;
+      isMaximumNumberOfIterationsReached = false;
+
+      double lambda = 0.0;
+      double pointX = rayStart.getX();
+      double pointY = rayStart.getY();
+      double pointZ = rayStart.getZ();
+      double normalX = 0.0, normalY = 0.0, normalZ = 0.0;
+
+      // v starts from any point of the shape to the point of the ray, here the supporting vertex facing the ray.
+      supportDirection.set(rayVector);
+      supportDirection.negate();
+      if (supportDirection.lengthSquared() == 0.0)
+         supportDirection.set(0.0, 0.0, 1.0);
+      shape.getSupportingVertex(supportDirection, supportingVertex);
+
+      double vX = pointX - supportingVertex.getX();
+      double vY = pointY - supportingVertex.getY();
+      double vZ = pointZ - supportingVertex.getZ();
+      double vLengthSquared = vX * vX + vY * vY + vZ * vZ;
+
+      while (vLengthSquared > RELATIVE_TOLERANCE_SQUARED * simplex.getMaximumPointLengthSquared() && vLengthSquared > 0.0)
+      {
+         if (numberOfIterations == maximumNumberOfIterations)
+         {
+            // The point of the ray is still away from the shape, it is not known whether the ray hits it.
+            isMaximumNumberOfIterationsReached = true;
+            return false;
+         }
+         numberOfIterations++;
+
+         supportDirection.set(vX, vY, vZ);
+         shape.getSupportingVertex(supportDirection, supportingVertex);
+
+         double wX = pointX - supportingVertex.getX();
+         double wY = pointY - supportingVertex.getY();
+         double wZ = pointZ - supportingVertex.getZ();
+         double vDotW = vX * wX + vY * wY + vZ * wZ;
+         boolean pointMoved = false;
+
+         if (vDotW > 0.0)
+         {
+            // The plane through the supporting vertex, orthogonal to v, separates the point from the shape.
+            double vDotR = vX * rayVector.getX() + vY * rayVector.getY() + vZ * rayVector.getZ();
+            if (vDotR >= 0.0)
+               return false;
+
+            double deltaLambda = -vDotW / vDotR;
+            lambda += deltaLambda;
+            if (lambda > 1.0)
+               return false;
+
+            // The points of the simplex are seen from the point of the ray, they all move with it.
+            double deltaX = deltaLambda * rayVector.getX();
+            double deltaY = deltaLambda * rayVector.getY();
+            double deltaZ = deltaLambda * rayVector.getZ();
+            pointX += deltaX;
+            pointY += deltaY;
+            pointZ += deltaZ;
+            wX += deltaX;
+            wY += deltaY;
+            wZ += deltaZ;
+            simplex.translate(deltaX, deltaY, deltaZ);
+
+            normalX = vX;
+            normalY = vY;
+            normalZ = vZ;
+            pointMoved = true;
+         }
+
+         // The same supporting vertex again, as on flat faces, would make the simplex degenerate.
+         double epsilonSquared = RELATIVE_TOLERANCE_SQUARED * (wX * wX + wY * wY + wZ * wZ);
+         if (!simplex.containsPoint(wX, wY, wZ, epsilonSquared))
+            simplex.addPoint(wX, wY, wZ);
+         else if (!pointMoved)
+            break;
+
+         if (!simplex.updateClosestPointToOrigin())
+            break;
+
+         vX = simplex.getClosestPointX();
+         vY = simplex.getClosestPointY();
+         vZ = simplex.getClosestPointZ();
+         vLengthSquared = vX * vX + vY * vY + vZ * vZ;
+      }
+
+      hitFraction = lambda;
+      hitPoint.set(pointX, pointY, pointZ);
+      hitNormal.set(normalX, normalY, normalZ);
+      double normalLength = hitNormal.length();
+      if (normalLength > 0.0)
+         hitNormal.scale(1.0 / normalLength);
+
+      return true;
+   }
+
+   /**
+    * Fraction of the ray vector at which the ray hits the shape, between 0 and 1.
+    */
+   public double getHitFraction()
+   {
+      return hitFraction;
+   }
+
+   /**
+    * Unit normal of the surface of the shape at the hit point, pointing out of the shape.
+    */
+   public Vector3D getHitNormal()
+   {
+      return hitNormal;
+   }
+
+   public Point3D getHitPoint()
+   {
+      return hitPoint;
+   }
+
+   public int getNumberOfIterations()
+   {
+      return numberOfIterations;
+   }
+
+   /**
+    * Whether the last ray cast ran out of iterations, in which case it returned false without knowing whether the ray hits
+    * the shape.
+    */
+   public boolean isMaximumNumberOfIterationsReached()
+   {
+      return isMaximumNumberOfIterationsReached;
+   }
+}
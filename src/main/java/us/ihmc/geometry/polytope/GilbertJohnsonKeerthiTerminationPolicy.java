@@ -0,0 +1,134 @@
+package us.ihmc.geometry.polytope;
+
+/**
+ * When {@link GilbertJohnsonKeerthiCollisionDetector} stops. With v the closest point of the simplex to the origin and w
+ * the supporting vertex of the Minkowski difference in the direction -v, |v| is an upper bound and v.w / |v| a lower
+ * bound of the distance between the cores. The query has converged once
+ * |v|<sup>2</sup> - v.w &lt;= relativeTolerance<sup>2</sup> |v|<sup>2</sup>, so the distance has the same relative
+ * accuracy whatever the size of the shapes.
+ * <p>
+ * The cores are colliding once |v| is at most the collision distance, or at most the precision tolerance times the
+ * length of the longest point of the simplex, below which |v| is rounding noise for shapes of that size. Looser
+ * tolerances and fewer iterations trade accuracy for latency. A policy can be shared by detectors, but is not meant to
+ * change while they are running.
+ */
+public class GilbertJohnsonKeerthiTerminationPolicy
+{
+   public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-5;
+   public static final double DEFAULT_COLLISION_DISTANCE = 1e-4;
+   public static final double DEFAULT_PRECISION_TOLERANCE = 1e-7;
+   public static final int DEFAULT_MAXIMUM_NUMBER_OF_ITERATIONS = 100;
+
+   private double relativeTolerance;
+   private double relativeToleranceSquared;
+   private double collisionDistance;
+   private double collisionDistanceSquared;
+   private double precisionTolerance;
+   private double precisionToleranceSquared;
+   private int maximumNumberOfIterations;
+
+   public GilbertJohnsonKeerthiTerminationPolicy()
+   {
+      this(DEFAULT_RELATIVE_TOLERANCE, DEFAULT_COLLISION_DISTANCE, DEFAULT_PRECISION_TOLERANCE, DEFAULT_MAXIMUM_NUMBER_OF_ITERATIONS);
+   }
+
+   public GilbertJohnsonKeerthiTerminationPolicy(double relativeTolerance, double collisionDistance, double precisionTolerance,
+                                                 int maximumNumberOfIterations)
+   {
+      setRelativeTolerance(relativeTolerance);
+      setCollisionDistance(collisionDistance);
+      setPrecisionTolerance(precisionTolerance);
+      setMaximumNumberOfIterations(maximumNumberOfIterations);
+   }
+
+   public void setRelativeTolerance(double relativeTolerance)
+   {
+      if (!(relativeTolerance > 0.0))
+         throw new RuntimeException("Relative tolerance must be positive: " + relativeTolerance);
+
+      this.relativeTolerance = relativeTolerance;
+      relativeToleranceSquared = relativeTolerance * relativeTolerance;
+   }
+
+   public double getRelativeTolerance()
+   {
+      return relativeTolerance;
+   }
+
+   /**
+    * Sets the distance under which the cores are reported as colliding. Zero leaves only the precision tolerance, which
+    * follows the size of the shapes.
+    */
+   public void setCollisionDistance(double collisionDistance)
+   {
+      if (!(collisionDistance >= 0.0))
+         throw new RuntimeException("Collision distance must not be negative: " + collisionDistance);
+
+      this.collisionDistance = collisionDistance;
+      collisionDistanceSquared = collisionDistance * collisionDistance;
+   }
+
+   public double getCollisionDistance()
+   {
+      return collisionDistance;
+   }
+
+   public void setPrecisionTolerance(double precisionTolerance)
+   {
+      if (!(precisionTolerance > 0.0))
+         throw new RuntimeException("Precision tolerance must be positive: " + precisionTolerance);
+
+      this.precisionTolerance = precisionTolerance;
+      precisionToleranceSquared = precisionTolerance * precisionTolerance;
+   }
+
+   public double getPrecisionTolerance()
+   {
+      return precisionTolerance;
+   }
+
+   public void setMaximumNumberOfIterations(int maximumNumberOfIterations)
+   {
+      if (maximumNumberOfIterations < 1)
+         throw new RuntimeException("Maximum number of iterations must be positive: " + maximumNumberOfIterations);
+
+      this.maximumNumberOfIterations = maximumNumberOfIterations;
+   }
+
+   public int getMaximumNumberOfIterations()
+   {
+      return maximumNumberOfIterations;
+   }
+
+   /**
+    * Whether the supporting vertex w does not get closer to the origin than v by more than the relative tolerance.
+    */
+   public boolean hasConverged(double vLengthSquared, double vDotW)
+   {
+      return vLengthSquared - vDotW <= relativeToleranceSquared * vLengthSquared;
+   }
+
+   /**
+    * Whether v is close enough to the origin for the cores to be colliding, given the largest squared length of the
+    * points of the simplex.
+    */
+   public boolean isOriginReached(double vLengthSquared, double maximumPointLengthSquared)
+   {
+      return vLengthSquared <= collisionDistanceSquared || vLengthSquared <= precisionToleranceSquared * maximumPointLengthSquared;
+   }
+
+   /**
+    * Whether v.w is as close to |v|<sup>2</sup> as the rounding allows for shapes of that size, given the largest squared
+    * length of the points of the simplex. GJK stops there when it repeats supporting vertices, whatever the relative
+    * tolerance.
+    */
+   public boolean isWithinPrecision(double vLengthSquared, double vDotW, double maximumPointLengthSquared)
+   {
+      return vLengthSquared - vDotW <= precisionToleranceSquared * maximumPointLengthSquared;
+   }
+
+   public boolean isMaximumNumberOfIterationsReached(int numberOfIterations)
+   {
+      return numberOfIterations >= maximumNumberOfIterations;
+   }
+}
@@ -0,0 +1,151 @@
+package us.ihmc.geometry.polytope;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+/**
+ * Remembers, for each pair of shapes, where the last warm started {@link GilbertJohnsonKeerthiCollisionDetector} query
+ * ended: the direction from A to B, and the vertex indices of the final simplex when the shapes have indexed vertices,
+ * see {@link SupportingVertexHolder#getCoreSupportingVertexIndex}. The next query for the same pair starts from there,
+ * so pairs that barely move take one or two iterations. The pairs are ordered and compared by identity.
+ * <p>
+ * The cache keeps strong references to the shapes of the pairs it holds. It holds at most
+ * {@link #getMaximumNumberOfPairs()} pairs: a query for a new pair once it is full replaces the least recently queried
+ * one. Call {@link #remove} or {@link #clear()} to drop the pairs of shapes that are no longer used instead of waiting for
+ * them to be replaced.
+ */
+public class GilbertJohnsonKeerthiWarmStartCache
+{
+   public static final int DEFAULT_MAXIMUM_NUMBER_OF_PAIRS = 4096;
+
+   private final int maximumNumberOfPairs;
+   /** Ordered from the least to the most recently queried pair. */
+   private final LinkedHashMap<ShapePair, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+   private final ShapePair lookupKey = new ShapePair();
+
+   public GilbertJohnsonKeerthiWarmStartCache()
+   {
+      this(DEFAULT_MAXIMUM_NUMBER_OF_PAIRS);
+   }
+
+   public GilbertJohnsonKeerthiWarmStartCache(int maximumNumberOfPairs)
+   {
+      if (maximumNumberOfPairs < 1)
+         throw new RuntimeException("The maximum number of pairs must be at least 1, was: " + maximumNumberOfPairs);
+      this.maximumNumberOfPairs = maximumNumberOfPairs;
+   }
+
+   Entry getOrCreateEntry(SupportingVertexHolder shapeA, SupportingVertexHolder shapeB)
+   {
+      lookupKey.set(shapeA, shapeB);
+      Entry entry = entries.get(lookupKey);
+      lookupKey.set(null, null);
+
+      if (entry == null)
+      {
+         ShapePair key;
+
+         if (entries.size() >= maximumNumberOfPairs)
+         {
+            // Reuse the key and entry of the least recently queried pair.
+            Iterator<Map.Entry<ShapePair, Entry>> iterator = entries.entrySet().iterator();
+            Map.Entry<ShapePair, Entry> eldest = iterator.next();
+            iterator.remove();
+            key = eldest.getKey();
+            entry = eldest.getValue();
+            entry.reset();
+         }
+         else
+         {
+            key = new ShapePair();
+            entry = new Entry();
+         }
+
+         key.set(shapeA, shapeB);
+         entries.put(key, entry);
+      }
+
+      return entry;
+   }
+
+   public boolean contains(SupportingVertexHolder shapeA, SupportingVertexHolder shapeB)
+   {
+      lookupKey.set(shapeA, shapeB);
+      // Not a get, so that checking a pair does not count as querying it.
+      boolean contains = entries.containsKey(lookupKey);
+      lookupKey.set(null, null);
+      return contains;
+   }
+
+   public void remove(SupportingVertexHolder shapeA, SupportingVertexHolder shapeB)
+   {
+      lookupKey.set(shapeA, shapeB);
+      entries.remove(lookupKey);
+      lookupKey.set(null, null);
+   }
+
+   public int getNumberOfPairs()
+   {
+      return entries.size();
+   }
+
+   public int getMaximumNumberOfPairs()
+   {
+      return maximumNumberOfPairs;
+   }
+
+   public void clear()
+   {
+      entries.clear();
+   }
+
+   static class Entry
+   {
+      /** Direction from A to B, in which the next query looks for its first support points. */
+      final Vector3D separatingDirection = new Vector3D();
+      boolean hasSeparatingDirection = false;
+
+      /** Vertex indices on A and B of the points of the final simplex, if both shapes have indexed vertices. */
+      final int[] simplexIndicesOnA = new int[4];
+      final int[] simplexIndicesOnB = new int[4];
+      int numberOfSimplexIndices = 0;
+
+      void reset()
+      {
+         separatingDirection.setToZero();
+         hasSeparatingDirection = false;
+         numberOfSimplexIndices = 0;
+      }
+   }
+
+   private static class ShapePair
+   {
+      private SupportingVertexHolder shapeA;
+      private SupportingVertexHolder shapeB;
+
+      void set(SupportingVertexHolder shapeA, SupportingVertexHolder shapeB)
+      {
+         this.shapeA = shapeA;
+         this.shapeB = shapeB;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return 31 * System.identityHashCode(shapeA) + System.identityHashCode(shapeB);
+      }
+
+      @Override
+      public boolean equals(Object object)
+      {
+         if (!(object instanceof ShapePair))
+            return false;
+
+         ShapePair other = (ShapePair) object;
+         return shapeA == other.shapeA && shapeB == other.shapeB;
+      }
+   }
+}
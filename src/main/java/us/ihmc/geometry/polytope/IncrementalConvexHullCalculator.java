@@ -0,0 +1,515 @@
+package us.ihmc.geometry.polytope;
+
+import java.util.Arrays;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+
+/**
+ * Computes the convex hull of a point set by adding points to an initial tetrahedron. Each face keeps the
+ * list of the points outside it that are not assigned to another face, and the furthest point of a face is
+ * added next, so a point is only tested against the faces that replace the one it is assigned to and the
+ * points found inside the hull are dropped on the way. The faces are triangles stored in primitive arrays,
+ * with a map from directed edge to face so that the faces visible from a new point can be found by walking
+ * from the face it is assigned to. The result is given as the hull vertices and their edges, in compressed
+ * adjacency arrays.
+ */
+class IncrementalConvexHullCalculator
+{
+   private static final double RELATIVE_EPSILON = 1.0e-10;
+   private static final int NO_FACE = -1;
+   private static final int NO_POINT = -1;
+
+   private double[] xs;
+   private double[] ys;
+   private double[] zs;
+   private int numberOfPoints;
+   private double epsilon;
+
+   private int numberOfFaceSlots = 0;
+   private int[] faceVertices = new int[3 * 64];
+   private double[] facePlanes = new double[4 * 64];
+   private boolean[] faceAlive = new boolean[64];
+   private int[] faceVisitStamps = new int[64];
+   private int visitStamp = 0;
+
+   // Points outside each face, as linked lists through nextOutsidePoints.
+   private int[] firstOutsidePoints = new int[64];
+   private int[] nextOutsidePoints = new int[0];
+   private final TIntArrayList facesWithOutsidePoints = new TIntArrayList();
+   private final TIntArrayList pointsToAssign = new TIntArrayList();
+   private final TIntArrayList newFaces = new TIntArrayList();
+
+   private final TIntArrayList freeFaceSlots = new TIntArrayList();
+   private final TLongIntHashMap directedEdgeToFace = new TLongIntHashMap(64, 0.5f, -1L, NO_FACE);
+
+   private final TIntArrayList faceStack = new TIntArrayList();
+   private final TIntArrayList visibleFaces = new TIntArrayList();
+   private final TIntArrayList horizonEdges = new TIntArrayList();
+
+   private int[] hullVertexIndices = new int[0];
+   private int[] adjacencyStartIndices = new int[1];
+   private int[] adjacentVertexIndices = new int[0];
+
+   /**
+    * Computes the hull of the first numberOfPoints points. Returns false if the points do not span a
+    * volume, in which case there is no hull.
+    */
+   public boolean compute(double[] xs, double[] ys, double[] zs, int numberOfPoints)
+   {
+      this.xs = xs;
+      this.ys = ys;
+      this.zs = zs;
+      this.numberOfPoints = numberOfPoints;
+
+      numberOfFaceSlots = 0;
+      freeFaceSlots.resetQuick();
+      directedEdgeToFace.clear();
+      facesWithOutsidePoints.resetQuick();
+
+      hullVertexIndices = new int[0];
+      adjacencyStartIndices = new int[1];
+      adjacentVertexIndices = new int[0];
+
+      if (numberOfPoints < 4)
+         return false;
+
+      int[] initialTetrahedron = findInitialTetrahedron();
+      if (initialTetrahedron == null)
+         return false;
+
+      int a = initialTetrahedron[0], b = initialTetrahedron[1], c = initialTetrahedron[2], d = initialTetrahedron[3];
+      double centroidX = 0.25 * (xs[a] + xs[b] + xs[c] + xs[d]);
+      double centroidY = 0.25 * (ys[a] + ys[b] + ys[c] + ys[d]);
+      double centroidZ = 0.25 * (zs[a] + zs[b] + zs[c] + zs[d]);
+
+      if (nextOutsidePoints.length < numberOfPoints)
+         nextOutsidePoints = new int[numberOfPoints];
+
+      newFaces.resetQuick();
+      newFaces.add(addOutwardFace(a, b, c, centroidX, centroidY, centroidZ));
+      newFaces.add(addOutwardFace(a, b, d, centroidX, centroidY, centroidZ));
+      newFaces.add(addOutwardFace(a, c, d, centroidX, centroidY, centroidZ));
+      newFaces.add(addOutwardFace(b, c, d, centroidX, centroidY, centroidZ));
+
+      pointsToAssign.resetQuick();
+      for (int pointIndex = 0; pointIndex < numberOfPoints; pointIndex++)
+      {
+         if (pointIndex != a && pointIndex != b && pointIndex != c && pointIndex != d)
+            pointsToAssign.add(pointIndex);
+      }
+      assignPointsToNewFaces();
+
+      while (!facesWithOutsidePoints.isEmpty())
+      {
+         int face = facesWithOutsidePoints.removeAt(facesWithOutsidePoints.size() - 1);
+
+         // The slot may have been freed, or reused by a face with no outside points, since it was pushed.
+         if (faceAlive[face] && firstOutsidePoints[face] != NO_POINT)
+            addPoint(removeFurthestOutsidePoint(face), face);
+      }
+
+      extractHull();
+      return true;
+   }
+
+   public int getNumberOfHullVertices()
+   {
+      return hullVertexIndices.length;
+   }
+
+   /**
+    * Index in the input arrays of the given hull vertex.
+    */
+   public int getHullVertexIndex(int hullVertex)
+   {
+      return hullVertexIndices[hullVertex];
+   }
+
+   /**
+    * Start of the neighbors of each hull vertex in {@link #getAdjacentVertexIndices()}, with one extra
+    * entry at the end.
+    */
+   public int[] getAdjacencyStartIndices()
+   {
+      return adjacencyStartIndices;
+   }
+
+   /**
+    * Neighbors of the hull vertices, as hull vertex indices.
+    */
+   public int[] getAdjacentVertexIndices()
+   {
+      return adjacentVertexIndices;
+   }
+
+   private int[] findInitialTetrahedron()
+   {
+      int[] extremeIndices = new int[6];
+      for (int i = 1; i < numberOfPoints; i++)
+      {
+         if (xs[i] < xs[extremeIndices[0]])
+            extremeIndices[0] = i;
+         if (xs[i] > xs[extremeIndices[1]])
+            extremeIndices[1] = i;
+         if (ys[i] < ys[extremeIndices[2]])
+            extremeIndices[2] = i;
+         if (ys[i] > ys[extremeIndices[3]])
+            extremeIndices[3] = i;
+         if (zs[i] < zs[extremeIndices[4]])
+            extremeIndices[4] = i;
+         if (zs[i] > zs[extremeIndices[5]])
+            extremeIndices[5] = i;
+      }
+
+      double extentX = xs[extremeIndices[1]] - xs[extremeIndices[0]];
+      double extentY = ys[extremeIndices[3]] - ys[extremeIndices[2]];
+      double extentZ = zs[extremeIndices[5]] - zs[extremeIndices[4]];
+      epsilon = RELATIVE_EPSILON * Math.max(Math.sqrt(extentX * extentX + extentY * extentY + extentZ * extentZ), Double.MIN_NORMAL);
+
+      // Start with the two extreme points that are the furthest apart.
+      int a = -1, b = -1;
+      double maxDistanceSquared = 0.0;
+      for (int i = 0; i < 6; i++)
+      {
+         for (int j = i + 1; j < 6; j++)
+         {
+            double distanceSquared = distanceSquared(extremeIndices[i], extremeIndices[j]);
+            if (distanceSquared > maxDistanceSquared)
+            {
+               maxDistanceSquared = distanceSquared;
+               a = extremeIndices[i];
+               b = extremeIndices[j];
+            }
+         }
+      }
+
+      if (a < 0 || Math.sqrt(maxDistanceSquared) <= epsilon)
+         return null;
+
+      // Then the point furthest from the line ab.
+      double abX = xs[b] - xs[a], abY = ys[b] - ys[a], abZ = zs[b] - zs[a];
+      int c = -1;
+      double maxCrossLengthSquared = 0.0;
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         double apX = xs[i] - xs[a], apY = ys[i] - ys[a], apZ = zs[i] - zs[a];
+         double crossX = abY * apZ - abZ * apY;
+         double crossY = abZ * apX - abX * apZ;
+         double crossZ = abX * apY - abY * apX;
+         double crossLengthSquared = crossX * crossX + crossY * crossY + crossZ * crossZ;
+         if (crossLengthSquared > maxCrossLengthSquared)
+         {
+            maxCrossLengthSquared = crossLengthSquared;
+            c = i;
+         }
+      }
+
+      if (c < 0 || Math.sqrt(maxCrossLengthSquared / maxDistanceSquared) <= epsilon)
+         return null;
+
+      // Then the point furthest from the plane abc.
+      double acX = xs[c] - xs[a], acY = ys[c] - ys[a], acZ = zs[c] - zs[a];
+      double normalX = abY * acZ - abZ * acY;
+      double normalY = abZ * acX - abX * acZ;
+      double normalZ = abX * acY - abY * acX;
+      double normalLength = Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+
+      int d = -1;
+      double maxDistance = 0.0;
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         double distance = Math.abs(normalX * (xs[i] - xs[a]) + normalY * (ys[i] - ys[a]) + normalZ * (zs[i] - zs[a])) / normalLength;
+         if (distance > maxDistance)
+         {
+            maxDistance = distance;
+            d = i;
+         }
+      }
+
+      if (d < 0 || maxDistance <= epsilon)
+         return null;
+
+      return new int[] {a, b, c, d};
+   }
+
+   private int removeFurthestOutsidePoint(int face)
+   {
+      int furthestPoint = NO_POINT;
+      int pointBeforeFurthest = NO_POINT;
+      double maxDistance = Double.NEGATIVE_INFINITY;
+
+      for (int previous = NO_POINT, point = firstOutsidePoints[face]; point != NO_POINT; previous = point, point = nextOutsidePoints[point])
+      {
+         double distance = signedDistance(face, point);
+         if (distance > maxDistance)
+         {
+            maxDistance = distance;
+            furthestPoint = point;
+            pointBeforeFurthest = previous;
+         }
+      }
+
+      if (pointBeforeFurthest == NO_POINT)
+         firstOutsidePoints[face] = nextOutsidePoints[furthestPoint];
+      else
+         nextOutsidePoints[pointBeforeFurthest] = nextOutsidePoints[furthestPoint];
+
+      return furthestPoint;
+   }
+
+   /**
+    * Gives each point of pointsToAssign to the first of newFaces it is outside of, and drops the others, which are inside
+    * the hull.
+    */
+   private void assignPointsToNewFaces()
+   {
+      for (int i = 0; i < pointsToAssign.size(); i++)
+      {
+         int point = pointsToAssign.get(i);
+
+         for (int j = 0; j < newFaces.size(); j++)
+         {
+            int face = newFaces.get(j);
+            if (signedDistance(face, point) > epsilon)
+            {
+               if (firstOutsidePoints[face] == NO_POINT)
+                  facesWithOutsidePoints.add(face);
+
+               nextOutsidePoints[point] = firstOutsidePoints[face];
+               firstOutsidePoints[face] = point;
+               break;
+            }
+         }
+      }
+   }
+
+   /**
+    * Adds the point, outside of firstVisibleFace, to the hull.
+    */
+   private void addPoint(int pointIndex, int firstVisibleFace)
+   {
+      visitStamp++;
+      faceStack.resetQuick();
+      visibleFaces.resetQuick();
+      horizonEdges.resetQuick();
+
+      faceStack.add(firstVisibleFace);
+      faceVisitStamps[firstVisibleFace] = visitStamp;
+
+      while (!faceStack.isEmpty())
+      {
+         int face = faceStack.removeAt(faceStack.size() - 1);
+         visibleFaces.add(face);
+
+         for (int edge = 0; edge < 3; edge++)
+         {
+            int from = faceVertices[3 * face + edge];
+            int to = faceVertices[3 * face + (edge + 1) % 3];
+            int neighborFace = directedEdgeToFace.get(edgeKey(to, from));
+
+            if (neighborFace != NO_FACE && signedDistance(neighborFace, pointIndex) > epsilon)
+            {
+               if (faceVisitStamps[neighborFace] != visitStamp)
+               {
+                  faceVisitStamps[neighborFace] = visitStamp;
+                  faceStack.add(neighborFace);
+               }
+            }
+            else
+            {
+               horizonEdges.add(from);
+               horizonEdges.add(to);
+            }
+         }
+      }
+
+      // The points outside the visible faces are either outside the new faces or inside the hull.
+      pointsToAssign.resetQuick();
+      for (int i = 0; i < visibleFaces.size(); i++)
+      {
+         int face = visibleFaces.get(i);
+         for (int point = firstOutsidePoints[face]; point != NO_POINT; point = nextOutsidePoints[point])
+         {
+            pointsToAssign.add(point);
+         }
+
+         removeFace(face);
+      }
+
+      newFaces.resetQuick();
+      for (int i = 0; i < horizonEdges.size(); i += 2)
+      {
+         newFaces.add(addFace(horizonEdges.get(i), horizonEdges.get(i + 1), pointIndex));
+      }
+
+      assignPointsToNewFaces();
+   }
+
+   private int addOutwardFace(int a, int b, int c, double interiorX, double interiorY, double interiorZ)
+   {
+      double abX = xs[b] - xs[a], abY = ys[b] - ys[a], abZ = zs[b] - zs[a];
+      double acX = xs[c] - xs[a], acY = ys[c] - ys[a], acZ = zs[c] - zs[a];
+      double normalX = abY * acZ - abZ * acY;
+      double normalY = abZ * acX - abX * acZ;
+      double normalZ = abX * acY - abY * acX;
+
+      if (normalX * (interiorX - xs[a]) + normalY * (interiorY - ys[a]) + normalZ * (interiorZ - zs[a]) > 0.0)
+         return addFace(a, c, b);
+      else
+         return addFace(a, b, c);
+   }
+
+   private int addFace(int a, int b, int c)
+   {
+      int face;
+      if (!freeFaceSlots.isEmpty())
+      {
+         face = freeFaceSlots.removeAt(freeFaceSlots.size() - 1);
+      }
+      else
+      {
+         face = numberOfFaceSlots++;
+         ensureFaceCapacity(numberOfFaceSlots);
+      }
+
+      faceVertices[3 * face] = a;
+      faceVertices[3 * face + 1] = b;
+      faceVertices[3 * face + 2] = c;
+      faceAlive[face] = true;
+      firstOutsidePoints[face] = NO_POINT;
+
+      double abX = xs[b] - xs[a], abY = ys[b] - ys[a], abZ = zs[b] - zs[a];
+      double acX = xs[c] - xs[a], acY = ys[c] - ys[a], acZ = zs[c] - zs[a];
+      double normalX = abY * acZ - abZ * acY;
+      double normalY = abZ * acX - abX * acZ;
+      double normalZ = abX * acY - abY * acX;
+      double normalLength = Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+
+      // A sliver face gets a zero normal and is never seen as visible.
+      double scale = normalLength > 0.0 ? 1.0 / normalLength : 0.0;
+      normalX *= scale;
+      normalY *= scale;
+      normalZ *= scale;
+
+      facePlanes[4 * face] = normalX;
+      facePlanes[4 * face + 1] = normalY;
+      facePlanes[4 * face + 2] = normalZ;
+      facePlanes[4 * face + 3] = normalX * xs[a] + normalY * ys[a] + normalZ * zs[a];
+
+      directedEdgeToFace.put(edgeKey(a, b), face);
+      directedEdgeToFace.put(edgeKey(b, c), face);
+      directedEdgeToFace.put(edgeKey(c, a), face);
+
+      return face;
+   }
+
+   private void removeFace(int face)
+   {
+      int a = faceVertices[3 * face];
+      int b = faceVertices[3 * face + 1];
+      int c = faceVertices[3 * face + 2];
+
+      directedEdgeToFace.remove(edgeKey(a, b));
+      directedEdgeToFace.remove(edgeKey(b, c));
+      directedEdgeToFace.remove(edgeKey(c, a));
+
+      faceAlive[face] = false;
+      freeFaceSlots.add(face);
+   }
+
+   private void ensureFaceCapacity(int numberOfFaces)
+   {
+      if (numberOfFaces <= faceAlive.length)
+         return;
+
+      int newCapacity = Math.max(2 * faceAlive.length, numberOfFaces);
+      faceVertices = Arrays.copyOf(faceVertices, 3 * newCapacity);
+      facePlanes = Arrays.copyOf(facePlanes, 4 * newCapacity);
+      faceAlive = Arrays.copyOf(faceAlive, newCapacity);
+      faceVisitStamps = Arrays.copyOf(faceVisitStamps, newCapacity);
+      firstOutsidePoints = Arrays.copyOf(firstOutsidePoints, newCapacity);
+   }
+
+   private void extractHull()
+   {
+      int[] numberOfNeighbors = new int[numberOfPoints];
+      for (int face = 0; face < numberOfFaceSlots; face++)
+      {
+         if (!faceAlive[face])
+            continue;
+
+         // Each edge is the directed edge from a vertex in exactly one face, so counting them gives the degrees.
+         for (int edge = 0; edge < 3; edge++)
+         {
+            numberOfNeighbors[faceVertices[3 * face + edge]]++;
+         }
+      }
+
+      int[] hullIndexOfPoint = new int[numberOfPoints];
+      int numberOfHullVertices = 0;
+      int numberOfAdjacencies = 0;
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         if (numberOfNeighbors[i] > 0)
+         {
+            hullIndexOfPoint[i] = numberOfHullVertices++;
+            numberOfAdjacencies += numberOfNeighbors[i];
+         }
+         else
+         {
+            hullIndexOfPoint[i] = -1;
+         }
+      }
+
+      hullVertexIndices = new int[numberOfHullVertices];
+      adjacencyStartIndices = new int[numberOfHullVertices + 1];
+      adjacentVertexIndices = new int[numberOfAdjacencies];
+
+      int adjacencyIndex = 0;
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         int hullIndex = hullIndexOfPoint[i];
+         if (hullIndex < 0)
+            continue;
+
+         hullVertexIndices[hullIndex] = i;
+         adjacencyStartIndices[hullIndex] = adjacencyIndex;
+         adjacencyIndex += numberOfNeighbors[i];
+      }
+      adjacencyStartIndices[numberOfHullVertices] = adjacencyIndex;
+
+      int[] fillIndices = new int[numberOfHullVertices];
+      for (int face = 0; face < numberOfFaceSlots; face++)
+      {
+         if (!faceAlive[face])
+            continue;
+
+         for (int edge = 0; edge < 3; edge++)
+         {
+            int from = hullIndexOfPoint[faceVertices[3 * face + edge]];
+            int to = hullIndexOfPoint[faceVertices[3 * face + (edge + 1) % 3]];
+            adjacentVertexIndices[adjacencyStartIndices[from] + fillIndices[from]++] = to;
+         }
+      }
+   }
+
+   private double signedDistance(int face, int pointIndex)
+   {
+      return facePlanes[4 * face] * xs[pointIndex] + facePlanes[4 * face + 1] * ys[pointIndex] + facePlanes[4 * face + 2] * zs[pointIndex]
+            - facePlanes[4 * face + 3];
+   }
+
+   private double distanceSquared(int i, int j)
+   {
+      double dx = xs[i] - xs[j];
+      double dy = ys[i] - ys[j];
+      double dz = zs[i] - zs[j];
+      return dx * dx + dy * dy + dz * dz;
+   }
+
+   private long edgeKey(int from, int to)
+   {
+      return ((long) from) * numberOfPoints + to;
+   }
+}
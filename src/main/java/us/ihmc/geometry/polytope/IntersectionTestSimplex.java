@@ -0,0 +1,310 @@
+package us.ihmc.geometry.polytope;
+
+/**
+ * Minimal simplex for intersection tests. It stores up to four points of the Minkowski difference as
+ * primitives, without the points on A and B nor any barycentric coordinates, and reduces itself to the
+ * feature closest to the origin. The closest feature is found by the Voronoi region tests of Ericson,
+ * Real-Time Collision Detection, 5.1.5 and 5.1.6. It is also the simplex of the ray cast, whose points all
+ * move with the point of the ray, see {@link #translate(double, double, double)}.
+ */
+class IntersectionTestSimplex
+{
+   // Faces abc, acd, adb, and bdc of the tetrahedron abcd, each followed by its opposite vertex.
+   private static final int[][] TETRAHEDRON_FACES = {{0, 1, 2, 3}, {0, 2, 3, 1}, {0, 3, 1, 2}, {1, 3, 2, 0}};
+
+   private final double[] xs = new double[4];
+   private final double[] ys = new double[4];
+   private final double[] zs = new double[4];
+   private int numberOfPoints = 0;
+
+   private double closestPointX, closestPointY, closestPointZ;
+
+   // Result of the last triangle query, with one bit per kept vertex.
+   private double triangleClosestX, triangleClosestY, triangleClosestZ;
+   private int triangleVertexMask;
+
+   void clear()
+   {
+      numberOfPoints = 0;
+   }
+
+   int getNumberOfPoints()
+   {
+      return numberOfPoints;
+   }
+
+   void addPoint(double x, double y, double z)
+   {
+      xs[numberOfPoints] = x;
+      ys[numberOfPoints] = y;
+      zs[numberOfPoints] = z;
+      numberOfPoints++;
+   }
+
+   /**
+    * Moves all the points, as when the point they are expressed from moves.
+    */
+   void translate(double x, double y, double z)
+   {
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         xs[i] += x;
+         ys[i] += y;
+         zs[i] += z;
+      }
+   }
+
+   boolean containsPoint(double x, double y, double z, double epsilonSquared)
+   {
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         double dx = xs[i] - x;
+         double dy = ys[i] - y;
+         double dz = zs[i] - z;
+         if (dx * dx + dy * dy + dz * dz <= epsilonSquared)
+            return true;
+      }
+
+      return false;
+   }
+
+   double getMaximumPointLengthSquared()
+   {
+      double maximum = 0.0;
+
+      for (int i = 0; i < numberOfPoints; i++)
+         maximum = Math.max(maximum, xs[i] * xs[i] + ys[i] * ys[i] + zs[i] * zs[i]);
+
+      return maximum;
+   }
+
+   double getClosestPointX()
+   {
+      return closestPointX;
+   }
+
+   double getClosestPointY()
+   {
+      return closestPointY;
+   }
+
+   double getClosestPointZ()
+   {
+      return closestPointZ;
+   }
+
+   /**
+    * Computes the point of the simplex closest to the origin and removes the points that are not needed to
+    * describe it. Returns false if the simplex is a tetrahedron that contains the origin.
+    */
+   boolean updateClosestPointToOrigin()
+   {
+      switch (numberOfPoints)
+      {
+      case 1:
+         closestPointX = xs[0];
+         closestPointY = ys[0];
+         closestPointZ = zs[0];
+         return true;
+      case 2:
+         updateClosestPointOnSegment();
+         return true;
+      case 3:
+         computeClosestPointOnTriangle(0, 1, 2);
+         closestPointX = triangleClosestX;
+         closestPointY = triangleClosestY;
+         closestPointZ = triangleClosestZ;
+         retainPoints(triangleVertexMask);
+         return true;
+      case 4:
+         return updateClosestPointOnTetrahedron();
+      default:
+         throw new RuntimeException("Simplex has " + numberOfPoints + " points!");
+      }
+   }
+
+   private void updateClosestPointOnSegment()
+   {
+      double abX = xs[1] - xs[0];
+      double abY = ys[1] - ys[0];
+      double abZ = zs[1] - zs[0];
+
+      double numerator = -(xs[0] * abX + ys[0] * abY + zs[0] * abZ);
+      double lengthSquared = abX * abX + abY * abY + abZ * abZ;
+
+      if (numerator <= 0.0 || lengthSquared == 0.0)
+      {
+         retainPoints(0b0001);
+         closestPointX = xs[0];
+         closestPointY = ys[0];
+         closestPointZ = zs[0];
+      }
+      else if (numerator >= lengthSquared)
+      {
+         retainPoints(0b0010);
+         closestPointX = xs[0];
+         closestPointY = ys[0];
+         closestPointZ = zs[0];
+      }
+      else
+      {
+         double t = numerator / lengthSquared;
+         closestPointX = xs[0] + t * abX;
+         closestPointY = ys[0] + t * abY;
+         closestPointZ = zs[0] + t * abZ;
+      }
+   }
+
+   private boolean updateClosestPointOnTetrahedron()
+   {
+      double bestDistanceSquared = Double.POSITIVE_INFINITY;
+      int bestMask = 0;
+      boolean originIsOutside = false;
+
+      for (int face = 0; face < 4; face++)
+      {
+         int a = TETRAHEDRON_FACES[face][0];
+         int b = TETRAHEDRON_FACES[face][1];
+         int c = TETRAHEDRON_FACES[face][2];
+         int opposite = TETRAHEDRON_FACES[face][3];
+
+         if (!isOriginOnOtherSideOfFace(a, b, c, opposite))
+            continue;
+
+         originIsOutside = true;
+         computeClosestPointOnTriangle(a, b, c);
+
+         double distanceSquared = triangleClosestX * triangleClosestX + triangleClosestY * triangleClosestY + triangleClosestZ * triangleClosestZ;
+         if (distanceSquared < bestDistanceSquared)
+         {
+            bestDistanceSquared = distanceSquared;
+            bestMask = triangleVertexMask;
+            closestPointX = triangleClosestX;
+            closestPointY = triangleClosestY;
+            closestPointZ = triangleClosestZ;
+         }
+      }
+
+      if (!originIsOutside)
+      {
+         closestPointX = 0.0;
+         closestPointY = 0.0;
+         closestPointZ = 0.0;
+         return false;
+      }
+
+      retainPoints(bestMask);
+      return true;
+   }
+
+   /**
+    * A flat tetrahedron has its opposite vertex in the plane of the face, and the face is then tested as if the
+    * origin were outside, which is always safe.
+    */
+   private boolean isOriginOnOtherSideOfFace(int a, int b, int c, int opposite)
+   {
+      double abX = xs[b] - xs[a], abY = ys[b] - ys[a], abZ = zs[b] - zs[a];
+      double acX = xs[c] - xs[a], acY = ys[c] - ys[a], acZ = zs[c] - zs[a];
+
+      double normalX = abY * acZ - abZ * acY;
+      double normalY = abZ * acX - abX * acZ;
+      double normalZ = abX * acY - abY * acX;
+
+      double originSide = -(xs[a] * normalX + ys[a] * normalY + zs[a] * normalZ);
+      double oppositeSide = (xs[opposite] - xs[a]) * normalX + (ys[opposite] - ys[a]) * normalY + (zs[opposite] - zs[a]) * normalZ;
+
+      return originSide * oppositeSide <= 0.0;
+   }
+
+   private void computeClosestPointOnTriangle(int a, int b, int c)
+   {
+      double abX = xs[b] - xs[a], abY = ys[b] - ys[a], abZ = zs[b] - zs[a];
+      double acX = xs[c] - xs[a], acY = ys[c] - ys[a], acZ = zs[c] - zs[a];
+
+      double d1 = -(abX * xs[a] + abY * ys[a] + abZ * zs[a]);
+      double d2 = -(acX * xs[a] + acY * ys[a] + acZ * zs[a]);
+      if (d1 <= 0.0 && d2 <= 0.0)
+      {
+         setTriangleResult(1 << a, xs[a], ys[a], zs[a]);
+         return;
+      }
+
+      double d3 = -(abX * xs[b] + abY * ys[b] + abZ * zs[b]);
+      double d4 = -(acX * xs[b] + acY * ys[b] + acZ * zs[b]);
+      if (d3 >= 0.0 && d4 <= d3)
+      {
+         setTriangleResult(1 << b, xs[b], ys[b], zs[b]);
+         return;
+      }
+
+      double vc = d1 * d4 - d3 * d2;
+      if (vc <= 0.0 && d1 >= 0.0 && d3 <= 0.0)
+      {
+         double t = d1 / (d1 - d3);
+         setTriangleResult((1 << a) | (1 << b), xs[a] + t * abX, ys[a] + t * abY, zs[a] + t * abZ);
+         return;
+      }
+
+      double d5 = -(abX * xs[c] + abY * ys[c] + abZ * zs[c]);
+      double d6 = -(acX * xs[c] + acY * ys[c] + acZ * zs[c]);
+      if (d6 >= 0.0 && d5 <= d6)
+      {
+         setTriangleResult(1 << c, xs[c], ys[c], zs[c]);
+         return;
+      }
+
+      double vb = d5 * d2 - d1 * d6;
+      if (vb <= 0.0 && d2 >= 0.0 && d6 <= 0.0)
+      {
+         double t = d2 / (d2 - d6);
+         setTriangleResult((1 << a) | (1 << c), xs[a] + t * acX, ys[a] + t * acY, zs[a] + t * acZ);
+         return;
+      }
+
+      double va = d3 * d6 - d5 * d4;
+      if (va <= 0.0 && (d4 - d3) >= 0.0 && (d5 - d6) >= 0.0)
+      {
+         double t = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+         setTriangleResult((1 << b) | (1 << c), xs[b] + t * (xs[c] - xs[b]), ys[b] + t * (ys[c] - ys[b]), zs[b] + t * (zs[c] - zs[b]));
+         return;
+      }
+
+      double denominator = va + vb + vc;
+      if (denominator == 0.0)
+      {
+         // Degenerate triangle, the origin projects on one of its edges, which the tests above already covered.
+         setTriangleResult(1 << a, xs[a], ys[a], zs[a]);
+         return;
+      }
+
+      double v = vb / denominator;
+      double w = vc / denominator;
+      setTriangleResult((1 << a) | (1 << b) | (1 << c), xs[a] + v * abX + w * acX, ys[a] + v * abY + w * acY, zs[a] + v * abZ + w * acZ);
+   }
+
+   private void setTriangleResult(int vertexMask, double x, double y, double z)
+   {
+      triangleVertexMask = vertexMask;
+      triangleClosestX = x;
+      triangleClosestY = y;
+      triangleClosestZ = z;
+   }
+
+   private void retainPoints(int vertexMask)
+   {
+      int numberOfRetainedPoints = 0;
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         if ((vertexMask & (1 << i)) == 0)
+            continue;
+
+         xs[numberOfRetainedPoints] = xs[i];
+         ys[numberOfRetainedPoints] = ys[i];
+         zs[numberOfRetainedPoints] = zs[i];
+         numberOfRetainedPoints++;
+      }
+
+      numberOfPoints = numberOfRetainedPoints;
+   }
+}
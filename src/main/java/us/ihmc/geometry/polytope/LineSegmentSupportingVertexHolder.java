@@ -0,0 +1,51 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+
+/**
+ * Line segment between two points expressed in its local frame.
+ */
+public class LineSegmentSupportingVertexHolder extends PosedSupportingVertexHolder
+{
+   private final Point3D firstEndpoint = new Point3D();
+   private final Point3D secondEndpoint = new Point3D();
+
+   public LineSegmentSupportingVertexHolder(Point3DReadOnly firstEndpoint, Point3DReadOnly secondEndpoint)
+   {
+      this.firstEndpoint.set(firstEndpoint);
+      this.secondEndpoint.set(secondEndpoint);
+   }
+
+   public void getFirstEndpoint(Point3DBasics firstEndpointToPack)
+   {
+      firstEndpointToPack.set(firstEndpoint);
+   }
+
+   public void getSecondEndpoint(Point3DBasics secondEndpointToPack)
+   {
+      secondEndpointToPack.set(secondEndpoint);
+   }
+
+   @Override
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
+   {
+      double firstDotProduct = firstEndpoint.getX() * localDirectionX + firstEndpoint.getY() * localDirectionY + firstEndpoint.getZ() * localDirectionZ;
+      double secondDotProduct = secondEndpoint.getX() * localDirectionX + secondEndpoint.getY() * localDirectionY + secondEndpoint.getZ() * localDirectionZ;
+
+      if (firstDotProduct >= secondDotProduct)
+         localSupportingVertexToPack.set(firstEndpoint);
+      else
+         localSupportingVertexToPack.set(secondEndpoint);
+   }
+
+   public String toString()
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
+      return "firstEndpoint = " + firstEndpoint + ", secondEndpoint = " + secondEndpoint + ", transform = " + transform;
+   }
+}
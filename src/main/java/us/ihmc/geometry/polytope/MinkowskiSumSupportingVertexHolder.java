@@ -0,0 +1,72 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Minkowski sum A + B of two shapes. The supporting vertex is the sum of the supporting vertices of
+ * the two shapes, queried when needed, so no geometry is built.
+ */
+public class MinkowskiSumSupportingVertexHolder implements SupportingVertexHolder
+{
+   private final SupportingVertexHolder shapeA;
+   private final SupportingVertexHolder shapeB;
+
+   private final Point3D tempSupportingVertexA = new Point3D();
+   private final Point3D tempSupportingVertexB = new Point3D();
+
+   public MinkowskiSumSupportingVertexHolder(SupportingVertexHolder shapeA, SupportingVertexHolder shapeB)
+   {
+      this.shapeA = shapeA;
+      this.shapeB = shapeB;
+   }
+
+   public SupportingVertexHolder getShapeA()
+   {
+      return shapeA;
+   }
+
+   public SupportingVertexHolder getShapeB()
+   {
+      return shapeB;
+   }
+
+   @Override
+   public Point3D getSupportingVertex(Vector3D supportDirection)
+   {
+      Point3D supportingVertex = new Point3D();
+      getSupportingVertex(supportDirection, supportingVertex);
+      return supportingVertex;
+   }
+
+   @Override
+   public void getSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      shapeA.getSupportingVertex(supportDirection, tempSupportingVertexA);
+      shapeB.getSupportingVertex(supportDirection, tempSupportingVertexB);
+
+      supportingVertexToPack.add(tempSupportingVertexA, tempSupportingVertexB);
+   }
+
+   @Override
+   public double getMargin()
+   {
+      return shapeA.getMargin() + shapeB.getMargin();
+   }
+
+   @Override
+   public void getCoreSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      shapeA.getCoreSupportingVertex(supportDirection, tempSupportingVertexA);
+      shapeB.getCoreSupportingVertex(supportDirection, tempSupportingVertexB);
+
+      supportingVertexToPack.add(tempSupportingVertexA, tempSupportingVertexB);
+   }
+
+   public String toString()
+   {
+      return "Minkowski sum of {" + shapeA + "} and {" + shapeB + "}";
+   }
+}
@@ -0,0 +1,42 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+
+/**
+ * Single point expressed in its local frame.
+ */
+public class PointSupportingVertexHolder extends PosedSupportingVertexHolder
+{
+   private final Point3D point = new Point3D();
+
+   public PointSupportingVertexHolder()
+   {
+   }
+
+   public PointSupportingVertexHolder(Point3DReadOnly point)
+   {
+      this.point.set(point);
+   }
+
+   public void getPoint(Point3DBasics pointToPack)
+   {
+      pointToPack.set(point);
+   }
+
+   @Override
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
+   {
+      localSupportingVertexToPack.set(point);
+   }
+
+   public String toString()
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
+      return "point = " + point + ", transform = " + transform;
+   }
+}
@@ -6,81 +6,161 @@ import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
 
+/**
+ * A vertex either stands alone, or is a view of a vertex of a {@link ConvexPolytope}, holding only the
+ * polytope and the index of the vertex. Views are created when asked for, two views of the same vertex are
+ * equal, and the position and connecting vertices of a view are those stored in the polytope.
+ */
 public class PolytopeVertex
 {
-   private final Point3D position = new Point3D();
-   private final ArrayList<PolytopeVertex> connectingVertices = new ArrayList<>();
+   private final ConvexPolytope polytope;
+   private final int index;
+
+   private final Point3D position;
+   private final ArrayList<PolytopeVertex> connectingVertices;
 
    public PolytopeVertex(double x, double y, double z)
    {
-      position.set(x, y, z);
+      this.polytope = null;
+      this.index = -1;
+      position = new Point3D(x, y, z);
+      connectingVertices = new ArrayList<>();
    }
 
    public PolytopeVertex(Point3D position)
    {
-      this.position.set(position);
+      this(position.getX(), position.getY(), position.getZ());
    }
 
    public PolytopeVertex(PolytopeVertex vertex)
    {
-      this.position.set(vertex.position);
+      this(vertex.getX(), vertex.getY(), vertex.getZ());
       //      TODO: Copy connecting vertices..getClass().
    }
 
+   PolytopeVertex(ConvexPolytope polytope, int index)
+   {
+      this.polytope = polytope;
+      this.index = index;
+      position = null;
+      connectingVertices = null;
+   }
+
+   int getIndex()
+   {
+      return index;
+   }
+
+   ConvexPolytope getPolytope()
+   {
+      return polytope;
+   }
+
    public void setPosition(PolytopeVertex vertex)
    {
-      this.position.set(vertex.position);
+      setPosition(vertex.getX(), vertex.getY(), vertex.getZ());
+   }
+
+   public void setPosition(double x, double y, double z)
+   {
+      if (polytope == null)
+         position.set(x, y, z);
+      else
+         polytope.setVertex(index, x, y, z);
    }
 
    public void addConnectingVertex(PolytopeVertex vertex)
    {
-      if (!connectingVertices.contains(vertex))
+      if (vertex.polytope != polytope)
+         throw new RuntimeException("Cannot connect vertices of different polytopes: " + this + ", " + vertex);
+
+      if (polytope != null)
+         polytope.addConnection(index, vertex.index);
+      else if (!connectingVertices.contains(vertex))
          connectingVertices.add(vertex);
    }
 
    public int getNumberOfConnectingVertices()
    {
+      if (polytope != null)
+         return polytope.getNumberOfConnectingVertices(index);
+
       return connectingVertices.size();
    }
 
    public PolytopeVertex getConnectingVertex(int index)
    {
+      if (polytope != null)
+         return new PolytopeVertex(polytope, polytope.getConnectingVertexIndex(this.index, index));
+
       return connectingVertices.get(index);
    }
 
+   /**
+    * For a vertex of a polytope, returns a single point owned by the polytope, shared by all its vertices and by
+    * {@link ConvexPolytope#getSupportingVertex(Vector3D)}. It holds the position of this vertex until the next call to
+    * either, which overwrites it. It has to be copied to be kept, and setting it does not move the vertex, use
+    * {@link #setPosition(double, double, double)} instead.
+    */
    public Point3D getPosition()
    {
+      if (polytope != null)
+         return polytope.getVertexPosition(index);
+
       return position;
    }
 
    public void applyTransform(RigidBodyTransform transform)
    {
+      Point3D position = getPosition();
       transform.transform(position);
+      setPosition(position.getX(), position.getY(), position.getZ());
    }
 
    public double dot(Vector3D vector)
    {
-      return position.getX() * vector.getX() + position.getY() * vector.getY() + position.getZ() * vector.getZ();
+      return getX() * vector.getX() + getY() * vector.getY() + getZ() * vector.getZ();
+   }
+
+   @Override
+   public boolean equals(Object object)
+   {
+      if (object == this)
+         return true;
+      if (polytope == null || !(object instanceof PolytopeVertex))
+         return false;
+
+      PolytopeVertex other = (PolytopeVertex) object;
+      return other.polytope == polytope && other.index == index;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      if (polytope == null)
+         return super.hashCode();
+
+      return 31 * System.identityHashCode(polytope) + index;
    }
 
    public String toString()
    {
-      return "{" + position.getX() + ", " + position.getY() + ", " + position.getZ() + "}";
+      return "{" + getX() + ", " + getY() + ", " + getZ() + "}";
    }
 
    public double getX()
    {
-      return position.getX();
+      return polytope == null ? position.getX() : polytope.getVertexX(index);
    }
 
    public double getY()
    {
-      return position.getY();
+      return polytope == null ? position.getY() : polytope.getVertexY(index);
    }
 
    public double getZ()
    {
-      return position.getZ();
+      return polytope == null ? position.getZ() : polytope.getVertexZ(index);
    }
 
 }
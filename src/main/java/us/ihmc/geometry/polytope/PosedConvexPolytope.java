@@ -0,0 +1,66 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Lightweight instance of a shared {@link ConvexPolytopeGeometry} placed with a pose. Changing the
+ * pose is O(1) and does not touch the vertices. An instance keeps nothing from one query to the next:
+ * the walk along the edges starts from the vertex given by the caller, see
+ * {@link #getCoreSupportingVertexIndex(Vector3DReadOnly, int, Point3DBasics)}, or from the first vertex.
+ */
+public class PosedConvexPolytope extends PosedSupportingVertexHolder
+{
+   private final ConvexPolytopeGeometry geometry;
+
+   public PosedConvexPolytope(ConvexPolytopeGeometry geometry)
+   {
+      this.geometry = geometry;
+   }
+
+   public PosedConvexPolytope(ConvexPolytopeGeometry geometry, RigidBodyTransform transform)
+   {
+      this(geometry);
+      setTransform(transform);
+   }
+
+   public ConvexPolytopeGeometry getGeometry()
+   {
+      return geometry;
+   }
+
+   @Override
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
+   {
+      getCoreSupportingVertexIndexInLocalFrame(localDirectionX, localDirectionY, localDirectionZ, -1, localSupportingVertexToPack);
+   }
+
+   @Override
+   protected int getCoreSupportingVertexIndexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ, int startVertexIndex,
+                                                          Point3DBasics localSupportingVertexToPack)
+   {
+      int vertexIndex = geometry.getSupportingVertexIndex(localDirectionX, localDirectionY, localDirectionZ, startVertexIndex);
+      geometry.getVertex(vertexIndex, localSupportingVertexToPack);
+      return vertexIndex;
+   }
+
+   @Override
+   public boolean getCoreVertex(int vertexIndex, Point3DBasics vertexToPack)
+   {
+      if (vertexIndex < 0 || vertexIndex >= geometry.getNumberOfVertices())
+         return false;
+
+      geometry.getVertex(vertexIndex, vertexToPack);
+      transformFromLocalFrame(vertexToPack);
+      return true;
+   }
+
+   public String toString()
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
+      return "numberOfVertices = " + geometry.getNumberOfVertices() + ", transform = " + transform;
+   }
+}
@@ -0,0 +1,140 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Base for shapes that are described in a local frame and placed in the world with a pose. The
+ * query direction is rotated into the local frame, and the local supporting vertex is transformed
+ * back to the world. The rotation and translation of the pose are cached as primitives whenever the
+ * pose changes, so a query never inverts a transform. A query only reads the pose, so a shape can
+ * be queried from several threads at once as long as its pose does not change meanwhile.
+ */
+public abstract class PosedSupportingVertexHolder implements SupportingVertexHolder
+{
+   private final RigidBodyTransform transform = new RigidBodyTransform();
+
+   private double m00 = 1.0, m01 = 0.0, m02 = 0.0;
+   private double m10 = 0.0, m11 = 1.0, m12 = 0.0;
+   private double m20 = 0.0, m21 = 0.0, m22 = 1.0;
+   private double tx = 0.0, ty = 0.0, tz = 0.0;
+
+   public void getTransform(RigidBodyTransform transformToPack)
+   {
+      transformToPack.set(transform);
+   }
+
+   public void setTransform(RigidBodyTransform transform)
+   {
+      this.transform.set(transform);
+      updatePoseCache();
+   }
+
+   public void applyTransform(RigidBodyTransform transform)
+   {
+      this.transform.preMultiply(transform);
+      updatePoseCache();
+   }
+
+   private void updatePoseCache()
+   {
+      m00 = transform.getM00();
+      m01 = transform.getM01();
+      m02 = transform.getM02();
+      m10 = transform.getM10();
+      m11 = transform.getM11();
+      m12 = transform.getM12();
+      m20 = transform.getM20();
+      m21 = transform.getM21();
+      m22 = transform.getM22();
+
+      tx = transform.getM03();
+      ty = transform.getM13();
+      tz = transform.getM23();
+   }
+
+   @Override
+   public Point3D getSupportingVertex(Vector3D supportDirection)
+   {
+      Point3D supportingVertex = new Point3D();
+      getSupportingVertex(supportDirection, supportingVertex);
+      return supportingVertex;
+   }
+
+   @Override
+   public void getSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      double x = supportDirection.getX();
+      double y = supportDirection.getY();
+      double z = supportDirection.getZ();
+
+      // The inverse of a rotation is its transpose.
+      getSupportingVertexInLocalFrame(m00 * x + m10 * y + m20 * z, m01 * x + m11 * y + m21 * z, m02 * x + m12 * y + m22 * z, supportingVertexToPack);
+      transformFromLocalFrame(supportingVertexToPack);
+   }
+
+   @Override
+   public void getCoreSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      getCoreSupportingVertexIndex(supportDirection, -1, supportingVertexToPack);
+   }
+
+   @Override
+   public int getCoreSupportingVertexIndex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      return getCoreSupportingVertexIndex(supportDirection, -1, supportingVertexToPack);
+   }
+
+   @Override
+   public int getCoreSupportingVertexIndex(Vector3DReadOnly supportDirection, int startVertexIndex, Point3DBasics supportingVertexToPack)
+   {
+      double x = supportDirection.getX();
+      double y = supportDirection.getY();
+      double z = supportDirection.getZ();
+
+      int vertexIndex = getCoreSupportingVertexIndexInLocalFrame(m00 * x + m10 * y + m20 * z, m01 * x + m11 * y + m21 * z, m02 * x + m12 * y + m22 * z,
+                                                                 startVertexIndex, supportingVertexToPack);
+      transformFromLocalFrame(supportingVertexToPack);
+      return vertexIndex;
+   }
+
+   protected void transformFromLocalFrame(Point3DBasics pointToTransform)
+   {
+      double x = pointToTransform.getX();
+      double y = pointToTransform.getY();
+      double z = pointToTransform.getZ();
+
+      pointToTransform.set(m00 * x + m01 * y + m02 * z + tx, m10 * x + m11 * y + m12 * z + ty, m20 * x + m21 * y + m22 * z + tz);
+   }
+
+   /**
+    * Packs the supporting vertex of the shape in its local frame, for a direction expressed in the local frame.
+    */
+   protected abstract void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                           Point3DBasics localSupportingVertexToPack);
+
+   /**
+    * Same as {@link #getSupportingVertexInLocalFrame(double, double, double, Point3DBasics)} for the core shape.
+    * Shapes with a margin override it.
+    */
+   protected void getCoreSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                      Point3DBasics localSupportingVertexToPack)
+   {
+      getSupportingVertexInLocalFrame(localDirectionX, localDirectionY, localDirectionZ, localSupportingVertexToPack);
+   }
+
+   /**
+    * Same as {@link #getCoreSupportingVertexInLocalFrame(double, double, double, Point3DBasics)}, and returns the index of
+    * the vertex, see {@link SupportingVertexHolder#getCoreSupportingVertexIndex(Vector3DReadOnly, int, Point3DBasics)}.
+    * Shapes with indexed vertices override it.
+    */
+   protected int getCoreSupportingVertexIndexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ, int startVertexIndex,
+                                                          Point3DBasics localSupportingVertexToPack)
+   {
+      getCoreSupportingVertexInLocalFrame(localDirectionX, localDirectionY, localDirectionZ, localSupportingVertexToPack);
+      return -1;
+   }
+}
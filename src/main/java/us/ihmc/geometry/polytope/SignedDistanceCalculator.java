@@ -0,0 +1,208 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.commons.lists.RecyclingArrayList;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+/**
+ * Signed distance between two convex shapes in a single query. {@link GilbertJohnsonKeerthiCollisionDetector} gives the
+ * distance when the shapes are separated, or when only their margins overlap. When the cores are colliding, the GJK
+ * simplex is completed to a tetrahedron if needed and handed to {@link ExpandingPolytopeAlgorithm} for the penetration.
+ */
+public class SignedDistanceCalculator
+{
+   private static final double DEFAULT_EPSILON_RELATIVE = 1e-5;
+   private static final double COMPLETION_EPSILON = 1e-6;
+   private static final double MINIMUM_TRIPLE_PRODUCT = 1e-10;
+
+   private final GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+   private final ExpandingPolytopeAlgorithm expandingPolytopeAlgorithm;
+
+   private final RecyclingArrayList<Point3D> poolOfPoints = new RecyclingArrayList<>(Point3D.class);
+   private final Vector3D defaultInitialGuessOfSeparatingVector = new Vector3D(0.0, 0.0, 1.0);
+   private final Vector3D separatingVector = new Vector3D();
+   private final Vector3D completionDirection = new Vector3D();
+   private final Vector3D negativeCompletionDirection = new Vector3D();
+   private final Vector3D edgeOne = new Vector3D();
+   private final Vector3D edgeTwo = new Vector3D();
+   private final Vector3D axis = new Vector3D();
+
+   public SignedDistanceCalculator()
+   {
+      this(DEFAULT_EPSILON_RELATIVE);
+   }
+
+   public SignedDistanceCalculator(double epsilonRelative)
+   {
+      expandingPolytopeAlgorithm = new ExpandingPolytopeAlgorithm(epsilonRelative);
+   }
+
+   public void computeSignedDistance(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB, SignedDistanceResult resultToPack)
+   {
+      computeSignedDistance(defaultInitialGuessOfSeparatingVector, polytopeA, polytopeB, resultToPack);
+   }
+
+   public void computeSignedDistance(Vector3D initialGuessOfSeparatingVector, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB,
+                                     SignedDistanceResult resultToPack)
+   {
+      boolean areColliding = detector.arePolytopesColliding(initialGuessOfSeparatingVector, polytopeA, polytopeB, resultToPack.getPointOnA(),
+                                                            resultToPack.getPointOnB());
+      packResult(areColliding, polytopeA, polytopeB, resultToPack);
+   }
+
+   public void computeSignedDistance(GilbertJohnsonKeerthiWarmStartCache cache, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB,
+                                     SignedDistanceResult resultToPack)
+   {
+      boolean areColliding = detector.arePolytopesColliding(cache, polytopeA, polytopeB, resultToPack.getPointOnA(), resultToPack.getPointOnB());
+      packResult(areColliding, polytopeA, polytopeB, resultToPack);
+   }
+
+   private void packResult(boolean areColliding, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB, SignedDistanceResult resultToPack)
+   {
+      Point3D pointOnA = resultToPack.getPointOnA();
+      Point3D pointOnB = resultToPack.getPointOnB();
+      Vector3D normal = resultToPack.getNormal();
+
+      if (!detector.areCoresColliding())
+      {
+         // When only the margins overlap, the points have crossed each other.
+         normal.sub(pointOnB, pointOnA);
+         if (areColliding)
+            normal.negate();
+
+         double distance = normal.length();
+         if (distance > 0.0)
+            normal.scale(1.0 / distance);
+
+         resultToPack.setSignedDistance(areColliding ? -distance : distance);
+         resultToPack.setNumberOfIterations(detector.getNumberOfIterations(), 0);
+         resultToPack.setTerminationReason(detector.getTerminationReason());
+         return;
+      }
+
+      poolOfPoints.clear();
+      SimplexPolytope simplex = detector.getSimplex();
+
+      if (completeSimplex(simplex, polytopeA, polytopeB))
+      {
+         expandingPolytopeAlgorithm.setPolytopes(simplex, polytopeA, polytopeB);
+
+         if (expandingPolytopeAlgorithm.hasTriangleToExpand())
+         {
+            expandingPolytopeAlgorithm.computeExpandedPolytope(separatingVector, pointOnA, pointOnB);
+
+            // The separating vector goes from B to A in the Minkowski difference, which is the direction B has to move.
+            double depth = separatingVector.length();
+            normal.set(separatingVector);
+            if (depth > 0.0)
+               normal.scale(1.0 / depth);
+
+            resultToPack.setSignedDistance(-depth);
+            resultToPack.setNumberOfIterations(detector.getNumberOfIterations(), expandingPolytopeAlgorithm.getNumberOfIterations());
+            resultToPack.setTerminationReason(expandingPolytopeAlgorithm.getTerminationReason());
+            return;
+         }
+      }
+
+      // The origin is on the boundary of the Minkowski difference of the cores, only the margins are penetrating.
+      normal.set(0.0, 0.0, 0.0);
+      resultToPack.setSignedDistance(-(polytopeA.getMargin() + polytopeB.getMargin()));
+      resultToPack.setNumberOfIterations(detector.getNumberOfIterations(), 0);
+      resultToPack.setTerminationReason(SignedDistanceResult.TerminationReason.TOUCHING_CORES);
+   }
+
+   /**
+    * GJK stops as soon as the origin is on the simplex, which can then be a single point, a segment or a triangle. The
+    * simplex is grown to a tetrahedron with supporting vertices away from its affine hull. Returns false when the simplex
+    * is a single point, the origin is then on the boundary of the Minkowski difference, or when the Minkowski difference is
+    * flat.
+    */
+   private boolean completeSimplex(SimplexPolytope simplex, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB)
+   {
+      if (simplex.getNumberOfPoints() < 2)
+         return false;
+
+      if (simplex.getNumberOfPoints() == 2)
+      {
+         Point3D pointOne = simplex.getPoint(0);
+         edgeOne.sub(simplex.getPoint(1), pointOne);
+
+         // The axis the least aligned with the edge gives a first direction orthogonal to it, the second one is orthogonal to both.
+         double absX = Math.abs(edgeOne.getX());
+         double absY = Math.abs(edgeOne.getY());
+         double absZ = Math.abs(edgeOne.getZ());
+         if (absX <= absY && absX <= absZ)
+            axis.set(1.0, 0.0, 0.0);
+         else if (absY <= absZ)
+            axis.set(0.0, 1.0, 0.0);
+         else
+            axis.set(0.0, 0.0, 1.0);
+
+         completionDirection.cross(edgeOne, axis);
+         completionDirection.normalize();
+
+         if (!addSupportingVertexAwayFrom(simplex, pointOne, polytopeA, polytopeB))
+         {
+            completionDirection.cross(edgeOne, completionDirection);
+            completionDirection.normalize();
+
+            if (!addSupportingVertexAwayFrom(simplex, pointOne, polytopeA, polytopeB))
+               return false;
+         }
+      }
+
+      if (simplex.getNumberOfPoints() == 3)
+      {
+         Point3D pointOne = simplex.getPoint(0);
+         edgeOne.sub(simplex.getPoint(1), pointOne);
+         edgeTwo.sub(simplex.getPoint(2), pointOne);
+         completionDirection.cross(edgeOne, edgeTwo);
+         completionDirection.normalize();
+
+         if (!addSupportingVertexAwayFrom(simplex, pointOne, polytopeA, polytopeB))
+            return false;
+      }
+
+      return Math.abs(simplex.computeTripleProductIfTetragon()) >= MINIMUM_TRIPLE_PRODUCT;
+   }
+
+   /**
+    * Adds the supporting vertex of the Minkowski difference along the completion direction, or its opposite, if it is away
+    * from the plane through the point orthogonal to the completion direction.
+    */
+   private boolean addSupportingVertexAwayFrom(SimplexPolytope simplex, Point3D pointOnSimplex, SupportingVertexHolder polytopeA,
+                                               SupportingVertexHolder polytopeB)
+   {
+      for (int side = 0; side < 2; side++)
+      {
+         if (side == 1)
+            completionDirection.negate();
+
+         Point3D vertexOnA = poolOfPoints.add();
+         polytopeA.getCoreSupportingVertex(completionDirection, vertexOnA);
+         negativeCompletionDirection.set(completionDirection);
+         negativeCompletionDirection.negate();
+         Point3D vertexOnB = poolOfPoints.add();
+         polytopeB.getCoreSupportingVertex(negativeCompletionDirection, vertexOnB);
+
+         Point3D minkowskiDifferenceVertex = poolOfPoints.add();
+         minkowskiDifferenceVertex.sub(vertexOnA, vertexOnB);
+
+         edgeTwo.sub(minkowskiDifferenceVertex, pointOnSimplex);
+         if (edgeTwo.dot(completionDirection) > COMPLETION_EPSILON && simplex.addVertex(minkowskiDifferenceVertex, vertexOnA, vertexOnB))
+            return true;
+      }
+
+      return false;
+   }
+
+   public GilbertJohnsonKeerthiCollisionDetector getCollisionDetector()
+   {
+      return detector;
+   }
+
+   public ExpandingPolytopeAlgorithm getExpandingPolytopeAlgorithm()
+   {
+      return expandingPolytopeAlgorithm;
+   }
+}
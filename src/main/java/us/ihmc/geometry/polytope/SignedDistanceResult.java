@@ -0,0 +1,115 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+/**
+ * Result of {@link SignedDistanceCalculator#computeSignedDistance(SupportingVertexHolder, SupportingVertexHolder, SignedDistanceResult)},
+ * meant to be reused from one query to the next.
+ */
+public class SignedDistanceResult
+{
+   public enum TerminationReason
+   {
+      /** GJK converged to the closest points of separated shapes. */
+      SEPARATED_CONVERGED,
+      /** GJK stopped when a supporting vertex was already in the simplex or was just removed from it. */
+      SEPARATED_REPEATED_SUPPORTING_VERTEX,
+      /** GJK stopped at its maximum number of iterations. */
+      SEPARATED_MAXIMUM_ITERATIONS,
+      /** The shapes are colliding but their cores are not, so the penetration comes from the margins without EPA. */
+      OVERLAPPING_MARGINS,
+      /** EPA converged to the penetration of the cores. */
+      PENETRATION_CONVERGED,
+      /** EPA stopped when the polytope could not be expanded anymore without a degenerate triangle. */
+      PENETRATION_DEGENERATE,
+      /** EPA stopped at its maximum number of iterations. */
+      PENETRATION_MAXIMUM_ITERATIONS,
+      /** The cores are touching, or the Minkowski difference is flat, so there is no penetration to expand. The normal is zero. */
+      TOUCHING_CORES
+   }
+
+   private double signedDistance;
+   private final Vector3D normal = new Vector3D();
+   private final Point3D pointOnA = new Point3D();
+   private final Point3D pointOnB = new Point3D();
+   private int numberOfGJKIterations;
+   private int numberOfEPAIterations;
+   private TerminationReason terminationReason;
+
+   /**
+    * Distance between the shapes when they are separated, minus the penetration depth when they are colliding.
+    */
+   public double getSignedDistance()
+   {
+      return signedDistance;
+   }
+
+   public boolean areColliding()
+   {
+      return signedDistance <= 0.0;
+   }
+
+   /**
+    * Unit vector from A to B, that is the direction in which B has to move to separate from A when the shapes are colliding,
+    * or to move further away from A when they are separated. B gets closer to A by moving along the opposite direction.
+    */
+   public Vector3D getNormal()
+   {
+      return normal;
+   }
+
+   /**
+    * Closest point of A to B when separated, deepest point of A in B when colliding.
+    */
+   public Point3D getPointOnA()
+   {
+      return pointOnA;
+   }
+
+   /**
+    * Closest point of B to A when separated, deepest point of B in A when colliding.
+    */
+   public Point3D getPointOnB()
+   {
+      return pointOnB;
+   }
+
+   public int getNumberOfGJKIterations()
+   {
+      return numberOfGJKIterations;
+   }
+
+   public int getNumberOfEPAIterations()
+   {
+      return numberOfEPAIterations;
+   }
+
+   public TerminationReason getTerminationReason()
+   {
+      return terminationReason;
+   }
+
+   void setSignedDistance(double signedDistance)
+   {
+      this.signedDistance = signedDistance;
+   }
+
+   void setNumberOfIterations(int numberOfGJKIterations, int numberOfEPAIterations)
+   {
+      this.numberOfGJKIterations = numberOfGJKIterations;
+      this.numberOfEPAIterations = numberOfEPAIterations;
+   }
+
+   void setTerminationReason(TerminationReason terminationReason)
+   {
+      this.terminationReason = terminationReason;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "signedDistance = " + signedDistance + ", normal = " + normal + ", pointOnA = " + pointOnA + ", pointOnB = " + pointOnB + ", terminationReason = "
+            + terminationReason + ", GJK iterations = " + numberOfGJKIterations + ", EPA iterations = " + numberOfEPAIterations;
+   }
+}
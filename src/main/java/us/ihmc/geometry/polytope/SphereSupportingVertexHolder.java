@@ -0,0 +1,64 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * Sphere centered at the origin of its local frame. Its core is the center and its margin is the
+ * radius.
+ */
+public class SphereSupportingVertexHolder extends PosedSupportingVertexHolder
+{
+   private final double radius;
+
+   public SphereSupportingVertexHolder(double radius)
+   {
+      this.radius = radius;
+   }
+
+   public double getRadius()
+   {
+      return radius;
+   }
+
+   @Override
+   protected void getSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                  Point3DBasics localSupportingVertexToPack)
+   {
+      double x = localDirectionX;
+      double y = localDirectionY;
+      double z = localDirectionZ;
+
+      double lengthSquared = x * x + y * y + z * z;
+
+      if (lengthSquared > 0.0)
+      {
+         double scale = radius / Math.sqrt(lengthSquared);
+         localSupportingVertexToPack.set(x * scale, y * scale, z * scale);
+      }
+      else
+      {
+         localSupportingVertexToPack.set(radius, 0.0, 0.0);
+      }
+   }
+
+   @Override
+   public double getMargin()
+   {
+      return radius;
+   }
+
+   @Override
+   protected void getCoreSupportingVertexInLocalFrame(double localDirectionX, double localDirectionY, double localDirectionZ,
+                                                      Point3DBasics localSupportingVertexToPack)
+   {
+      localSupportingVertexToPack.set(0.0, 0.0, 0.0);
+   }
+
+   public String toString()
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      getTransform(transform);
+      return "radius = " + radius + ", transform = " + transform;
+   }
+}
@@ -0,0 +1,96 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Shape swept by a sphere, that is the shape with its corners and edges rounded by a margin. To keep
+ * the outer dimensions of a box for instance, sweep a box that is shrunk by the margin. Collision
+ * detection runs on the shape and adds the margin, so contacts shallower than the margin do not need
+ * {@link ExpandingPolytopeAlgorithm}.
+ */
+public class SphereSweptSupportingVertexHolder implements SupportingVertexHolder
+{
+   private final SupportingVertexHolder shape;
+   private final double radius;
+
+   public SphereSweptSupportingVertexHolder(SupportingVertexHolder shape, double radius)
+   {
+      if (radius < 0.0)
+         throw new RuntimeException("Radius must not be negative: " + radius);
+
+      this.shape = shape;
+      this.radius = radius;
+   }
+
+   public SupportingVertexHolder getShape()
+   {
+      return shape;
+   }
+
+   public double getRadius()
+   {
+      return radius;
+   }
+
+   @Override
+   public double getMargin()
+   {
+      return shape.getMargin() + radius;
+   }
+
+   @Override
+   public void getCoreSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      shape.getCoreSupportingVertex(supportDirection, supportingVertexToPack);
+   }
+
+   @Override
+   public int getCoreSupportingVertexIndex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      return shape.getCoreSupportingVertexIndex(supportDirection, supportingVertexToPack);
+   }
+
+   @Override
+   public boolean getCoreVertex(int vertexIndex, Point3DBasics vertexToPack)
+   {
+      return shape.getCoreVertex(vertexIndex, vertexToPack);
+   }
+
+   @Override
+   public Point3D getSupportingVertex(Vector3D supportDirection)
+   {
+      Point3D supportingVertex = new Point3D();
+      getSupportingVertex(supportDirection, supportingVertex);
+      return supportingVertex;
+   }
+
+   @Override
+   public void getSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      shape.getSupportingVertex(supportDirection, supportingVertexToPack);
+
+      double x = supportDirection.getX();
+      double y = supportDirection.getY();
+      double z = supportDirection.getZ();
+
+      double lengthSquared = x * x + y * y + z * z;
+
+      if (lengthSquared > 0.0)
+      {
+         double scale = radius / Math.sqrt(lengthSquared);
+         supportingVertexToPack.add(x * scale, y * scale, z * scale);
+      }
+      else
+      {
+         supportingVertexToPack.add(radius, 0.0, 0.0);
+      }
+   }
+
+   public String toString()
+   {
+      return "{" + shape + "} swept by a sphere of radius " + radius;
+   }
+}
@@ -2,9 +2,95 @@ package us.ihmc.geometry.polytope;
 
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
 
 public interface SupportingVertexHolder
 {
-   //TODO: Pack instead of return a Point3D? Or at least not return copies...
    public abstract Point3D getSupportingVertex(Vector3D supportDirection);
+
+   /**
+    * Packs the supporting vertex in the given direction. The default bridges to {@link #getSupportingVertex(Vector3D)},
+    * implementations used in the collision detection loops should override it to avoid allocating.
+    */
+   public default void getSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      Vector3D supportDirectionVector;
+      if (supportDirection instanceof Vector3D)
+         supportDirectionVector = (Vector3D) supportDirection;
+      else
+         supportDirectionVector = new Vector3D(supportDirection);
+
+      supportingVertexToPack.set(getSupportingVertex(supportDirectionVector));
+   }
+
+   /**
+    * Packs the supporting vertices in numberOfDirections directions, given and returned as arrays of coordinates. The
+    * default queries the directions one by one, shapes with many vertices should override it to go through their
+    * vertices once for all the directions.
+    */
+   public default void getSupportingVertices(double[] directionXs, double[] directionYs, double[] directionZs, int numberOfDirections,
+                                             double[] supportingVertexXsToPack, double[] supportingVertexYsToPack, double[] supportingVertexZsToPack)
+   {
+      Vector3D supportDirection = new Vector3D();
+      Point3D supportingVertex = new Point3D();
+
+      for (int i = 0; i < numberOfDirections; i++)
+      {
+         supportDirection.set(directionXs[i], directionYs[i], directionZs[i]);
+         getSupportingVertex(supportDirection, supportingVertex);
+
+         supportingVertexXsToPack[i] = supportingVertex.getX();
+         supportingVertexYsToPack[i] = supportingVertex.getY();
+         supportingVertexZsToPack[i] = supportingVertex.getZ();
+      }
+   }
+
+   /**
+    * Radius of the sphere that the core shape is swept by to give this shape. Collision detection runs on the
+    * cores and adds the margins afterwards, so that shallow contacts are resolved without
+    * {@link ExpandingPolytopeAlgorithm}.
+    */
+   public default double getMargin()
+   {
+      return 0.0;
+   }
+
+   /**
+    * Packs the supporting vertex of the core shape, which is this shape shrunk by {@link #getMargin()}.
+    */
+   public default void getCoreSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      getSupportingVertex(supportDirection, supportingVertexToPack);
+   }
+
+   /**
+    * Same as {@link #getCoreSupportingVertex(Vector3DReadOnly, Point3DBasics)}, and returns the index of the vertex of the
+    * core shape that was packed, or -1 for shapes that do not have indexed vertices. A vertex keeps its index from one
+    * query to the next, so two supporting vertices with the same index are the same vertex.
+    */
+   public default int getCoreSupportingVertexIndex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      getCoreSupportingVertex(supportDirection, supportingVertexToPack);
+      return -1;
+   }
+
+   /**
+    * Same as {@link #getCoreSupportingVertexIndex(Vector3DReadOnly, Point3DBasics)}, where shapes that walk along their
+    * edges start from the vertex with the given index, typically the previous supporting vertex of the same query, or
+    * choose where to start when it is -1. The shape does not remember the vertex, the caller keeps the warm start.
+    */
+   public default int getCoreSupportingVertexIndex(Vector3DReadOnly supportDirection, int startVertexIndex, Point3DBasics supportingVertexToPack)
+   {
+      return getCoreSupportingVertexIndex(supportDirection, supportingVertexToPack);
+   }
+
+   /**
+    * Packs the vertex of the core shape with the given index, as returned by
+    * {@link #getCoreSupportingVertexIndex(Vector3DReadOnly, Point3DBasics)}, or returns false if there is no such vertex.
+    */
+   public default boolean getCoreVertex(int vertexIndex, Point3DBasics vertexToPack)
+   {
+      return false;
+   }
 }
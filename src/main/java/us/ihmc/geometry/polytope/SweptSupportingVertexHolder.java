@@ -0,0 +1,75 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Volume covered by a shape as it is translated by a sweep vector. This is the Minkowski sum of the
+ * shape with the line segment from the origin to the sweep vector, so the supporting vertex is the
+ * one of the shape, shifted by the sweep vector when it points along the support direction.
+ */
+public class SweptSupportingVertexHolder implements SupportingVertexHolder
+{
+   private final SupportingVertexHolder shape;
+   private final Vector3D sweepVector = new Vector3D();
+
+   public SweptSupportingVertexHolder(SupportingVertexHolder shape, Vector3DReadOnly sweepVector)
+   {
+      this.shape = shape;
+      this.sweepVector.set(sweepVector);
+   }
+
+   public SupportingVertexHolder getShape()
+   {
+      return shape;
+   }
+
+   public void setSweepVector(Vector3DReadOnly sweepVector)
+   {
+      this.sweepVector.set(sweepVector);
+   }
+
+   public void getSweepVector(Vector3D sweepVectorToPack)
+   {
+      sweepVectorToPack.set(sweepVector);
+   }
+
+   @Override
+   public Point3D getSupportingVertex(Vector3D supportDirection)
+   {
+      Point3D supportingVertex = new Point3D();
+      getSupportingVertex(supportDirection, supportingVertex);
+      return supportingVertex;
+   }
+
+   @Override
+   public void getSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      shape.getSupportingVertex(supportDirection, supportingVertexToPack);
+
+      if (sweepVector.dot(supportDirection) > 0.0)
+         supportingVertexToPack.add(sweepVector);
+   }
+
+   @Override
+   public double getMargin()
+   {
+      return shape.getMargin();
+   }
+
+   @Override
+   public void getCoreSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      shape.getCoreSupportingVertex(supportDirection, supportingVertexToPack);
+
+      if (sweepVector.dot(supportDirection) > 0.0)
+         supportingVertexToPack.add(sweepVector);
+   }
+
+   public String toString()
+   {
+      return "{" + shape + "} swept by " + sweepVector;
+   }
+}
@@ -0,0 +1,295 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+/**
+ * First time of contact of two shapes moving from a start pose to an end pose, found by conservative advancement: the
+ * distance given by GJK, divided by a bound on how fast the shapes can get closer, is a time step that cannot make them
+ * collide. The translations are interpolated linearly and the rotations with a slerp, the time goes from 0 to 1.
+ */
+public class TimeOfImpactCalculator
+{
+   private static final double DEFAULT_DISTANCE_TOLERANCE = 1e-4;
+   private static final int MAXIMUM_NUMBER_OF_ITERATIONS = 64;
+
+   private final double distanceTolerance;
+
+   private final GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+   private final ShapeMotion motionA = new ShapeMotion();
+   private final ShapeMotion motionB = new ShapeMotion();
+   private final Vector3D separatingVector = new Vector3D();
+
+   private double timeOfImpact;
+   private final Vector3D normal = new Vector3D();
+   private final Point3D pointOnA = new Point3D();
+   private final Point3D pointOnB = new Point3D();
+   private int numberOfIterations = 0;
+   private double distance;
+   private boolean isMaximumNumberOfIterationsReached = false;
+
+   public TimeOfImpactCalculator()
+   {
+      this(DEFAULT_DISTANCE_TOLERANCE);
+   }
+
+   /**
+    * The shapes are considered in contact once they are closer than distanceTolerance.
+    */
+   public TimeOfImpactCalculator(double distanceTolerance)
+   {
+      this.distanceTolerance = distanceTolerance;
+   }
+
+   /**
+    * Moves the shapes, given in their own frames, from their start poses to their end poses. Returns true if they come in
+    * contact, the contact is then given by {@link #getTimeOfImpact()}, {@link #getNormal()}, {@link #getPointOnA()} and
+    * {@link #getPointOnB()}. Shapes that are colliding in their start poses are in contact at the time 0, with a zero
+    * normal. Returns false as well when the iterations run out before the contact or the end poses are reached, which
+    * {@link #isMaximumNumberOfIterationsReached()} tells apart from a miss.
+    */
+   public boolean computeTimeOfImpact(SupportingVertexHolder shapeA, RigidBodyTransform startPoseA, RigidBodyTransform endPoseA,
+                                      SupportingVertexHolder shapeB, RigidBodyTransform startPoseB, RigidBodyTransform endPoseB)
+   {
+      motionA.set(shapeA, startPoseA, endPoseA);
+      motionB.set(shapeB, startPoseB, endPoseB);
+      numberOfIterations = 0;
+      isMaximumNumberOfIterationsReached = false;
+
+      double time = 0.0;
+      separatingVector.set(0.0, 0.0, 1.0);
+      normal.set(0.0, 0.0, 0.0);
+
+      while (true)
+      {
+         numberOfIterations++;
+         motionA.setPoseAt(time);
+         motionB.setPoseAt(time);
+
+         if (detector.arePolytopesColliding(separatingVector, motionA.shape, motionB.shape, pointOnA, pointOnB))
+         {
+            // Only possible at the start, the time steps do not let the shapes get closer than the distance tolerance.
+            timeOfImpact = time;
+            distance = 0.0;
+            return true;
+         }
+
+         separatingVector.sub(pointOnB, pointOnA);
+         distance = separatingVector.length();
+         normal.set(separatingVector);
+         normal.scale(1.0 / distance);
+
+         timeOfImpact = time;
+         if (distance <= distanceTolerance)
+            return true;
+
+         // The shapes do not collide up to the time reached, but may after it.
+         if (numberOfIterations == MAXIMUM_NUMBER_OF_ITERATIONS)
+         {
+            isMaximumNumberOfIterationsReached = true;
+            return false;
+         }
+
+         // Any point of a shape moves at most as fast as its origin plus its angular speed times its radius.
+         double approachSpeedBound = normal.dot(motionA.translation) - normal.dot(motionB.translation) + motionA.angle * motionA.radius
+               + motionB.angle * motionB.radius;
+         if (approachSpeedBound <= 0.0)
+            return false;
+
+         time += distance / approachSpeedBound;
+         if (time > 1.0)
+            return false;
+      }
+   }
+
+   /**
+    * Time of the contact, between 0 at the start poses and 1 at the end poses. When the iterations run out, the time up
+    * to which the shapes are known not to collide.
+    */
+   public double getTimeOfImpact()
+   {
+      return timeOfImpact;
+   }
+
+   /**
+    * Unit vector from A to B at the time of impact.
+    */
+   public Vector3D getNormal()
+   {
+      return normal;
+   }
+
+   public Point3D getPointOnA()
+   {
+      return pointOnA;
+   }
+
+   public Point3D getPointOnB()
+   {
+      return pointOnB;
+   }
+
+   /**
+    * Distance between the shapes at {@link #getTimeOfImpact()}.
+    */
+   public double getDistance()
+   {
+      return distance;
+   }
+
+   /**
+    * Whether the last time of impact ran out of iterations before finding the contact or reaching the end poses. The
+    * shapes may then still come in contact after {@link #getTimeOfImpact()}.
+    */
+   public boolean isMaximumNumberOfIterationsReached()
+   {
+      return isMaximumNumberOfIterationsReached;
+   }
+
+   /**
+    * Number of distance queries of the last time of impact.
+    */
+   public int getNumberOfIterations()
+   {
+      return numberOfIterations;
+   }
+
+   private static class ShapeMotion
+   {
+      private TransformedSupportingVertexHolder shape;
+
+      private final double[] startQuaternion = new double[4];
+      private final double[] endQuaternion = new double[4];
+      private final Vector3D startTranslation = new Vector3D();
+      private final Vector3D translation = new Vector3D();
+      /** Half of the angle of the rotation from the start pose to the end pose, as used in the slerp. */
+      private double halfAngle;
+      private double angle;
+      private double radius;
+
+      private final Vector3D direction = new Vector3D();
+      private final Point3D supportingVertex = new Point3D();
+
+      void set(SupportingVertexHolder shape, RigidBodyTransform startPose, RigidBodyTransform endPose)
+      {
+         if (this.shape == null || this.shape.getShape() != shape)
+            this.shape = new TransformedSupportingVertexHolder(shape);
+         radius = computeRadius(shape);
+
+         setQuaternion(startPose, startQuaternion);
+         setQuaternion(endPose, endQuaternion);
+
+         double dot = 0.0;
+         for (int i = 0; i < 4; i++)
+            dot += startQuaternion[i] * endQuaternion[i];
+
+         // q and -q are the same rotation, the shortest path starts from the closest one.
+         if (dot < 0.0)
+         {
+            dot = -dot;
+            for (int i = 0; i < 4; i++)
+               endQuaternion[i] = -endQuaternion[i];
+         }
+
+         halfAngle = Math.acos(Math.min(dot, 1.0));
+         angle = 2.0 * halfAngle;
+
+         startTranslation.set(startPose.getM03(), startPose.getM13(), startPose.getM23());
+         translation.set(endPose.getM03(), endPose.getM13(), endPose.getM23());
+         translation.sub(startTranslation);
+      }
+
+      void setPoseAt(double time)
+      {
+         double startWeight, endWeight;
+         double sinHalfAngle = Math.sin(halfAngle);
+
+         if (sinHalfAngle < 1e-8)
+         {
+            startWeight = 1.0 - time;
+            endWeight = time;
+         }
+         else
+         {
+            startWeight = Math.sin((1.0 - time) * halfAngle) / sinHalfAngle;
+            endWeight = Math.sin(time * halfAngle) / sinHalfAngle;
+         }
+
+         double qx = startWeight * startQuaternion[0] + endWeight * endQuaternion[0];
+         double qy = startWeight * startQuaternion[1] + endWeight * endQuaternion[1];
+         double qz = startWeight * startQuaternion[2] + endWeight * endQuaternion[2];
+         double qs = startWeight * startQuaternion[3] + endWeight * endQuaternion[3];
+         double norm = Math.sqrt(qx * qx + qy * qy + qz * qz + qs * qs);
+
+         shape.setPose(qx / norm, qy / norm, qz / norm, qs / norm, startTranslation.getX() + time * translation.getX(),
+                       startTranslation.getY() + time * translation.getY(), startTranslation.getZ() + time * translation.getZ());
+      }
+
+      /**
+       * Upper bound of the distance from the origin of the frame of the shape to its points, from the bounding box of the
+       * shape.
+       */
+      private double computeRadius(SupportingVertexHolder shape)
+      {
+         double radiusSquared = 0.0;
+
+         for (int axis = 0; axis < 3; axis++)
+         {
+            double maximum = 0.0;
+            for (int side = -1; side <= 1; side += 2)
+            {
+               direction.set(0.0, 0.0, 0.0);
+               direction.setElement(axis, side);
+               shape.getSupportingVertex(direction, supportingVertex);
+               maximum = Math.max(maximum, Math.abs(supportingVertex.getElement(axis)));
+            }
+            radiusSquared += maximum * maximum;
+         }
+
+         return Math.sqrt(radiusSquared);
+      }
+
+      private static void setQuaternion(RigidBodyTransform pose, double[] quaternionToPack)
+      {
+         double m00 = pose.getM00(), m01 = pose.getM01(), m02 = pose.getM02();
+         double m10 = pose.getM10(), m11 = pose.getM11(), m12 = pose.getM12();
+         double m20 = pose.getM20(), m21 = pose.getM21(), m22 = pose.getM22();
+         double trace = m00 + m11 + m22;
+
+         // The largest of the four terms is used as the divisor, for accuracy.
+         if (trace > 0.0)
+         {
+            double s = 2.0 * Math.sqrt(trace + 1.0);
+            quaternionToPack[0] = (m21 - m12) / s;
+            quaternionToPack[1] = (m02 - m20) / s;
+            quaternionToPack[2] = (m10 - m01) / s;
+            quaternionToPack[3] = 0.25 * s;
+         }
+         else if (m00 > m11 && m00 > m22)
+         {
+            double s = 2.0 * Math.sqrt(1.0 + m00 - m11 - m22);
+            quaternionToPack[0] = 0.25 * s;
+            quaternionToPack[1] = (m01 + m10) / s;
+            quaternionToPack[2] = (m02 + m20) / s;
+            quaternionToPack[3] = (m21 - m12) / s;
+         }
+         else if (m11 > m22)
+         {
+            double s = 2.0 * Math.sqrt(1.0 + m11 - m00 - m22);
+            quaternionToPack[0] = (m01 + m10) / s;
+            quaternionToPack[1] = 0.25 * s;
+            quaternionToPack[2] = (m12 + m21) / s;
+            quaternionToPack[3] = (m02 - m20) / s;
+         }
+         else
+         {
+            double s = 2.0 * Math.sqrt(1.0 + m22 - m00 - m11);
+            quaternionToPack[0] = (m02 + m20) / s;
+            quaternionToPack[1] = (m12 + m21) / s;
+            quaternionToPack[2] = 0.25 * s;
+            quaternionToPack[3] = (m10 - m01) / s;
+         }
+      }
+   }
+}
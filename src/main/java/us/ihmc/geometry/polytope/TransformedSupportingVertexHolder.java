@@ -0,0 +1,128 @@
+package us.ihmc.geometry.polytope;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Any shape, given in its own frame, placed in the world with a pose. The pose can be changed at no cost between queries,
+ * which is what {@link TimeOfImpactCalculator} does as it moves the shapes along their motion.
+ */
+public class TransformedSupportingVertexHolder implements SupportingVertexHolder
+{
+   private final SupportingVertexHolder shape;
+
+   private double m00 = 1.0, m01 = 0.0, m02 = 0.0;
+   private double m10 = 0.0, m11 = 1.0, m12 = 0.0;
+   private double m20 = 0.0, m21 = 0.0, m22 = 1.0;
+   private double tx = 0.0, ty = 0.0, tz = 0.0;
+
+   private final Vector3D localSupportDirection = new Vector3D();
+
+   public TransformedSupportingVertexHolder(SupportingVertexHolder shape)
+   {
+      this.shape = shape;
+   }
+
+   public SupportingVertexHolder getShape()
+   {
+      return shape;
+   }
+
+   public void setTransform(RigidBodyTransform transform)
+   {
+      m00 = transform.getM00();
+      m01 = transform.getM01();
+      m02 = transform.getM02();
+      m10 = transform.getM10();
+      m11 = transform.getM11();
+      m12 = transform.getM12();
+      m20 = transform.getM20();
+      m21 = transform.getM21();
+      m22 = transform.getM22();
+
+      tx = transform.getM03();
+      ty = transform.getM13();
+      tz = transform.getM23();
+   }
+
+   /**
+    * Sets the pose from a unit quaternion (qx, qy, qz, qs) and a translation.
+    */
+   public void setPose(double qx, double qy, double qz, double qs, double x, double y, double z)
+   {
+      double xx = qx * qx, yy = qy * qy, zz = qz * qz;
+      double xy = qx * qy, xz = qx * qz, yz = qy * qz;
+      double sx = qs * qx, sy = qs * qy, sz = qs * qz;
+
+      m00 = 1.0 - 2.0 * (yy + zz);
+      m01 = 2.0 * (xy - sz);
+      m02 = 2.0 * (xz + sy);
+      m10 = 2.0 * (xy + sz);
+      m11 = 1.0 - 2.0 * (xx + zz);
+      m12 = 2.0 * (yz - sx);
+      m20 = 2.0 * (xz - sy);
+      m21 = 2.0 * (yz + sx);
+      m22 = 1.0 - 2.0 * (xx + yy);
+
+      tx = x;
+      ty = y;
+      tz = z;
+   }
+
+   @Override
+   public Point3D getSupportingVertex(Vector3D supportDirection)
+   {
+      Point3D supportingVertex = new Point3D();
+      getSupportingVertex(supportDirection, supportingVertex);
+      return supportingVertex;
+   }
+
+   @Override
+   public void getSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      transformToLocalFrame(supportDirection);
+      shape.getSupportingVertex(localSupportDirection, supportingVertexToPack);
+      transformFromLocalFrame(supportingVertexToPack);
+   }
+
+   @Override
+   public double getMargin()
+   {
+      return shape.getMargin();
+   }
+
+   @Override
+   public void getCoreSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+   {
+      transformToLocalFrame(supportDirection);
+      shape.getCoreSupportingVertex(localSupportDirection, supportingVertexToPack);
+      transformFromLocalFrame(supportingVertexToPack);
+   }
+
+   private void transformToLocalFrame(Vector3DReadOnly supportDirection)
+   {
+      double x = supportDirection.getX();
+      double y = supportDirection.getY();
+      double z = supportDirection.getZ();
+
+      // The inverse of a rotation is its transpose.
+      localSupportDirection.set(m00 * x + m10 * y + m20 * z, m01 * x + m11 * y + m21 * z, m02 * x + m12 * y + m22 * z);
+   }
+
+   private void transformFromLocalFrame(Point3DBasics pointToTransform)
+   {
+      double x = pointToTransform.getX();
+      double y = pointToTransform.getY();
+      double z = pointToTransform.getZ();
+
+      pointToTransform.set(m00 * x + m01 * y + m02 * z + tx, m10 * x + m11 * y + m12 * z + ty, m20 * x + m21 * y + m22 * z + tz);
+   }
+
+   public String toString()
+   {
+      return "{" + shape + "} translated by (" + tx + ", " + ty + ", " + tz + ")";
+   }
+}
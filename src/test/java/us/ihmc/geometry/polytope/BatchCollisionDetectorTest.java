@@ -0,0 +1,203 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import us.ihmc.commons.RandomNumbers;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+
+public class BatchCollisionDetectorTest
+{
+   @Test(timeout = 30000)
+   public void testMatchesSequentialQueries()
+   {
+      Random random = new Random(1903L);
+      int numberOfPairs = 3000;
+
+      ConvexPolytopeGeometry[] geometries = new ConvexPolytopeGeometry[10];
+      for (int i = 0; i < geometries.length; i++)
+      {
+         geometries[i] = new ConvexPolytopeGeometry(ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, RandomNumbers.nextInt(random, 4, 30),
+                                                                                                                  1.0, 0.0));
+      }
+
+      SupportingVertexHolder[] polytopesA = new SupportingVertexHolder[numberOfPairs];
+      SupportingVertexHolder[] polytopesB = new SupportingVertexHolder[numberOfPairs];
+      boolean[] expectedCollisions = new boolean[numberOfPairs];
+      Point3D[] expectedPointsOnA = new Point3D[numberOfPairs];
+      Point3D[] expectedPointsOnB = new Point3D[numberOfPairs];
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      for (int i = 0; i < numberOfPairs; i++)
+      {
+         RigidBodyTransform transformA = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformA.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 1.0));
+         RigidBodyTransform transformB = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformB.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 2.0));
+         ConvexPolytopeGeometry geometryA = geometries[random.nextInt(geometries.length)];
+         ConvexPolytopeGeometry geometryB = geometries[random.nextInt(geometries.length)];
+
+         expectedPointsOnA[i] = new Point3D();
+         expectedPointsOnB[i] = new Point3D();
+         expectedCollisions[i] = detector.arePolytopesColliding(new PosedConvexPolytope(geometryA, transformA), new PosedConvexPolytope(geometryB, transformB),
+                                                                expectedPointsOnA[i], expectedPointsOnB[i]);
+
+         polytopesA[i] = new PosedConvexPolytope(geometryA, transformA);
+         polytopesB[i] = new PosedConvexPolytope(geometryB, transformB);
+      }
+
+      BatchCollisionResult result = new BatchCollisionResult();
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+
+      for (int parallelism : new int[] {1, 2, 4})
+      {
+         ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+         BatchCollisionDetector batchDetector = new BatchCollisionDetector(forkJoinPool);
+
+         batchDetector.arePolytopesColliding(polytopesA, polytopesB, numberOfPairs, result);
+         forkJoinPool.shutdown();
+
+         assertEquals(numberOfPairs, result.getNumberOfPairs());
+         int numberOfCollisions = 0;
+
+         for (int i = 0; i < numberOfPairs; i++)
+         {
+            assertEquals(expectedCollisions[i], result.areColliding(i));
+            assertEquals(expectedCollisions[i], result.getCollidingArray()[i]);
+            result.getPointOnA(i, pointOnA);
+            result.getPointOnB(i, pointOnB);
+            assertTrue(expectedPointsOnA[i].equals(pointOnA));
+            assertTrue(expectedPointsOnB[i].equals(pointOnB));
+
+            if (expectedCollisions[i])
+            {
+               numberOfCollisions++;
+               assertEquals(0.0, result.getDistance(i), 0.0);
+            }
+            else
+            {
+               assertEquals(expectedPointsOnA[i].distance(expectedPointsOnB[i]), result.getDistance(i), 0.0);
+            }
+         }
+
+         assertTrue(numberOfCollisions > 100);
+         assertTrue(numberOfCollisions < numberOfPairs - 100);
+      }
+
+      // A smaller batch reuses the arrays.
+      boolean[] collidingArray = result.getCollidingArray();
+      new BatchCollisionDetector().arePolytopesColliding(polytopesA, polytopesB, 10, result);
+      assertEquals(10, result.getNumberOfPairs());
+      assertTrue(collidingArray == result.getCollidingArray());
+   }
+
+   @Test(timeout = 30000)
+   public void testShapesSharedByManyPairs()
+   {
+      Random random = new Random(2207L);
+      int numberOfPairs = 4000;
+
+      // A link checked against every obstacle, once as a posed geometry and once as a polytope whose adjacency and lookup
+      // table are only built by the first query of the batch. The twin polytope gives the sequential results.
+      ConvexPolytope linkPolytope = createIcoSphere();
+      PosedConvexPolytope posedLink = new PosedConvexPolytope(new ConvexPolytopeGeometry(linkPolytope));
+      ConvexPolytope link = createIcoSphere();
+      link.setSupportingVertexLookupTableResolution(8);
+      ConvexPolytope twinLink = createIcoSphere();
+      twinLink.setSupportingVertexLookupTableResolution(8);
+
+      RigidBodyTransform linkTransform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+      linkTransform.setTranslation(0.2, -0.1, 0.3);
+      posedLink.setTransform(linkTransform);
+      link.applyTransform(linkTransform);
+      twinLink.applyTransform(linkTransform);
+
+      ConvexPolytope obstaclePolytope = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 30, 0.5, 0.0);
+      obstaclePolytope.setUseHillClimbingForSupportingVertex(true);
+      ConvexPolytopeGeometry obstacleGeometry = new ConvexPolytopeGeometry(obstaclePolytope);
+      CapsuleSupportingVertexHolder sharedCapsule = new CapsuleSupportingVertexHolder(0.3, 0.6);
+      sharedCapsule.setTransform(EuclidCoreRandomTools.nextRigidBodyTransform(random));
+
+      SupportingVertexHolder[] polytopesA = new SupportingVertexHolder[numberOfPairs];
+      SupportingVertexHolder[] polytopesB = new SupportingVertexHolder[numberOfPairs];
+      boolean[] expectedCollisions = new boolean[numberOfPairs];
+      Point3D[] expectedPointsOnA = new Point3D[numberOfPairs];
+      Point3D[] expectedPointsOnB = new Point3D[numberOfPairs];
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      for (int i = 0; i < numberOfPairs; i++)
+      {
+         PosedSupportingVertexHolder obstacle;
+         if (i % 10 == 0)
+         {
+            obstacle = sharedCapsule;
+         }
+         else
+         {
+            RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+            transform.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 2.5));
+            obstacle = new PosedConvexPolytope(obstacleGeometry, transform);
+         }
+
+         boolean isPosedLink = i % 2 == 0;
+         expectedPointsOnA[i] = new Point3D();
+         expectedPointsOnB[i] = new Point3D();
+         expectedCollisions[i] = detector.arePolytopesColliding(isPosedLink ? posedLink : twinLink, obstacle, expectedPointsOnA[i], expectedPointsOnB[i]);
+
+         polytopesA[i] = isPosedLink ? posedLink : link;
+         polytopesB[i] = obstacle;
+      }
+
+      BatchCollisionResult result = new BatchCollisionResult();
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+      BatchCollisionDetector batchDetector = new BatchCollisionDetector(forkJoinPool);
+
+      for (int trial = 0; trial < 5; trial++)
+      {
+         batchDetector.arePolytopesColliding(polytopesA, polytopesB, numberOfPairs, result);
+         int numberOfCollisions = 0;
+
+         for (int i = 0; i < numberOfPairs; i++)
+         {
+            assertEquals(expectedCollisions[i], result.areColliding(i));
+            result.getPointOnA(i, pointOnA);
+            result.getPointOnB(i, pointOnB);
+            assertTrue(expectedPointsOnA[i].equals(pointOnA));
+            assertTrue(expectedPointsOnB[i].equals(pointOnB));
+
+            if (expectedCollisions[i])
+               numberOfCollisions++;
+         }
+
+         assertTrue(numberOfCollisions > 100);
+         assertTrue(numberOfCollisions < numberOfPairs - 100);
+      }
+
+      forkJoinPool.shutdown();
+   }
+
+   @Test(timeout = 30000, expected = RuntimeException.class)
+   public void testTooFewShapes()
+   {
+      SupportingVertexHolder[] shapes = {new SphereSupportingVertexHolder(1.0)};
+      new BatchCollisionDetector().arePolytopesColliding(shapes, shapes, 2, new BatchCollisionResult());
+   }
+
+   private static ConvexPolytope createIcoSphere()
+   {
+      ExpandingPolytopeEntryFromSimpleMeshGenerator expandingPolytopeGenerator = new ExpandingPolytopeEntryFromSimpleMeshGenerator();
+      ConvexPolytopeFromExpandingPolytopeEntryGenerator convexPolytopeGenerator = new ConvexPolytopeFromExpandingPolytopeEntryGenerator();
+      ConvexPolytope icoSphere = convexPolytopeGenerator.generateConvexPolytope(expandingPolytopeGenerator.generateExpandingPolytope(new IcoSphereCreator().createIcoSphere(3)));
+      icoSphere.setUseHillClimbingForSupportingVertex(true);
+      return icoSphere;
+   }
+}
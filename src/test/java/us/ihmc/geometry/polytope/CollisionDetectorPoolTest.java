@@ -0,0 +1,134 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import us.ihmc.commons.RandomNumbers;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+
+public class CollisionDetectorPoolTest
+{
+   private static final int NUMBER_OF_THREADS = 4;
+   private static final int NUMBER_OF_PAIRS = 500;
+
+   @Test(timeout = 30000)
+   public void testConcurrentQueriesMatchSingleThreadedQueries() throws Exception
+   {
+      Random random = new Random(1848L);
+
+      ConvexPolytopeGeometry[] geometries = new ConvexPolytopeGeometry[10];
+      for (int i = 0; i < geometries.length; i++)
+      {
+         geometries[i] = new ConvexPolytopeGeometry(ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, RandomNumbers.nextInt(random, 4, 30),
+                                                                                                                  1.0, 0.0));
+      }
+
+      int[] geometryIndicesA = new int[NUMBER_OF_PAIRS];
+      int[] geometryIndicesB = new int[NUMBER_OF_PAIRS];
+      RigidBodyTransform[] transformsA = new RigidBodyTransform[NUMBER_OF_PAIRS];
+      RigidBodyTransform[] transformsB = new RigidBodyTransform[NUMBER_OF_PAIRS];
+      double[] expectedSignedDistances = new double[NUMBER_OF_PAIRS];
+      boolean[] expectedIntersections = new boolean[NUMBER_OF_PAIRS];
+
+      SignedDistanceCalculator calculator = new SignedDistanceCalculator();
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      SignedDistanceResult result = new SignedDistanceResult();
+
+      for (int i = 0; i < NUMBER_OF_PAIRS; i++)
+      {
+         geometryIndicesA[i] = random.nextInt(geometries.length);
+         geometryIndicesB[i] = random.nextInt(geometries.length);
+         transformsA[i] = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformsA[i].setTranslation(EuclidCoreRandomTools.nextVector3D(random, 1.0));
+         transformsB[i] = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformsB[i].setTranslation(EuclidCoreRandomTools.nextVector3D(random, 2.0));
+
+         calculator.computeSignedDistance(new PosedConvexPolytope(geometries[geometryIndicesA[i]], transformsA[i]),
+                                          new PosedConvexPolytope(geometries[geometryIndicesB[i]], transformsB[i]), result);
+         expectedSignedDistances[i] = result.getSignedDistance();
+         expectedIntersections[i] = detector.arePolytopesIntersecting(new PosedConvexPolytope(geometries[geometryIndicesA[i]], transformsA[i]),
+                                                                      new PosedConvexPolytope(geometries[geometryIndicesB[i]], transformsB[i]));
+      }
+
+      CollisionDetectorPool pool = new CollisionDetectorPool();
+      ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+      List<Future<Boolean>> futures = new ArrayList<>();
+
+      for (int task = 0; task < 4 * NUMBER_OF_THREADS; task++)
+      {
+         futures.add(executor.submit(new Callable<Boolean>()
+         {
+            @Override
+            public Boolean call()
+            {
+               // Each thread has its own shape instances, sharing the geometries.
+               SignedDistanceResult threadResult = new SignedDistanceResult();
+               CollisionDetectorPool.Context context = pool.getContext();
+
+               for (int i = 0; i < NUMBER_OF_PAIRS; i++)
+               {
+                  pool.computeSignedDistance(new PosedConvexPolytope(geometries[geometryIndicesA[i]], transformsA[i]),
+                                             new PosedConvexPolytope(geometries[geometryIndicesB[i]], transformsB[i]), threadResult);
+                  if (threadResult.getSignedDistance() != expectedSignedDistances[i])
+                     return false;
+
+                  boolean areIntersecting = pool.arePolytopesIntersecting(new PosedConvexPolytope(geometries[geometryIndicesA[i]], transformsA[i]),
+                                                                          new PosedConvexPolytope(geometries[geometryIndicesB[i]], transformsB[i]));
+                  if (areIntersecting != expectedIntersections[i] || pool.getContext() != context)
+                     return false;
+               }
+
+               return true;
+            }
+         }));
+      }
+
+      for (Future<Boolean> future : futures)
+         assertTrue(future.get());
+
+      executor.shutdown();
+      assertTrue("numberOfContexts = " + pool.getNumberOfContexts(), pool.getNumberOfContexts() <= NUMBER_OF_THREADS);
+   }
+
+   @Test(timeout = 30000)
+   public void testEachThreadLeasesItsOwnContext() throws Exception
+   {
+      CollisionDetectorPool pool = new CollisionDetectorPool();
+      CollisionDetectorPool.Context context = pool.getContext();
+      assertTrue(context == pool.getContext());
+      assertTrue(context.getCollisionDetector() == context.getSignedDistanceCalculator().getCollisionDetector());
+
+      CollisionDetectorPool.Context[] otherContext = new CollisionDetectorPool.Context[1];
+      Thread thread = new Thread(() -> otherContext[0] = pool.getContext());
+      thread.start();
+      thread.join();
+
+      assertNotNull(otherContext[0]);
+      assertTrue(context != otherContext[0]);
+      assertEquals(2, pool.getNumberOfContexts());
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      SphereSupportingVertexHolder sphereA = new SphereSupportingVertexHolder(1.0);
+      SphereSupportingVertexHolder sphereB = new SphereSupportingVertexHolder(1.0);
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.setTranslation(3.0, 0.0, 0.0);
+      sphereB.setTransform(transform);
+
+      assertFalse(pool.arePolytopesColliding(sphereA, sphereB, pointOnA, pointOnB));
+      assertEquals(1.0, pointOnA.distance(pointOnB), 1e-12);
+      assertTrue(pool.arePolytopesWithinDistance(sphereA, sphereB, 1.0));
+      assertFalse(pool.arePolytopesWithinDistance(sphereA, sphereB, 0.9));
+   }
+}
@@ -0,0 +1,96 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+public class CompositeSupportingVertexHolderTest
+{
+   @Test(timeout = 30000)
+   public void testCompositesMatchExplicitPolytopes()
+   {
+      Random random = new Random(1776L);
+
+      for (int i = 0; i < 20; i++)
+      {
+         ConvexPolytope polytopeA = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 10, 1.0, 0.5);
+         ConvexPolytope polytopeB = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 10, 1.0, 0.5);
+         RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         polytopeB.applyTransform(transform);
+         Vector3D sweepVector = EuclidCoreRandomTools.nextVector3D(random);
+
+         ConvexPolytope minkowskiSum = new ConvexPolytope();
+         ConvexPolytope convexHull = new ConvexPolytope();
+         ConvexPolytope swept = new ConvexPolytope();
+
+         for (int a = 0; a < polytopeA.getNumberOfVertices(); a++)
+         {
+            Point3D vertexA = polytopeA.getVertex(a).getPosition();
+            convexHull.addVertex(vertexA);
+            swept.addVertex(vertexA);
+
+            Point3D sweptVertex = new Point3D(vertexA);
+            sweptVertex.add(sweepVector);
+            swept.addVertex(sweptVertex);
+
+            for (int b = 0; b < polytopeB.getNumberOfVertices(); b++)
+            {
+               Point3D sum = new Point3D(vertexA);
+               sum.add(polytopeB.getVertex(b).getPosition());
+               minkowskiSum.addVertex(sum);
+            }
+         }
+
+         for (int b = 0; b < polytopeB.getNumberOfVertices(); b++)
+         {
+            convexHull.addVertex(polytopeB.getVertex(b).getPosition());
+         }
+
+         SupportingVertexHolder[] composites = new SupportingVertexHolder[] {new MinkowskiSumSupportingVertexHolder(polytopeA, polytopeB),
+               new ConvexHullSupportingVertexHolder(polytopeA, polytopeB), new SweptSupportingVertexHolder(polytopeA, sweepVector)};
+         ConvexPolytope[] explicitPolytopes = new ConvexPolytope[] {minkowskiSum, convexHull, swept};
+
+         Point3D supportingVertex = new Point3D();
+
+         for (int j = 0; j < 100; j++)
+         {
+            Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+            for (int k = 0; k < composites.length; k++)
+            {
+               composites[k].getSupportingVertex(supportDirection, supportingVertex);
+               Point3D expectedSupportingVertex = explicitPolytopes[k].getSupportingVertex(supportDirection);
+
+               assertEquals(expectedSupportingVertex.dot(supportDirection), supportingVertex.dot(supportDirection), 1e-10);
+            }
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testSweptSphereCollidesAlongItsPath()
+   {
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      SphereSupportingVertexHolder sphere = new SphereSupportingVertexHolder(0.1);
+      SweptSupportingVertexHolder sweptSphere = new SweptSupportingVertexHolder(sphere, new Vector3D(2.0, 0.0, 0.0));
+
+      ConvexPolytope obstacle = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.05, 1.0, 1.0);
+      RigidBodyTransform obstacleTransform = new RigidBodyTransform();
+      obstacleTransform.setTranslation(1.0, 0.0, 0.0);
+      obstacle.applyTransform(obstacleTransform);
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+
+      assertFalse(detector.arePolytopesColliding(sphere, obstacle, pointOnA, pointOnB));
+      assertTrue(detector.arePolytopesColliding(sweptSphere, obstacle, pointOnA, pointOnB));
+   }
+}
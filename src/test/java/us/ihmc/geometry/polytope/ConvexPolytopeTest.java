@@ -3,11 +3,13 @@ package us.ihmc.geometry.polytope;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 import org.junit.Test;
 
 import us.ihmc.commons.MutationTestFacilitator;
 import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
 import us.ihmc.euclid.tools.EuclidCoreTestTools;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
@@ -175,6 +177,308 @@ public class ConvexPolytopeTest
       
    }
 
+   @Test(timeout = 30000)
+   public void testHillClimbingSupportingVertexMatchesLinearScan()
+   {
+      Random random = new Random(1776L);
+
+      IcoSphereCreator creator = new IcoSphereCreator();
+      ExpandingPolytopeEntryFromSimpleMeshGenerator expandingPolytopeGenerator = new ExpandingPolytopeEntryFromSimpleMeshGenerator();
+      ConvexPolytopeFromExpandingPolytopeEntryGenerator convexPolytopeGenerator = new ConvexPolytopeFromExpandingPolytopeEntryGenerator();
+
+      ConvexPolytope icoSphere = convexPolytopeGenerator.generateConvexPolytope(expandingPolytopeGenerator.generateExpandingPolytope(creator.createIcoSphere(3)));
+      ConvexPolytope box = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(1.0, 2.0, 0.5);
+      ConvexPolytope noEdges = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 100, 1.0, 5.0);
+
+      ConvexPolytope[] polytopes = new ConvexPolytope[] {icoSphere, box, noEdges};
+
+      for (ConvexPolytope polytope : polytopes)
+      {
+         ConvexPolytope hillClimbingPolytope = new ConvexPolytope(polytope);
+         for (PolytopeVertex[] edge : polytope.getEdges())
+         {
+            int indexOne = polytope.getVertices().indexOf(edge[0]);
+            int indexTwo = polytope.getVertices().indexOf(edge[1]);
+            hillClimbingPolytope.addEdge(hillClimbingPolytope.getVertex(indexOne), hillClimbingPolytope.getVertex(indexTwo));
+         }
+         hillClimbingPolytope.setUseHillClimbingForSupportingVertex(true);
+
+         for (int i = 0; i < 1000; i++)
+         {
+            Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+            Point3D expectedVertex = polytope.getSupportingVertex(supportDirection);
+            Point3D hillClimbingVertex = hillClimbingPolytope.getSupportingVertex(supportDirection);
+
+            assertEquals(expectedVertex.dot(supportDirection), hillClimbingVertex.dot(supportDirection), 1e-12);
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testSupportingVertexLookupTableStaysValidWhenVerticesChange()
+   {
+      Random random = new Random(1066L);
+
+      IcoSphereCreator creator = new IcoSphereCreator();
+      ExpandingPolytopeEntryFromSimpleMeshGenerator expandingPolytopeGenerator = new ExpandingPolytopeEntryFromSimpleMeshGenerator();
+      ConvexPolytopeFromExpandingPolytopeEntryGenerator convexPolytopeGenerator = new ConvexPolytopeFromExpandingPolytopeEntryGenerator();
+
+      ConvexPolytope icoSphere = convexPolytopeGenerator.generateConvexPolytope(expandingPolytopeGenerator.generateExpandingPolytope(creator.createIcoSphere(3)));
+      icoSphere.setUseHillClimbingForSupportingVertex(true);
+
+      ConvexPolytope tablePolytope = convexPolytopeGenerator.generateConvexPolytope(expandingPolytopeGenerator.generateExpandingPolytope(creator.createIcoSphere(3)));
+      tablePolytope.setUseHillClimbingForSupportingVertex(true);
+      tablePolytope.setSupportingVertexLookupTableResolution(4);
+      assertEquals(4, tablePolytope.getSupportingVertexLookupTableResolution());
+
+      for (int i = 0; i < 10; i++)
+      {
+         if (i % 2 == 0)
+         {
+            RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+            icoSphere.applyTransform(transform);
+            tablePolytope.applyTransform(transform);
+         }
+         else
+         {
+            // Scaling each axis keeps the polytope convex with the same edges.
+            double scaleX = 0.5 + random.nextDouble();
+            double scaleY = 0.5 + random.nextDouble();
+            double scaleZ = 0.5 + random.nextDouble();
+
+            ConvexPolytope scaledIcoSphere = new ConvexPolytope();
+            for (int j = 0; j < icoSphere.getNumberOfVertices(); j++)
+            {
+               PolytopeVertex vertex = icoSphere.getVertex(j);
+               scaledIcoSphere.addVertex(scaleX * vertex.getX(), scaleY * vertex.getY(), scaleZ * vertex.getZ());
+            }
+            icoSphere.copyVerticesFrom(scaledIcoSphere);
+            tablePolytope.copyVerticesFrom(scaledIcoSphere);
+         }
+
+         for (int j = 0; j < 1000; j++)
+         {
+            Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+            Point3D expectedVertex = icoSphere.getSupportingVertex(supportDirection);
+            Point3D tableVertex = tablePolytope.getSupportingVertex(supportDirection);
+
+            assertEquals(expectedVertex.dot(supportDirection), tableVertex.dot(supportDirection), 1e-12);
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testSupportingVertexLookupTableStaysValidWhenVerticesAreAdded()
+   {
+      Random random = new Random(1815L);
+
+      ConvexPolytope polytope = ConvexPolytopeConstructor.constructUnitCube();
+      polytope.setUseHillClimbingForSupportingVertex(true);
+      polytope.setSupportingVertexLookupTableResolution(4);
+      ConvexPolytope linearScanPolytope = ConvexPolytopeConstructor.constructUnitCube();
+
+      Vector3D up = new Vector3D(0.0, 0.0, 1.0);
+      assertEquals(1.0, polytope.getSupportingVertex(up).getZ(), 0.0);
+      assertTrue(polytope.getVertex(polytope.getSupportingVertexLookupTableStartIndex(0.0, 0.0, 1.0)).getZ() == 1.0);
+
+      // A roof on the top face, the edges of the top face stay hull edges.
+      PolytopeVertex apex = polytope.addVertex(0.5, 0.5, 1.5);
+      linearScanPolytope.addVertex(0.5, 0.5, 1.5);
+      for (int i = 4; i < 8; i++)
+      {
+         polytope.addEdge(polytope.getVertex(i), apex);
+      }
+
+      assertEquals(8, polytope.getSupportingVertexLookupTableStartIndex(0.0, 0.0, 1.0));
+      assertEquals(8, polytope.getSupportingVertexLookupTableStartIndex(0.1, -0.2, 1.0));
+
+      for (int i = 0; i < 1000; i++)
+      {
+         Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+         Point3D expectedVertex = new Point3D(linearScanPolytope.getSupportingVertex(supportDirection));
+         assertEquals(expectedVertex.dot(supportDirection), polytope.getSupportingVertex(supportDirection).dot(supportDirection), 1e-12);
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testSupportingVertexLookupTableShortensTheWalk()
+   {
+      Random random = new Random(1453L);
+
+      IcoSphereCreator creator = new IcoSphereCreator();
+      ExpandingPolytopeEntryFromSimpleMeshGenerator expandingPolytopeGenerator = new ExpandingPolytopeEntryFromSimpleMeshGenerator();
+      ConvexPolytopeFromExpandingPolytopeEntryGenerator convexPolytopeGenerator = new ConvexPolytopeFromExpandingPolytopeEntryGenerator();
+
+      ConvexPolytope icoSphere = convexPolytopeGenerator.generateConvexPolytope(expandingPolytopeGenerator.generateExpandingPolytope(creator.createIcoSphere(3)));
+      icoSphere.setUseHillClimbingForSupportingVertex(true);
+
+      icoSphere.setSupportingVertexLookupTableResolution(8);
+
+      int numberOfSteps = 0;
+      int maximumNumberOfSteps = 0;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+         // The same walk as the polytope, counting the steps.
+         PolytopeVertex vertex = icoSphere.getVertex(icoSphere.getSupportingVertexLookupTableStartIndex(supportDirection.getX(), supportDirection.getY(),
+                                                                                                         supportDirection.getZ()));
+         int steps = 0;
+         while (true)
+         {
+            PolytopeVertex bestNeighbor = null;
+            double maxDotProduct = vertex.dot(supportDirection);
+            for (int j = 0; j < vertex.getNumberOfConnectingVertices(); j++)
+            {
+               PolytopeVertex neighbor = vertex.getConnectingVertex(j);
+               if (neighbor.dot(supportDirection) > maxDotProduct)
+               {
+                  maxDotProduct = neighbor.dot(supportDirection);
+                  bestNeighbor = neighbor;
+               }
+            }
+
+            if (bestNeighbor == null)
+               break;
+            vertex = bestNeighbor;
+            steps++;
+         }
+
+         assertEquals(icoSphere.getSupportingVertex(supportDirection).dot(supportDirection), vertex.dot(supportDirection), 1e-12);
+         numberOfSteps += steps;
+         maximumNumberOfSteps = Math.max(maximumNumberOfSteps, steps);
+      }
+
+      // One or two steps, mostly none, whatever the previous query was.
+      assertTrue("maximumNumberOfSteps = " + maximumNumberOfSteps, maximumNumberOfSteps <= 2);
+      assertTrue("numberOfSteps = " + numberOfSteps, numberOfSteps < 1000);
+   }
+
+   @Test(timeout = 30000)
+   public void testBatchSupportingVerticesMatchSingleQueries()
+   {
+      Random random = new Random(1453L);
+
+      ConvexPolytope polytope = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 1000, 1.0, 5.0);
+      CylinderSupportingVertexHolder cylinder = new CylinderSupportingVertexHolder(0.3, 1.2);
+      cylinder.setTransform(EuclidCoreRandomTools.nextRigidBodyTransform(random));
+
+      int numberOfDirections = 300;
+      double[] directionXs = new double[numberOfDirections];
+      double[] directionYs = new double[numberOfDirections];
+      double[] directionZs = new double[numberOfDirections];
+
+      for (int i = 0; i < numberOfDirections; i++)
+      {
+         Vector3D direction = EuclidCoreRandomTools.nextVector3D(random);
+         directionXs[i] = direction.getX();
+         directionYs[i] = direction.getY();
+         directionZs[i] = direction.getZ();
+      }
+
+      double[] supportingVertexXs = new double[numberOfDirections];
+      double[] supportingVertexYs = new double[numberOfDirections];
+      double[] supportingVertexZs = new double[numberOfDirections];
+      Point3D supportingVertex = new Point3D();
+
+      for (SupportingVertexHolder holder : new SupportingVertexHolder[] {polytope, cylinder})
+      {
+         holder.getSupportingVertices(directionXs, directionYs, directionZs, numberOfDirections, supportingVertexXs, supportingVertexYs, supportingVertexZs);
+
+         for (int i = 0; i < numberOfDirections; i++)
+         {
+            holder.getSupportingVertex(new Vector3D(directionXs[i], directionYs[i], directionZs[i]), supportingVertex);
+            EuclidCoreTestTools.assertTuple3DEquals(supportingVertex, new Point3D(supportingVertexXs[i], supportingVertexYs[i], supportingVertexZs[i]), 1e-12);
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testVerticesAreViewsOfThePolytopeStorage()
+   {
+      Random random = new Random(1984L);
+
+      ConvexPolytope polytope = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 100, 1.0, 5.0);
+      ConvexPolytope copy = new ConvexPolytope(polytope);
+      assertEquals(100, copy.getNumberOfVertices());
+
+      RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+      copy.applyTransform(transform);
+
+      for (int i = 0; i < polytope.getNumberOfVertices(); i++)
+      {
+         Point3D expectedPosition = new Point3D(polytope.getVertex(i).getPosition());
+         transform.transform(expectedPosition);
+         EuclidCoreTestTools.assertTuple3DEquals(expectedPosition, copy.getVertex(i).getPosition(), 1e-10);
+         assertEquals(expectedPosition.getX(), copy.getVertex(i).getX(), 1e-10);
+      }
+
+      polytope.copyVerticesFrom(copy);
+
+      for (int i = 0; i < polytope.getNumberOfVertices(); i++)
+      {
+         EuclidCoreTestTools.assertTuple3DEquals(copy.getVertex(i).getPosition(), polytope.getVertex(i).getPosition(), 1e-10);
+      }
+
+      PolytopeVertex vertex = polytope.getVertex(7);
+      vertex.setPosition(new PolytopeVertex(100.0, 0.0, 0.0));
+      Point3D supportingVertex = polytope.getSupportingVertex(new Vector3D(1.0, 0.0, 0.0));
+      assertTrue(supportingVertex == vertex.getPosition());
+      EuclidCoreTestTools.assertTuple3DEquals(new Point3D(100.0, 0.0, 0.0), supportingVertex, 1e-10);
+
+      vertex.setPosition(0.0, 200.0, 0.0);
+      EuclidCoreTestTools.assertTuple3DEquals(new Point3D(0.0, 200.0, 0.0), polytope.getSupportingVertex(new Vector3D(0.0, 1.0, 0.0)), 1e-10);
+   }
+
+   @Test(timeout = 30000)
+   public void testEdgesAddedBetweenQueries()
+   {
+      ConvexPolytope polytope = ConvexPolytopeConstructor.constructUnitCube();
+      assertEquals(12, polytope.getNumberOfEdges());
+
+      // Edges already there are not added twice, and the new ones come after the existing ones.
+      polytope.addEdge(polytope.getVertex(0), polytope.getVertex(1));
+      polytope.addEdge(polytope.getVertex(1), polytope.getVertex(0));
+      assertEquals(12, polytope.getNumberOfEdges());
+
+      PolytopeVertex vertexOne = polytope.getVertex(0);
+      PolytopeVertex extraVertex = polytope.addVertex(0.5, 0.5, 2.0);
+      assertEquals(0, extraVertex.getNumberOfConnectingVertices());
+      polytope.addEdge(vertexOne, extraVertex);
+      polytope.addEdge(polytope.getVertex(6), extraVertex);
+      assertEquals(14, polytope.getNumberOfEdges());
+      assertEquals(4, vertexOne.getNumberOfConnectingVertices());
+      assertEquals(extraVertex, vertexOne.getConnectingVertex(3));
+      assertEquals(2, extraVertex.getNumberOfConnectingVertices());
+      assertEquals(polytope.getVertex(6), extraVertex.getConnectingVertex(1));
+
+      // A connection only goes one way.
+      polytope.getVertex(2).addConnectingVertex(extraVertex);
+      assertEquals(4, polytope.getVertex(2).getNumberOfConnectingVertices());
+      assertEquals(2, extraVertex.getNumberOfConnectingVertices());
+
+      // Views of the same vertex are equal, and their positions are shared by the polytope.
+      assertEquals(polytope.getVertex(8), extraVertex);
+      assertEquals(9, polytope.getVertices().size());
+      assertEquals(8, polytope.getVertices().indexOf(extraVertex));
+      Point3D position = extraVertex.getPosition();
+      assertTrue(position == polytope.getVertex(0).getPosition());
+      EuclidCoreTestTools.assertTuple3DEquals(new Point3D(0.0, 0.0, 0.0), position, 0.0);
+
+      polytope.setUseHillClimbingForSupportingVertex(true);
+      EuclidCoreTestTools.assertTuple3DEquals(new Point3D(0.5, 0.5, 2.0), polytope.getSupportingVertex(new Vector3D(0.0, 0.0, 1.0)), 0.0);
+   }
+
+   @Test(timeout = 30000, expected = RuntimeException.class)
+   public void testAddEdgeRejectsVerticesOfOtherPolytopes()
+   {
+      ConvexPolytope polytope = ConvexPolytopeConstructor.constructUnitCube();
+      polytope.addEdge(polytope.getVertex(0), new PolytopeVertex(2.0, 2.0, 2.0));
+   }
+
    public static void main(String[] args)
    {
       MutationTestFacilitator.facilitateMutationTestForPackage(ConvexPolytopeTest.class);
@@ -0,0 +1,137 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+public class DobkinKirkpatrickHierarchyTest
+{
+   @Test(timeout = 30000)
+   public void testSupportingVertexMatchesLinearScanOnLargeHulls()
+   {
+      Random random = new Random(1776L);
+
+      for (int i = 0; i < 5; i++)
+      {
+         ConvexPolytope polytope = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 2000, 1.0, 0.5);
+
+         // Interior points are not part of the hull and should never be returned.
+         Point3D centroid = new Point3D();
+         for (int j = 0; j < polytope.getNumberOfVertices(); j++)
+         {
+            centroid.add(polytope.getVertex(j).getPosition());
+         }
+         centroid.scale(1.0 / polytope.getNumberOfVertices());
+
+         for (int j = 0; j < 200; j++)
+         {
+            Point3D interiorPoint = EuclidCoreRandomTools.nextPoint3D(random, 0.3, 0.3, 0.3);
+            interiorPoint.add(centroid);
+            polytope.addVertex(interiorPoint);
+         }
+
+         DobkinKirkpatrickHierarchy hierarchy = new DobkinKirkpatrickHierarchy(polytope);
+
+         assertTrue(hierarchy.getNumberOfLevels() > 2);
+         assertEquals(2000, hierarchy.getNumberOfVertices(0));
+         assertTrue(hierarchy.getNumberOfVertices(hierarchy.getNumberOfLevels() - 1) < 20);
+         assertTrue(hierarchy.getTotalNumberOfStoredVertices() < 4 * hierarchy.getNumberOfVertices(0));
+         assertTrue(hierarchy.getBuildTimeInSeconds() > 0.0);
+
+         for (int level = 1; level < hierarchy.getNumberOfLevels(); level++)
+         {
+            assertTrue(hierarchy.getNumberOfVertices(level) < hierarchy.getNumberOfVertices(level - 1));
+         }
+
+         Point3D supportingVertex = new Point3D();
+
+         for (int j = 0; j < 1000; j++)
+         {
+            Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+            Point3D expectedSupportingVertex = polytope.getSupportingVertex(supportDirection);
+            hierarchy.getSupportingVertex(supportDirection, supportingVertex);
+
+            assertEquals(expectedSupportingVertex.dot(supportDirection), supportingVertex.dot(supportDirection), 1e-10);
+
+            int vertexIndex = hierarchy.getSupportingVertexIndex(supportDirection.getX(), supportDirection.getY(), supportDirection.getZ());
+            assertTrue(supportingVertex.epsilonEquals(polytope.getVertex(vertexIndex).getPosition(), 1e-12));
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testPointClouds()
+   {
+      Random random = new Random(1492L);
+
+      // Points on a sphere are all on the hull, points in a cube mostly inside it.
+      ConvexPolytope sphereCloud = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 20000, 1.0, 0.5);
+      ConvexPolytope cubeCloud = new ConvexPolytope();
+      for (int i = 0; i < 50000; i++)
+      {
+         cubeCloud.addVertex(EuclidCoreRandomTools.nextPoint3D(random, 1.0, 1.0, 1.0));
+      }
+
+      Point3D supportingVertex = new Point3D();
+
+      for (ConvexPolytope polytope : new ConvexPolytope[] {sphereCloud, cubeCloud})
+      {
+         DobkinKirkpatrickHierarchy hierarchy = new DobkinKirkpatrickHierarchy(polytope);
+         assertTrue(hierarchy.getNumberOfVertices(hierarchy.getNumberOfLevels() - 1) < 20);
+
+         for (int j = 0; j < 1000; j++)
+         {
+            Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+            Point3D expectedSupportingVertex = polytope.getSupportingVertex(supportDirection);
+            hierarchy.getSupportingVertex(supportDirection, supportingVertex);
+
+            assertEquals(expectedSupportingVertex.dot(supportDirection), supportingVertex.dot(supportDirection), 1e-10);
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testDegenerateAndPosedPolytopes()
+   {
+      Random random = new Random(1066L);
+
+      ConvexPolytope box = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.5, 1.0, 2.0);
+      ConvexPolytope square = ConvexPolytopeConstructor.constructFromVertices(new double[][] {{0.0, 0.0, 0.0}, {1.0, 0.0, 0.0}, {1.0, 1.0, 0.0}, {0.0, 1.0, 0.0}});
+      ConvexPolytope singlePoint = ConvexPolytopeConstructor.constructSinglePointPolytope(new Point3D(0.1, 0.2, 0.3));
+
+      Point3D supportingVertex = new Point3D();
+
+      for (ConvexPolytope polytope : new ConvexPolytope[] {box, square, singlePoint})
+      {
+         DobkinKirkpatrickHierarchy hierarchy = new DobkinKirkpatrickHierarchy(polytope);
+
+         for (int i = 0; i < 20; i++)
+         {
+            RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+            hierarchy.setTransform(transform);
+
+            ConvexPolytope transformedPolytope = new ConvexPolytope(polytope);
+            transformedPolytope.applyTransform(transform);
+
+            for (int j = 0; j < 100; j++)
+            {
+               Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+               Point3D expectedSupportingVertex = transformedPolytope.getSupportingVertex(supportDirection);
+               hierarchy.getSupportingVertex(supportDirection, supportingVertex);
+
+               assertEquals(expectedSupportingVertex.dot(supportDirection), supportingVertex.dot(supportDirection), 1e-10);
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,94 @@
+package us.ihmc.geometry.polytope;
+
+import java.util.Random;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Point3D32;
+
+/**
+ * Compares the double and float GJK on the same batch of random polytope pairs: time per query, and the largest
+ * difference of the distances.
+ */
+public class FloatGilbertJohnsonKeerthiCollisionDetectorBenchmark
+{
+   private static final int NUMBER_OF_GEOMETRIES = 100;
+   private static final int NUMBER_OF_VERTICES = 50;
+   private static final int NUMBER_OF_PAIRS = 100000;
+   private static final int NUMBER_OF_ROUNDS = 10;
+
+   public static void main(String[] args)
+   {
+      Random random = new Random(1776L);
+
+      ConvexPolytopeGeometry[] geometries = new ConvexPolytopeGeometry[NUMBER_OF_GEOMETRIES];
+      FloatConvexPolytopeGeometry[] floatGeometries = new FloatConvexPolytopeGeometry[NUMBER_OF_GEOMETRIES];
+      for (int i = 0; i < NUMBER_OF_GEOMETRIES; i++)
+      {
+         geometries[i] = new ConvexPolytopeGeometry(ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, NUMBER_OF_VERTICES, 1.0, 0.0));
+         floatGeometries[i] = new FloatConvexPolytopeGeometry(geometries[i]);
+      }
+
+      PosedConvexPolytope[] polytopesA = new PosedConvexPolytope[NUMBER_OF_PAIRS];
+      PosedConvexPolytope[] polytopesB = new PosedConvexPolytope[NUMBER_OF_PAIRS];
+      FloatPosedConvexPolytope[] floatPolytopesA = new FloatPosedConvexPolytope[NUMBER_OF_PAIRS];
+      FloatPosedConvexPolytope[] floatPolytopesB = new FloatPosedConvexPolytope[NUMBER_OF_PAIRS];
+
+      for (int i = 0; i < NUMBER_OF_PAIRS; i++)
+      {
+         int indexA = random.nextInt(NUMBER_OF_GEOMETRIES);
+         int indexB = random.nextInt(NUMBER_OF_GEOMETRIES);
+         RigidBodyTransform transformA = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformA.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 1.0));
+         RigidBodyTransform transformB = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformB.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 3.0));
+
+         polytopesA[i] = new PosedConvexPolytope(geometries[indexA], transformA);
+         polytopesB[i] = new PosedConvexPolytope(geometries[indexB], transformB);
+         floatPolytopesA[i] = new FloatPosedConvexPolytope(floatGeometries[indexA], transformA);
+         floatPolytopesB[i] = new FloatPosedConvexPolytope(floatGeometries[indexB], transformB);
+      }
+
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      FloatGilbertJohnsonKeerthiCollisionDetector floatDetector = new FloatGilbertJohnsonKeerthiCollisionDetector();
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      Point3D32 floatPointOnA = new Point3D32();
+      Point3D32 floatPointOnB = new Point3D32();
+      double[] distances = new double[NUMBER_OF_PAIRS];
+      double[] floatDistances = new double[NUMBER_OF_PAIRS];
+
+      // The first rounds are for the JIT.
+      for (int round = 0; round < NUMBER_OF_ROUNDS; round++)
+      {
+         long startTime = System.nanoTime();
+         for (int i = 0; i < NUMBER_OF_PAIRS; i++)
+         {
+            boolean areColliding = detector.arePolytopesColliding(polytopesA[i], polytopesB[i], pointOnA, pointOnB);
+            distances[i] = areColliding ? 0.0 : pointOnA.distance(pointOnB);
+         }
+         long doubleTime = System.nanoTime() - startTime;
+
+         startTime = System.nanoTime();
+         for (int i = 0; i < NUMBER_OF_PAIRS; i++)
+         {
+            boolean areColliding = floatDetector.arePolytopesColliding(floatPolytopesA[i], floatPolytopesB[i], floatPointOnA, floatPointOnB);
+            floatDistances[i] = areColliding ? 0.0 : floatPointOnA.distance(floatPointOnB);
+         }
+         long floatTime = System.nanoTime() - startTime;
+
+         double maximumError = 0.0;
+         int numberOfDisagreements = 0;
+         for (int i = 0; i < NUMBER_OF_PAIRS; i++)
+         {
+            maximumError = Math.max(maximumError, Math.abs(distances[i] - floatDistances[i]));
+            if ((distances[i] == 0.0) != (floatDistances[i] == 0.0))
+               numberOfDisagreements++;
+         }
+
+         System.out.println("Round " + round + ": double " + (doubleTime / NUMBER_OF_PAIRS) + " ns/query, float " + (floatTime / NUMBER_OF_PAIRS)
+               + " ns/query, maximum distance error " + maximumError + ", colliding disagreements " + numberOfDisagreements);
+      }
+   }
+}
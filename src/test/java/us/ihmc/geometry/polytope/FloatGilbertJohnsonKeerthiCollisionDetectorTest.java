@@ -0,0 +1,108 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.commons.RandomNumbers;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Point3D32;
+
+public class FloatGilbertJohnsonKeerthiCollisionDetectorTest
+{
+   @Test(timeout = 30000)
+   public void testMatchesDoublePrecisionWithinDocumentedAccuracy()
+   {
+      Random random = new Random(1969L);
+
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      FloatGilbertJohnsonKeerthiCollisionDetector floatDetector = new FloatGilbertJohnsonKeerthiCollisionDetector();
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      Point3D32 floatPointOnA = new Point3D32();
+      Point3D32 floatPointOnB = new Point3D32();
+
+      int numberOfSeparatedPairs = 0;
+      int numberOfCollidingPairs = 0;
+
+      for (int i = 0; i < 2000; i++)
+      {
+         ConvexPolytopeGeometry geometryA = new ConvexPolytopeGeometry(ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random,
+                                                                                                                                         RandomNumbers.nextInt(random,
+                                                                                                                                                               4, 30),
+                                                                                                                                         1.0, 0.0));
+         ConvexPolytopeGeometry geometryB = new ConvexPolytopeGeometry(ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random,
+                                                                                                                                         RandomNumbers.nextInt(random,
+                                                                                                                                                               4, 30),
+                                                                                                                                         1.0, 0.0));
+         RigidBodyTransform transformA = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformA.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 1.0));
+         RigidBodyTransform transformB = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformB.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 2.0));
+
+         PosedConvexPolytope polytopeA = new PosedConvexPolytope(geometryA, transformA);
+         PosedConvexPolytope polytopeB = new PosedConvexPolytope(geometryB, transformB);
+         FloatPosedConvexPolytope floatPolytopeA = new FloatPosedConvexPolytope(new FloatConvexPolytopeGeometry(geometryA), transformA);
+         FloatPosedConvexPolytope floatPolytopeB = new FloatPosedConvexPolytope(new FloatConvexPolytopeGeometry(geometryB), transformB);
+
+         boolean areColliding = detector.arePolytopesColliding(polytopeA, polytopeB, pointOnA, pointOnB);
+         double distance = pointOnA.distance(pointOnB);
+         boolean floatAreColliding = floatDetector.arePolytopesColliding(floatPolytopeA, floatPolytopeB, floatPointOnA, floatPointOnB);
+
+         // Right at the collision distance, either answer is within the accuracy.
+         if (!areColliding && distance < 1e-3)
+            continue;
+
+         assertEquals(areColliding, floatAreColliding);
+
+         if (areColliding)
+         {
+            numberOfCollidingPairs++;
+         }
+         else
+         {
+            numberOfSeparatedPairs++;
+            assertEquals(distance, floatPointOnA.distance(floatPointOnB), 1e-4);
+            assertTrue(floatDetector.getNumberOfIterations() < 32);
+         }
+      }
+
+      assertTrue("numberOfSeparatedPairs = " + numberOfSeparatedPairs, numberOfSeparatedPairs > 200);
+      assertTrue("numberOfCollidingPairs = " + numberOfCollidingPairs, numberOfCollidingPairs > 200);
+   }
+
+   @Test(timeout = 30000)
+   public void testSupportingVerticesMatchDoublePrecision()
+   {
+      Random random = new Random(1970L);
+
+      for (int i = 0; i < 100; i++)
+      {
+         ConvexPolytope polytope = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, RandomNumbers.nextInt(random, 4, 100), 1.0, 0.0);
+         polytope.setUseHillClimbingForSupportingVertex(random.nextBoolean());
+         ConvexPolytopeGeometry geometry = new ConvexPolytopeGeometry(polytope);
+         FloatConvexPolytopeGeometry floatGeometry = new FloatConvexPolytopeGeometry(geometry);
+         assertEquals(geometry.getNumberOfVertices(), floatGeometry.getNumberOfVertices());
+
+         int startIndex = 0;
+         for (int j = 0; j < 100; j++)
+         {
+            double x = RandomNumbers.nextDouble(random, 1.0);
+            double y = RandomNumbers.nextDouble(random, 1.0);
+            double z = RandomNumbers.nextDouble(random, 1.0);
+
+            int index = geometry.getSupportingVertexIndex(x, y, z, startIndex);
+            startIndex = floatGeometry.getSupportingVertexIndex((float) x, (float) y, (float) z, startIndex);
+
+            // Ties within the float accuracy can go either way.
+            double dotProduct = geometry.getVertexX(index) * x + geometry.getVertexY(index) * y + geometry.getVertexZ(index) * z;
+            double floatDotProduct = geometry.getVertexX(startIndex) * x + geometry.getVertexY(startIndex) * y + geometry.getVertexZ(startIndex) * z;
+            assertEquals(dotProduct, floatDotProduct, 1e-5);
+         }
+      }
+   }
+}
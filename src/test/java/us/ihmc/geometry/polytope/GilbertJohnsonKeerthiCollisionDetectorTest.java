@@ -14,6 +14,8 @@ import us.ihmc.euclid.tools.EuclidCoreTestTools;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
 
 public class GilbertJohnsonKeerthiCollisionDetectorTest
 {
@@ -47,6 +49,687 @@ public class GilbertJohnsonKeerthiCollisionDetectorTest
       EuclidCoreTestTools.assertTuple3DEquals("", new Point3D(2.0, 2.0, 0.0), supportPoint, 1e-7);
    }
 
+   @Test(timeout = 30000)
+   public void testPackedSupportingVerticesMatchReturnedOnes()
+   {
+      Random random = new Random(1492L);
+
+      CylinderSupportingVertexHolder cylinder = new CylinderSupportingVertexHolder(0.3, 1.2);
+      cylinder.setTransform(EuclidCoreRandomTools.nextRigidBodyTransform(random));
+      ConvexPolytope polytope = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 50, 1.0, 5.0);
+
+      // Only implements the returning variant, so it goes through the default bridge.
+      SupportingVertexHolder bridgedPolytope = new SupportingVertexHolder()
+      {
+         @Override
+         public Point3D getSupportingVertex(Vector3D supportDirection)
+         {
+            return polytope.getSupportingVertex(supportDirection);
+         }
+      };
+
+      SupportingVertexHolder[] holders = new SupportingVertexHolder[] {cylinder, polytope, bridgedPolytope};
+      Point3D packedSupportingVertex = new Point3D();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+         for (SupportingVertexHolder holder : holders)
+         {
+            Point3D returnedSupportingVertex = new Point3D(holder.getSupportingVertex(supportDirection));
+            holder.getSupportingVertex(supportDirection, packedSupportingVertex);
+            EuclidCoreTestTools.assertTuple3DEquals(returnedSupportingVertex, packedSupportingVertex, 1e-12);
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testSpheresAreResolvedFromTheirMargins()
+   {
+      Random random = new Random(1812L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         double radiusA = RandomNumbers.nextDouble(random, 0.1, 1.0);
+         double radiusB = RandomNumbers.nextDouble(random, 0.1, 1.0);
+         Point3D centerA = EuclidCoreRandomTools.nextPoint3D(random, 1.0, 1.0, 1.0);
+         Point3D centerB = EuclidCoreRandomTools.nextPoint3D(random, 1.0, 1.0, 1.0);
+         double centerDistance = centerA.distance(centerB);
+         if (centerDistance < 0.01)
+            continue;
+
+         SphereSupportingVertexHolder sphereA = new SphereSupportingVertexHolder(radiusA);
+         SphereSupportingVertexHolder sphereB = new SphereSupportingVertexHolder(radiusB);
+         RigidBodyTransform transform = new RigidBodyTransform();
+         transform.setTranslation(centerA);
+         sphereA.setTransform(transform);
+         transform.setTranslation(centerB);
+         sphereB.setTransform(transform);
+
+         boolean areColliding = detector.arePolytopesColliding(sphereA, sphereB, pointOnA, pointOnB);
+
+         // The cores are the centers, so they never collide and the contact never needs the expanding polytope.
+         assertFalse(detector.areCoresColliding());
+         assertEquals(centerDistance < radiusA + radiusB, areColliding);
+         assertEquals(radiusA, pointOnA.distance(centerA), 1e-7);
+         assertEquals(radiusB, pointOnB.distance(centerB), 1e-7);
+         assertEquals(Math.abs(centerDistance - radiusA - radiusB), pointOnA.distance(pointOnB), 1e-7);
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testRoundedBoxResting()
+   {
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      ExpandingPolytopeAlgorithm expandingPolytopeAlgorithm = new ExpandingPolytopeAlgorithm(1e-5);
+
+      double margin = 0.02;
+      ConvexPolytope ground = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(10.0, 10.0, 0.5);
+      RigidBodyTransform groundTransform = new RigidBodyTransform();
+      groundTransform.setTranslation(0.0, 0.0, -0.5);
+      ground.applyTransform(groundTransform);
+
+      // A 0.2 x 0.1 x 0.05 foot, with the core shrunk by the margin so that the rounded box keeps these dimensions.
+      BoxSupportingVertexHolder footCore = new BoxSupportingVertexHolder(0.1 - margin, 0.05 - margin, 0.025 - margin);
+      SphereSweptSupportingVertexHolder foot = new SphereSweptSupportingVertexHolder(footCore, margin);
+      assertEquals(margin, foot.getMargin(), 1e-12);
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      RigidBodyTransform footTransform = new RigidBodyTransform();
+
+      // Hovering above the ground.
+      footTransform.setTranslation(0.3, -0.2, 0.025 + 0.01);
+      footCore.setTransform(footTransform);
+      assertFalse(detector.arePolytopesColliding(foot, ground, pointOnA, pointOnB));
+      assertEquals(0.01, pointOnA.getZ() - pointOnB.getZ(), 1e-7);
+      assertEquals(0.0, pointOnB.getZ(), 1e-7);
+
+      // Resting contact, shallower than the margin.
+      footTransform.setTranslation(0.3, -0.2, 0.025 - 0.005);
+      footCore.setTransform(footTransform);
+      assertTrue(detector.arePolytopesColliding(foot, ground, pointOnA, pointOnB));
+      assertFalse(detector.areCoresColliding());
+      assertEquals(-0.005, pointOnA.getZ(), 1e-7);
+      assertEquals(0.0, pointOnB.getZ(), 1e-7);
+
+      // Deeper than the margin, the cores collide and the expanding polytope adds the margins to the penetration of the cores.
+      footTransform.setTranslation(0.3, -0.2, 0.025 - 0.03);
+      footCore.setTransform(footTransform);
+      assertTrue(detector.arePolytopesColliding(foot, ground, pointOnA, pointOnB));
+      assertTrue(detector.areCoresColliding());
+
+      expandingPolytopeAlgorithm.setPolytopes(detector.getSimplex(), foot, ground);
+      Vector3D separatingVector = new Vector3D();
+      expandingPolytopeAlgorithm.computeExpandedPolytope(separatingVector, pointOnA, pointOnB);
+      EuclidCoreTestTools.assertTuple3DEquals(new Vector3D(0.0, 0.0, -0.03), separatingVector, 1e-7);
+      assertEquals(-0.03, pointOnA.getZ(), 1e-7);
+      assertEquals(0.0, pointOnB.getZ(), 1e-7);
+   }
+
+   @Test(timeout = 30000)
+   public void testWarmStartCacheGivesSameResultsInFewerIterations()
+   {
+      Random random = new Random(1215L);
+
+      GilbertJohnsonKeerthiCollisionDetector coldDetector = new GilbertJohnsonKeerthiCollisionDetector();
+      GilbertJohnsonKeerthiCollisionDetector warmDetector = new GilbertJohnsonKeerthiCollisionDetector();
+      GilbertJohnsonKeerthiWarmStartCache cache = new GilbertJohnsonKeerthiWarmStartCache();
+
+      ConvexPolytope polytopeA = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 50, 1.0, 0.1);
+      ConvexPolytope polytopeB = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 50, 0.5, 0.1);
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.setTranslation(1.3, 0.0, 0.0);
+      polytopeB.applyTransform(transform);
+
+      Point3D coldPointOnA = new Point3D();
+      Point3D coldPointOnB = new Point3D();
+      Point3D warmPointOnA = new Point3D();
+      Point3D warmPointOnB = new Point3D();
+
+      int coldIterations = 0;
+      int warmIterations = 0;
+      int numberOfCollisions = 0;
+
+      // B slowly orbits around A, going in and out of collision.
+      for (int i = 0; i < 2000; i++)
+      {
+         double angle = 0.002 * i;
+         transform.setRotationYawAndZeroTranslation(0.002);
+         transform.setTranslation(0.0, 0.0, 0.0005 * Math.sin(angle));
+         polytopeB.applyTransform(transform);
+
+         boolean coldAreColliding = coldDetector.arePolytopesColliding(polytopeA, polytopeB, coldPointOnA, coldPointOnB);
+         boolean warmAreColliding = warmDetector.arePolytopesColliding(cache, polytopeA, polytopeB, warmPointOnA, warmPointOnB);
+
+         assertEquals(coldAreColliding, warmAreColliding);
+         if (coldAreColliding)
+            numberOfCollisions++;
+         else
+            assertEquals(coldPointOnA.distance(coldPointOnB), warmPointOnA.distance(warmPointOnB), 1e-5);
+
+         coldIterations += coldDetector.getNumberOfIterations();
+         warmIterations += warmDetector.getNumberOfIterations();
+      }
+
+      assertTrue(numberOfCollisions > 0 && numberOfCollisions < 2000);
+      assertEquals(1, cache.getNumberOfPairs());
+      assertTrue(cache.contains(polytopeA, polytopeB));
+      assertFalse(cache.contains(polytopeB, polytopeA));
+      assertTrue("cold = " + coldIterations + ", warm = " + warmIterations, warmIterations < coldIterations / 2);
+   }
+
+   @Test(timeout = 30000)
+   public void testWarmStartCacheReplacesTheLeastRecentlyQueriedPair()
+   {
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      GilbertJohnsonKeerthiWarmStartCache cache = new GilbertJohnsonKeerthiWarmStartCache(2);
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+
+      ConvexPolytope polytopeA = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.5, 0.5, 0.5);
+      ConvexPolytope[] obstacles = new ConvexPolytope[3];
+      for (int i = 0; i < obstacles.length; i++)
+      {
+         obstacles[i] = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.5, 0.5, 0.5);
+         RigidBodyTransform transform = new RigidBodyTransform();
+         transform.setTranslation(2.0 + i, 0.0, 0.0);
+         obstacles[i].applyTransform(transform);
+      }
+
+      assertFalse(detector.arePolytopesColliding(cache, polytopeA, obstacles[0], pointOnA, pointOnB));
+      assertFalse(detector.arePolytopesColliding(cache, polytopeA, obstacles[1], pointOnA, pointOnB));
+      assertFalse(detector.arePolytopesColliding(cache, polytopeA, obstacles[0], pointOnA, pointOnB));
+      assertEquals(2, cache.getNumberOfPairs());
+
+      // The cache is full, the pair with obstacle 1 is the least recently queried one.
+      assertFalse(detector.arePolytopesColliding(cache, polytopeA, obstacles[2], pointOnA, pointOnB));
+      assertEquals(2, cache.getNumberOfPairs());
+      assertTrue(cache.contains(polytopeA, obstacles[0]));
+      assertFalse(cache.contains(polytopeA, obstacles[1]));
+      assertTrue(cache.contains(polytopeA, obstacles[2]));
+
+      // The reused entry of the replaced pair does not carry over its simplex.
+      assertEquals(3.0, pointOnA.distance(pointOnB), 1e-7);
+
+      cache.remove(polytopeA, obstacles[0]);
+      assertEquals(1, cache.getNumberOfPairs());
+      cache.clear();
+      assertEquals(0, cache.getNumberOfPairs());
+   }
+
+   @Test(timeout = 30000)
+   public void testIndexedVerticesStopOnRepeatedVertices()
+   {
+      Random random = new Random(1811L);
+      ConvexPolytopeGeometry geometryA = new ConvexPolytopeGeometry(ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.5, 0.3, 0.2));
+      ConvexPolytopeGeometry geometryB = new ConvexPolytopeGeometry(ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.4, 0.6, 0.1));
+
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      Point3D indexedPointOnA = new Point3D();
+      Point3D indexedPointOnB = new Point3D();
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      Point3D vertex = new Point3D();
+      int indexedIterations = 0;
+      int iterations = 0;
+
+      // Boxes with parallel faces give many supporting vertices at the same distance.
+      for (int i = 0; i < 1000; i++)
+      {
+         RigidBodyTransform transform = new RigidBodyTransform();
+         transform.setRotationYawAndZeroTranslation(random.nextInt(4) * 0.5 * Math.PI);
+         transform.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 3.0));
+         PosedConvexPolytope polytopeA = new PosedConvexPolytope(geometryA);
+         PosedConvexPolytope polytopeB = new PosedConvexPolytope(geometryB, transform);
+
+         boolean indexedAreColliding = detector.arePolytopesColliding(polytopeA, polytopeB, indexedPointOnA, indexedPointOnB);
+         indexedIterations += detector.getNumberOfIterations();
+         assertTrue(detector.getNumberOfIterations() < 20);
+
+         boolean areColliding = detector.arePolytopesColliding(withoutIndices(polytopeA), withoutIndices(polytopeB), pointOnA, pointOnB);
+         iterations += detector.getNumberOfIterations();
+
+         assertEquals(areColliding, indexedAreColliding);
+         if (!areColliding)
+            assertEquals(pointOnA.distance(pointOnB), indexedPointOnA.distance(indexedPointOnB), 1e-10);
+
+         SphereSweptSupportingVertexHolder sweptPolytopeB = new SphereSweptSupportingVertexHolder(polytopeB, 0.1);
+         int vertexIndex = sweptPolytopeB.getCoreSupportingVertexIndex(EuclidCoreRandomTools.nextVector3D(random), pointOnB);
+         assertTrue(sweptPolytopeB.getCoreVertex(vertexIndex, vertex));
+         EuclidCoreTestTools.assertTuple3DEquals("", pointOnB, vertex, 1e-12);
+      }
+
+      // The termination policy stops both as soon as the distance has converged, the indices stop the cycles that do not.
+      assertTrue("indexed = " + indexedIterations + ", not indexed = " + iterations, indexedIterations <= iterations);
+   }
+
+   @Test(timeout = 30000)
+   public void testIndexedVerticesFollowTightTerminationPolicy()
+   {
+      Random random = new Random(1813L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      detector.getTerminationPolicy().setRelativeTolerance(1e-9);
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      Point3D supportingVertexOnA = new Point3D();
+      Point3D supportingVertexOnB = new Point3D();
+      Vector3D direction = new Vector3D();
+
+      for (int i = 0; i < 300; i++)
+      {
+         ConvexPolytope polytopeA = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 300, 1.0, 0.0);
+         ConvexPolytope polytopeB = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 300, 1.0, 0.0);
+         RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transform.setTranslation(EuclidCoreRandomTools.nextVector3DWithFixedLength(random, RandomNumbers.nextDouble(random, 2.0, 2.1)));
+         polytopeB.applyTransform(transform);
+
+         if (detector.arePolytopesColliding(polytopeA, polytopeB, pointOnA, pointOnB))
+            continue;
+
+         // The lower bound of the distance in the direction of the closest points meets the upper bound.
+         direction.sub(pointOnA, pointOnB);
+         double distance = direction.length();
+         direction.scale(1.0 / distance);
+         direction.negate();
+         polytopeA.getCoreSupportingVertex(direction, supportingVertexOnA);
+         direction.negate();
+         polytopeB.getCoreSupportingVertex(direction, supportingVertexOnB);
+         double lowerBound = direction.dot(supportingVertexOnA) - direction.dot(supportingVertexOnB);
+
+         assertEquals(distance, lowerBound, 1e-12 * (1.0 + distance));
+      }
+   }
+
+   private static SupportingVertexHolder withoutIndices(SupportingVertexHolder shape)
+   {
+      return new SupportingVertexHolder()
+      {
+         @Override
+         public Point3D getSupportingVertex(Vector3D supportDirection)
+         {
+            return shape.getSupportingVertex(supportDirection);
+         }
+
+         @Override
+         public void getSupportingVertex(Vector3DReadOnly supportDirection, Point3DBasics supportingVertexToPack)
+         {
+            shape.getSupportingVertex(supportDirection, supportingVertexToPack);
+         }
+      };
+   }
+
+   @Test(timeout = 30000)
+   public void testOtherDistanceSubalgorithmsMatchVoronoiRegions()
+   {
+      for (SimplexPolytope.DistanceSubalgorithm distanceSubalgorithm : new SimplexPolytope.DistanceSubalgorithm[] {
+            SimplexPolytope.DistanceSubalgorithm.SIGNED_VOLUMES, SimplexPolytope.DistanceSubalgorithm.JOHNSON})
+      {
+         Random random = new Random(1707L);
+         GilbertJohnsonKeerthiCollisionDetector voronoiDetector = new GilbertJohnsonKeerthiCollisionDetector();
+         GilbertJohnsonKeerthiCollisionDetector otherDetector = new GilbertJohnsonKeerthiCollisionDetector();
+         otherDetector.setDistanceSubalgorithm(distanceSubalgorithm);
+         assertEquals(distanceSubalgorithm, otherDetector.getSimplex().getDistanceSubalgorithm());
+
+         Point3D voronoiPointOnA = new Point3D();
+         Point3D voronoiPointOnB = new Point3D();
+         Point3D otherPointOnA = new Point3D();
+         Point3D otherPointOnB = new Point3D();
+         int numberOfCollisions = 0;
+
+         for (int i = 0; i < 2000; i++)
+         {
+            SupportingVertexHolder shapeA = createRandomShape(random);
+            SupportingVertexHolder shapeB = createRandomShape(random);
+
+            boolean voronoiAreColliding = voronoiDetector.arePolytopesColliding(shapeA, shapeB, voronoiPointOnA, voronoiPointOnB);
+            boolean otherAreColliding = otherDetector.arePolytopesColliding(shapeA, shapeB, otherPointOnA, otherPointOnB);
+            double voronoiDistance = voronoiPointOnA.distance(voronoiPointOnB);
+            double otherDistance = otherPointOnA.distance(otherPointOnB);
+
+            // Grazing contacts can go either way.
+            if ((!voronoiAreColliding && voronoiDistance < 1e-4) || (!otherAreColliding && otherDistance < 1e-4))
+               continue;
+
+            assertEquals(distanceSubalgorithm.toString(), voronoiAreColliding, otherAreColliding);
+
+            if (voronoiAreColliding)
+               numberOfCollisions++;
+            else
+               assertEquals(distanceSubalgorithm.toString(), voronoiDistance, otherDistance, 1e-5);
+         }
+
+         assertTrue(numberOfCollisions > 200);
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testNesterovAccelerationOnCloseSpheres()
+   {
+      Random random = new Random(2022L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      GilbertJohnsonKeerthiCollisionDetector acceleratedDetector = new GilbertJohnsonKeerthiCollisionDetector();
+      acceleratedDetector.setUseNesterovAcceleration(true);
+      assertTrue(acceleratedDetector.getUseNesterovAcceleration());
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      int iterations = 0;
+      int acceleratedIterations = 0;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         // Ellipsoids, since the core of a SphereSupportingVertexHolder is a point.
+         EllipsoidSupportingVertexHolder sphereA = new EllipsoidSupportingVertexHolder(1.0, 1.0, 1.0);
+         EllipsoidSupportingVertexHolder sphereB = new EllipsoidSupportingVertexHolder(0.5, 0.5, 0.5);
+         double distance = RandomNumbers.nextDouble(random, 0.001, 0.1);
+         Vector3D direction = EuclidCoreRandomTools.nextVector3DWithFixedLength(random, 1.5 + distance);
+         RigidBodyTransform transform = new RigidBodyTransform();
+         transform.setTranslation(direction);
+         sphereB.setTransform(transform);
+
+         assertFalse(detector.arePolytopesColliding(sphereA, sphereB, pointOnA, pointOnB));
+         assertEquals(distance, pointOnA.distance(pointOnB), 1e-4);
+         iterations += detector.getNumberOfIterations();
+
+         assertFalse(acceleratedDetector.arePolytopesColliding(sphereA, sphereB, pointOnA, pointOnB));
+         assertEquals(distance, pointOnA.distance(pointOnB), 1e-4);
+         acceleratedIterations += acceleratedDetector.getNumberOfIterations();
+      }
+
+      assertTrue("plain = " + iterations + ", accelerated = " + acceleratedIterations, acceleratedIterations < iterations);
+   }
+
+   @Test(timeout = 30000)
+   public void testNesterovAccelerationGivesTheSameResultsOnPolytopes()
+   {
+      Random random = new Random(1L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      GilbertJohnsonKeerthiCollisionDetector acceleratedDetector = new GilbertJohnsonKeerthiCollisionDetector();
+      acceleratedDetector.setUseNesterovAcceleration(true);
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      Point3D acceleratedPointOnA = new Point3D();
+      Point3D acceleratedPointOnB = new Point3D();
+
+      // Stopping on the supporting vertices of a momentum step used to report some colliding pairs as separated.
+      for (int i = 0; i < 20000; i++)
+      {
+         ConvexPolytope polytopeA = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 4 + random.nextInt(30), 1.0, 0.1);
+         ConvexPolytope polytopeB = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 4 + random.nextInt(30), 1.0, 0.1);
+         RigidBodyTransform transform = new RigidBodyTransform();
+         transform.setTranslation(2.0 * random.nextGaussian(), 2.0 * random.nextGaussian(), 2.0 * random.nextGaussian());
+         polytopeB.applyTransform(transform);
+
+         boolean areColliding = detector.arePolytopesColliding(polytopeA, polytopeB, pointOnA, pointOnB);
+         boolean acceleratedAreColliding = acceleratedDetector.arePolytopesColliding(polytopeA, polytopeB, acceleratedPointOnA, acceleratedPointOnB);
+
+         assertEquals(areColliding, acceleratedAreColliding);
+         if (!areColliding)
+            assertEquals(pointOnA.distance(pointOnB), acceleratedPointOnA.distance(acceleratedPointOnB), 1e-7);
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testTerminationPolicyIsScaleInvariant()
+   {
+      Random random = new Random(1066L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      detector.getTerminationPolicy().setCollisionDistance(0.0);
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         double radiusA = RandomNumbers.nextDouble(random, 0.5, 1.5);
+         double radiusB = RandomNumbers.nextDouble(random, 0.5, 1.5);
+         double distance = RandomNumbers.nextDouble(random, 0.001, 1.0);
+         Vector3D direction = EuclidCoreRandomTools.nextVector3DWithFixedLength(random, 1.0);
+
+         // Millimetre and metre scale shapes in the same configuration.
+         for (double scale : new double[] {1e-3, 1.0})
+         {
+            // Ellipsoids, since the core of a SphereSupportingVertexHolder is a point.
+            EllipsoidSupportingVertexHolder sphereA = new EllipsoidSupportingVertexHolder(scale * radiusA, scale * radiusA, scale * radiusA);
+            EllipsoidSupportingVertexHolder sphereB = new EllipsoidSupportingVertexHolder(scale * radiusB, scale * radiusB, scale * radiusB);
+            RigidBodyTransform transform = new RigidBodyTransform();
+            Vector3D translation = new Vector3D(direction);
+            translation.scale(scale * (radiusA + radiusB + distance));
+            transform.setTranslation(translation);
+            sphereB.setTransform(transform);
+
+            assertFalse(detector.arePolytopesColliding(sphereA, sphereB, pointOnA, pointOnB));
+            assertEquals(distance, pointOnA.distance(pointOnB) / scale, 1e-4);
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testLooserTerminationPolicyTakesFewerIterations()
+   {
+      Random random = new Random(1415L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      GilbertJohnsonKeerthiCollisionDetector fastDetector = new GilbertJohnsonKeerthiCollisionDetector();
+      fastDetector.setTerminationPolicy(new GilbertJohnsonKeerthiTerminationPolicy(1e-2, 1e-4, 1e-7, 50));
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      Point3D fastPointOnA = new Point3D();
+      Point3D fastPointOnB = new Point3D();
+      int iterations = 0;
+      int fastIterations = 0;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         CylinderSupportingVertexHolder shapeA = new CylinderSupportingVertexHolder(RandomNumbers.nextDouble(random, 0.1, 1.0), RandomNumbers.nextDouble(random, 0.1, 1.0));
+         shapeA.setTransform(EuclidCoreRandomTools.nextRigidBodyTransform(random));
+         EllipsoidSupportingVertexHolder shapeB = new EllipsoidSupportingVertexHolder(RandomNumbers.nextDouble(random, 0.1, 1.0), RandomNumbers.nextDouble(random, 0.1, 1.0),
+                                                                                      RandomNumbers.nextDouble(random, 0.1, 1.0));
+         shapeB.setTransform(EuclidCoreRandomTools.nextRigidBodyTransform(random));
+
+         boolean areColliding = detector.arePolytopesColliding(shapeA, shapeB, pointOnA, pointOnB);
+         boolean fastAreColliding = fastDetector.arePolytopesColliding(shapeA, shapeB, fastPointOnA, fastPointOnB);
+         iterations += detector.getNumberOfIterations();
+         fastIterations += fastDetector.getNumberOfIterations();
+         assertTrue(fastDetector.getNumberOfIterations() <= 50);
+
+         if (!areColliding && !fastAreColliding)
+         {
+            // |v| is an upper bound of the distance that is within a relative 1e-4 of the lower bound.
+            double distance = pointOnA.distance(pointOnB);
+            double fastDistance = fastPointOnA.distance(fastPointOnB);
+            assertTrue(fastDistance >= distance - 1e-7);
+            assertTrue(fastDistance <= distance * (1.0 + 1.1e-4) + 1e-7);
+         }
+      }
+
+      assertTrue("default = " + iterations + ", fast = " + fastIterations, fastIterations < iterations);
+   }
+
+   @Test(timeout = 30000, expected = RuntimeException.class)
+   public void testTerminationPolicyRejectsNonPositiveRelativeTolerance()
+   {
+      new GilbertJohnsonKeerthiTerminationPolicy().setRelativeTolerance(0.0);
+   }
+
+   @Test(timeout = 30000)
+   public void testIntersectionOnlyQueryMatchesFullQuery()
+   {
+      Random random = new Random(1848L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      int numberOfIntersections = 0;
+      int numberOfFarApartPairs = 0;
+      int iterationsForFarApartPairs = 0;
+
+      for (int i = 0; i < 2000; i++)
+      {
+         SupportingVertexHolder shapeA = createRandomShape(random);
+         SupportingVertexHolder shapeB = createRandomShape(random);
+
+         boolean areColliding = detector.arePolytopesColliding(shapeA, shapeB, pointOnA, pointOnB);
+         double distance = pointOnA.distance(pointOnB);
+
+         boolean areIntersecting = detector.arePolytopesIntersecting(shapeA, shapeB);
+
+         // Grazing contacts can go either way.
+         if (!areColliding && distance < 1e-4)
+            continue;
+
+         assertEquals(areColliding, areIntersecting);
+
+         if (areIntersecting)
+            numberOfIntersections++;
+
+         if (!areColliding && distance > 1.0)
+         {
+            numberOfFarApartPairs++;
+            iterationsForFarApartPairs += detector.getNumberOfIterations();
+         }
+      }
+
+      assertTrue(numberOfIntersections > 200);
+      assertTrue(numberOfFarApartPairs > 200);
+      assertTrue(iterationsForFarApartPairs <= 2 * numberOfFarApartPairs);
+   }
+
+   @Test(timeout = 30000)
+   public void testProximityQueryMatchesDistance()
+   {
+      Random random = new Random(1969L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      int numberOfCloserPairs = 0;
+      int numberOfFurtherPairs = 0;
+      int fullQueryIterations = 0;
+      int proximityQueryIterations = 0;
+
+      for (int i = 0; i < 2000; i++)
+      {
+         SupportingVertexHolder shapeA = createRandomShape(random);
+         SupportingVertexHolder shapeB = createRandomShape(random);
+         double threshold = RandomNumbers.nextDouble(random, 0.0, 0.5);
+
+         if (detector.arePolytopesColliding(shapeA, shapeB, pointOnA, pointOnB))
+            continue;
+
+         double distance = pointOnA.distance(pointOnB);
+         fullQueryIterations += detector.getNumberOfIterations();
+
+         boolean areWithinDistance = detector.arePolytopesWithinDistance(shapeA, shapeB, threshold);
+         proximityQueryIterations += detector.getNumberOfIterations();
+
+         if (Math.abs(distance - threshold) < 1e-4)
+            continue;
+
+         assertEquals(distance <= threshold, areWithinDistance);
+
+         if (areWithinDistance)
+            numberOfCloserPairs++;
+         else
+            numberOfFurtherPairs++;
+      }
+
+      assertTrue(numberOfCloserPairs > 100);
+      assertTrue(numberOfFurtherPairs > 100);
+      assertTrue("full = " + fullQueryIterations + ", proximity = " + proximityQueryIterations, proximityQueryIterations < fullQueryIterations);
+   }
+
+   @Test(timeout = 30000)
+   public void testProximityQueryOutOfIterationsIsConservative()
+   {
+      Random random = new Random(1970L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      GilbertJohnsonKeerthiCollisionDetector cappedDetector = new GilbertJohnsonKeerthiCollisionDetector();
+      cappedDetector.getTerminationPolicy().setMaximumNumberOfIterations(1);
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      int numberOfCloserPairs = 0;
+
+      for (int i = 0; i < 2000; i++)
+      {
+         SupportingVertexHolder shapeA = createRandomShape(random);
+         SupportingVertexHolder shapeB = createRandomShape(random);
+         double threshold = RandomNumbers.nextDouble(random, 0.0, 0.5);
+
+         if (detector.arePolytopesColliding(shapeA, shapeB, pointOnA, pointOnB))
+            continue;
+
+         // Running out of iterations must never report shapes within the threshold as further apart.
+         if (pointOnA.distance(pointOnB) <= threshold)
+         {
+            assertTrue(cappedDetector.arePolytopesWithinDistance(shapeA, shapeB, threshold));
+            numberOfCloserPairs++;
+         }
+      }
+
+      assertTrue(numberOfCloserPairs > 100);
+   }
+
+   @Test(timeout = 30000)
+   public void testProximityQueryOnMillimetreScaleShapes()
+   {
+      Random random = new Random(1971L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      detector.getTerminationPolicy().setCollisionDistance(0.0);
+      double scale = 1e-3;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         // Ellipsoids, since the core of a SphereSupportingVertexHolder is a point.
+         EllipsoidSupportingVertexHolder sphereA = new EllipsoidSupportingVertexHolder(scale, scale, scale);
+         EllipsoidSupportingVertexHolder sphereB = new EllipsoidSupportingVertexHolder(0.5 * scale, 0.5 * scale, 0.5 * scale);
+         double distance = RandomNumbers.nextDouble(random, 0.01, 1.0) * scale;
+         RigidBodyTransform transform = new RigidBodyTransform();
+         transform.setTranslation(EuclidCoreRandomTools.nextVector3DWithFixedLength(random, 1.5 * scale + distance));
+         sphereB.setTransform(transform);
+
+         assertFalse(detector.arePolytopesIntersecting(sphereA, sphereB));
+         assertTrue(detector.arePolytopesWithinDistance(sphereA, sphereB, 1.01 * distance));
+         assertFalse(detector.arePolytopesWithinDistance(sphereA, sphereB, 0.99 * distance));
+      }
+   }
+
+   private static SupportingVertexHolder createRandomShape(Random random)
+   {
+      RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+      transform.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 1.0));
+
+      switch (random.nextInt(4))
+      {
+      case 0:
+         ConvexPolytope polytope = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 20, RandomNumbers.nextDouble(random, 0.2, 1.0), 0.0);
+         polytope.applyTransform(transform);
+         return polytope;
+      case 1:
+         SphereSupportingVertexHolder sphere = new SphereSupportingVertexHolder(RandomNumbers.nextDouble(random, 0.1, 1.0));
+         sphere.setTransform(transform);
+         return sphere;
+      case 2:
+         CapsuleSupportingVertexHolder capsule = new CapsuleSupportingVertexHolder(RandomNumbers.nextDouble(random, 0.1, 0.5), RandomNumbers.nextDouble(random, 0.1, 1.0));
+         capsule.setTransform(transform);
+         return capsule;
+      default:
+         BoxSupportingVertexHolder box = new BoxSupportingVertexHolder(RandomNumbers.nextDouble(random, 0.1, 0.5), RandomNumbers.nextDouble(random, 0.1, 0.5),
+                                                                       RandomNumbers.nextDouble(random, 0.1, 0.5));
+         box.setTransform(transform);
+         return new SphereSweptSupportingVertexHolder(box, RandomNumbers.nextDouble(random, 0.0, 0.1));
+      }
+   }
+
    @Test(timeout = 30000)
    public void testIsIntersecting()
    {
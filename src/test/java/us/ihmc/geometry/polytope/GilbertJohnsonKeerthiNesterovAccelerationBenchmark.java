@@ -0,0 +1,135 @@
+package us.ihmc.geometry.polytope;
+
+import java.util.Random;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+
+/**
+ * Compares GJK with and without Nesterov acceleration on cylinder to polytope and sphere to sphere pairs: time and
+ * iterations per query, and the largest difference of the distances. Each case is run on random pairs, and on the pairs
+ * that are less than {@link #CLOSE_DISTANCE} apart. The spheres are ellipsoids with equal radii, since
+ * {@link SphereSupportingVertexHolder} has a point as core and takes a single iteration.
+ */
+public class GilbertJohnsonKeerthiNesterovAccelerationBenchmark
+{
+   private static final int NUMBER_OF_PAIRS = 20000;
+   private static final int NUMBER_OF_CLOSE_PAIRS = 2000;
+   private static final double CLOSE_DISTANCE = 0.1;
+   private static final int NUMBER_OF_ROUNDS = 10;
+
+   public static void main(String[] args)
+   {
+      Random random = new Random(2022L);
+
+      ConvexPolytopeGeometry[] geometries = new ConvexPolytopeGeometry[100];
+      for (int i = 0; i < geometries.length; i++)
+         geometries[i] = new ConvexPolytopeGeometry(ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 50, 1.0, 0.0));
+
+      SupportingVertexHolder[][] cylinderToPolytopePairs = new SupportingVertexHolder[2][NUMBER_OF_PAIRS];
+      SupportingVertexHolder[][] closeCylinderToPolytopePairs = new SupportingVertexHolder[2][NUMBER_OF_CLOSE_PAIRS];
+      SupportingVertexHolder[][] sphereToSpherePairs = new SupportingVertexHolder[2][NUMBER_OF_PAIRS];
+      SupportingVertexHolder[][] closeSphereToSpherePairs = new SupportingVertexHolder[2][NUMBER_OF_CLOSE_PAIRS];
+
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      int numberOfPairs = 0;
+      int numberOfCloseCylinderToPolytopePairs = 0;
+      int numberOfCloseSphereToSpherePairs = 0;
+
+      while (numberOfPairs < NUMBER_OF_PAIRS || numberOfCloseCylinderToPolytopePairs < NUMBER_OF_CLOSE_PAIRS
+            || numberOfCloseSphereToSpherePairs < NUMBER_OF_CLOSE_PAIRS)
+      {
+         CylinderSupportingVertexHolder cylinder = new CylinderSupportingVertexHolder(0.5, 1.5);
+         cylinder.setTransform(nextTransform(random, 1.0));
+         PosedConvexPolytope polytope = new PosedConvexPolytope(geometries[random.nextInt(geometries.length)], nextTransform(random, 3.0));
+
+         EllipsoidSupportingVertexHolder sphereA = new EllipsoidSupportingVertexHolder(1.0, 1.0, 1.0);
+         sphereA.setTransform(nextTransform(random, 1.0));
+         EllipsoidSupportingVertexHolder sphereB = new EllipsoidSupportingVertexHolder(0.5, 0.5, 0.5);
+         sphereB.setTransform(nextTransform(random, 3.0));
+
+         if (numberOfPairs < NUMBER_OF_PAIRS)
+         {
+            cylinderToPolytopePairs[0][numberOfPairs] = cylinder;
+            cylinderToPolytopePairs[1][numberOfPairs] = polytope;
+            sphereToSpherePairs[0][numberOfPairs] = sphereA;
+            sphereToSpherePairs[1][numberOfPairs] = sphereB;
+            numberOfPairs++;
+         }
+
+         boolean areColliding = detector.arePolytopesColliding(cylinder, polytope, pointOnA, pointOnB);
+         if (!areColliding && pointOnA.distance(pointOnB) < CLOSE_DISTANCE && numberOfCloseCylinderToPolytopePairs < NUMBER_OF_CLOSE_PAIRS)
+         {
+            closeCylinderToPolytopePairs[0][numberOfCloseCylinderToPolytopePairs] = cylinder;
+            closeCylinderToPolytopePairs[1][numberOfCloseCylinderToPolytopePairs] = polytope;
+            numberOfCloseCylinderToPolytopePairs++;
+         }
+
+         areColliding = detector.arePolytopesColliding(sphereA, sphereB, pointOnA, pointOnB);
+         if (!areColliding && pointOnA.distance(pointOnB) < CLOSE_DISTANCE && numberOfCloseSphereToSpherePairs < NUMBER_OF_CLOSE_PAIRS)
+         {
+            closeSphereToSpherePairs[0][numberOfCloseSphereToSpherePairs] = sphereA;
+            closeSphereToSpherePairs[1][numberOfCloseSphereToSpherePairs] = sphereB;
+            numberOfCloseSphereToSpherePairs++;
+         }
+      }
+
+      // The first rounds are for the JIT.
+      for (int round = 0; round < NUMBER_OF_ROUNDS; round++)
+      {
+         System.out.println("Round " + round + ":");
+         compare("cylinder to polytope", cylinderToPolytopePairs);
+         compare("close cylinder to polytope", closeCylinderToPolytopePairs);
+         compare("sphere to sphere", sphereToSpherePairs);
+         compare("close sphere to sphere", closeSphereToSpherePairs);
+      }
+   }
+
+   private static void compare(String name, SupportingVertexHolder[][] pairs)
+   {
+      int numberOfPairs = pairs[0].length;
+      GilbertJohnsonKeerthiCollisionDetector[] detectors = {new GilbertJohnsonKeerthiCollisionDetector(), new GilbertJohnsonKeerthiCollisionDetector()};
+      detectors[1].setUseNesterovAcceleration(true);
+
+      double[][] distances = new double[2][numberOfPairs];
+      long[] iterations = new long[2];
+      int[] maximumIterations = new int[2];
+      long[] times = new long[2];
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+
+      for (int detectorIndex = 0; detectorIndex < 2; detectorIndex++)
+      {
+         GilbertJohnsonKeerthiCollisionDetector detector = detectors[detectorIndex];
+
+         long startTime = System.nanoTime();
+         for (int i = 0; i < numberOfPairs; i++)
+         {
+            boolean areColliding = detector.arePolytopesColliding(pairs[0][i], pairs[1][i], pointOnA, pointOnB);
+            distances[detectorIndex][i] = areColliding ? 0.0 : pointOnA.distance(pointOnB);
+            iterations[detectorIndex] += detector.getNumberOfIterations();
+            maximumIterations[detectorIndex] = Math.max(maximumIterations[detectorIndex], detector.getNumberOfIterations());
+         }
+         times[detectorIndex] = System.nanoTime() - startTime;
+      }
+
+      double maximumDifference = 0.0;
+      for (int i = 0; i < numberOfPairs; i++)
+         maximumDifference = Math.max(maximumDifference, Math.abs(distances[0][i] - distances[1][i]));
+
+      System.out.println("   " + name + ": plain " + (times[0] / numberOfPairs) + " ns/query, " + ((double) iterations[0] / numberOfPairs)
+            + " iterations (maximum " + maximumIterations[0] + "), accelerated " + (times[1] / numberOfPairs) + " ns/query, "
+            + ((double) iterations[1] / numberOfPairs) + " iterations (maximum " + maximumIterations[1] + "), maximum distance difference "
+            + maximumDifference);
+   }
+
+   private static RigidBodyTransform nextTransform(Random random, double maximumTranslation)
+   {
+      RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+      transform.setTranslation(EuclidCoreRandomTools.nextVector3D(random, maximumTranslation));
+      return transform;
+   }
+}
@@ -0,0 +1,187 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.commons.RandomNumbers;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tools.EuclidCoreTestTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+public class GilbertJohnsonKeerthiRayCasterTest
+{
+   @Test(timeout = 30000)
+   public void testRaysAgainstSpheres()
+   {
+      Random random = new Random(1492L);
+      GilbertJohnsonKeerthiRayCaster rayCaster = new GilbertJohnsonKeerthiRayCaster();
+
+      int numberOfHits = 0;
+      int numberOfMisses = 0;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         double radius = RandomNumbers.nextDouble(random, 0.1, 1.0);
+         Point3D center = EuclidCoreRandomTools.nextPoint3D(random, 1.0);
+         SphereSupportingVertexHolder sphere = new SphereSupportingVertexHolder(radius);
+         RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transform.setTranslation(center);
+         sphere.setTransform(transform);
+
+         Point3D rayStart = EuclidCoreRandomTools.nextPoint3D(random, 3.0);
+         Vector3D rayVector = nextRayVectorTowards(random, rayStart, transform);
+
+         // Smallest root of |rayStart + t rayVector - center| = radius.
+         Vector3D startToCenter = new Vector3D();
+         startToCenter.sub(rayStart, center);
+         double a = rayVector.dot(rayVector);
+         double b = rayVector.dot(startToCenter);
+         double c = startToCenter.dot(startToCenter) - radius * radius;
+         double discriminant = b * b - a * c;
+         double expectedFraction = c <= 0.0 ? 0.0 : (-b - Math.sqrt(discriminant)) / a;
+         boolean expectedHit = c <= 0.0 || (discriminant >= 0.0 && expectedFraction >= 0.0 && expectedFraction <= 1.0);
+
+         // Grazing rays are left out, the answer depends on the tolerance there.
+         if (discriminant > -1e-6 && discriminant < 1e-6)
+            continue;
+
+         boolean hit = rayCaster.castRay(sphere, rayStart, rayVector);
+         assertEquals(expectedHit, hit);
+
+         if (hit)
+         {
+            numberOfHits++;
+            assertEquals(expectedFraction, rayCaster.getHitFraction(), 1e-5);
+
+            if (c > 0.0)
+            {
+               Vector3D expectedNormal = new Vector3D();
+               expectedNormal.sub(rayCaster.getHitPoint(), center);
+               expectedNormal.normalize();
+               EuclidCoreTestTools.assertTuple3DEquals(expectedNormal, rayCaster.getHitNormal(), 1e-3);
+               assertEquals(radius, rayCaster.getHitPoint().distance(center), 1e-5);
+            }
+            else
+            {
+               EuclidCoreTestTools.assertTuple3DEquals(new Vector3D(), rayCaster.getHitNormal(), 0.0);
+            }
+         }
+         else
+         {
+            numberOfMisses++;
+         }
+      }
+
+      assertTrue("numberOfHits = " + numberOfHits, numberOfHits > 100);
+      assertTrue("numberOfMisses = " + numberOfMisses, numberOfMisses > 100);
+   }
+
+   /**
+    * Ray towards a random point around the origin of the shape, which is too short to get there once in a while.
+    */
+   private static Vector3D nextRayVectorTowards(Random random, Point3D rayStart, RigidBodyTransform shapeTransform)
+   {
+      Point3D target = EuclidCoreRandomTools.nextPoint3D(random, 1.0);
+      shapeTransform.transform(target);
+
+      Vector3D rayVector = new Vector3D();
+      rayVector.sub(target, rayStart);
+      rayVector.scale(RandomNumbers.nextDouble(random, 0.3, 1.5));
+      return rayVector;
+   }
+
+   @Test(timeout = 30000)
+   public void testRaysAgainstBoxes()
+   {
+      Random random = new Random(1066L);
+      GilbertJohnsonKeerthiRayCaster rayCaster = new GilbertJohnsonKeerthiRayCaster();
+
+      int numberOfHits = 0;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         double[] halfSizes = {RandomNumbers.nextDouble(random, 0.1, 1.0), RandomNumbers.nextDouble(random, 0.1, 1.0), RandomNumbers.nextDouble(random, 0.1, 1.0)};
+         BoxSupportingVertexHolder box = new BoxSupportingVertexHolder(halfSizes[0], halfSizes[1], halfSizes[2]);
+         RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transform.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 1.0));
+         box.setTransform(transform);
+
+         Point3D rayStart = EuclidCoreRandomTools.nextPoint3D(random, 3.0);
+         Vector3D rayVector = nextRayVectorTowards(random, rayStart, transform);
+
+         // Slab test in the frame of the box.
+         RigidBodyTransform inverseTransform = new RigidBodyTransform(transform);
+         inverseTransform.invert();
+         Point3D localStart = new Point3D(rayStart);
+         inverseTransform.transform(localStart);
+         Vector3D localVector = new Vector3D(rayVector);
+         inverseTransform.transform(localVector);
+
+         double entryFraction = 0.0;
+         double exitFraction = 1.0;
+         int entryAxis = -1;
+         double entrySign = 0.0;
+
+         for (int axis = 0; axis < 3; axis++)
+         {
+            double start = localStart.getElement(axis);
+            double direction = localVector.getElement(axis);
+            double lowFraction = (-halfSizes[axis] - start) / direction;
+            double highFraction = (halfSizes[axis] - start) / direction;
+            double near = Math.min(lowFraction, highFraction);
+            double far = Math.max(lowFraction, highFraction);
+
+            if (near > entryFraction)
+            {
+               entryFraction = near;
+               entryAxis = axis;
+               entrySign = direction > 0.0 ? -1.0 : 1.0;
+            }
+            exitFraction = Math.min(exitFraction, far);
+         }
+
+         boolean expectedHit = entryFraction <= exitFraction;
+         if (Math.abs(entryFraction - exitFraction) < 1e-6)
+            continue;
+
+         boolean hit = rayCaster.castRay(box, rayStart, rayVector);
+         assertEquals(expectedHit, hit);
+
+         if (hit && entryAxis >= 0)
+         {
+            numberOfHits++;
+            assertEquals(entryFraction, rayCaster.getHitFraction(), 1e-6);
+
+            Vector3D expectedNormal = new Vector3D();
+            expectedNormal.setElement(entryAxis, entrySign);
+            transform.transform(expectedNormal);
+            EuclidCoreTestTools.assertTuple3DEquals(expectedNormal, rayCaster.getHitNormal(), 1e-6);
+         }
+      }
+
+      assertTrue("numberOfHits = " + numberOfHits, numberOfHits > 100);
+   }
+
+   @Test(timeout = 30000)
+   public void testRayOutOfIterationsIsNotReportedAsHit()
+   {
+      SphereSupportingVertexHolder sphere = new SphereSupportingVertexHolder(1.0);
+      Point3D rayStart = new Point3D(-3.0, 0.5, 0.0);
+      Vector3D rayVector = new Vector3D(6.0, 0.0, 0.0);
+
+      // The ray hits the sphere, but the point of the ray does not get there in a single iteration.
+      GilbertJohnsonKeerthiRayCaster rayCaster = new GilbertJohnsonKeerthiRayCaster(1);
+      assertFalse(rayCaster.castRay(sphere, rayStart, rayVector));
+      assertTrue(rayCaster.isMaximumNumberOfIterationsReached());
+
+      rayCaster = new GilbertJohnsonKeerthiRayCaster();
+      assertTrue(rayCaster.castRay(sphere, rayStart, rayVector));
+      assertFalse(rayCaster.isMaximumNumberOfIterationsReached());
+      assertEquals((3.0 - Math.sqrt(0.75)) / 6.0, rayCaster.getHitFraction(), 1e-5);
+   }
+}
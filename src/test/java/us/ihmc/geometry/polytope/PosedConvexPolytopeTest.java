@@ -0,0 +1,108 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tools.EuclidCoreTestTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+public class PosedConvexPolytopeTest
+{
+   @Test(timeout = 30000)
+   public void testSupportingVertexMatchesTransformedPolytope()
+   {
+      Random random = new Random(1776L);
+
+      IcoSphereCreator creator = new IcoSphereCreator();
+      ExpandingPolytopeEntryFromSimpleMeshGenerator expandingPolytopeGenerator = new ExpandingPolytopeEntryFromSimpleMeshGenerator();
+      ConvexPolytopeFromExpandingPolytopeEntryGenerator convexPolytopeGenerator = new ConvexPolytopeFromExpandingPolytopeEntryGenerator();
+      ConvexPolytope icoSphere = convexPolytopeGenerator.generateConvexPolytope(expandingPolytopeGenerator.generateExpandingPolytope(creator.createIcoSphere(2)));
+      icoSphere.setUseHillClimbingForSupportingVertex(true);
+
+      ConvexPolytope[] polytopes = new ConvexPolytope[] {icoSphere, ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.5, 1.0, 2.0),
+            ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 30, 1.0, 2.0)};
+
+      for (ConvexPolytope polytope : polytopes)
+      {
+         ConvexPolytopeGeometry geometry = new ConvexPolytopeGeometry(polytope);
+         PosedConvexPolytope instanceOne = new PosedConvexPolytope(geometry);
+         PosedConvexPolytope instanceTwo = new PosedConvexPolytope(geometry);
+         assertTrue(instanceOne.getGeometry() == instanceTwo.getGeometry());
+
+         Point3D supportingVertex = new Point3D();
+
+         for (int i = 0; i < 20; i++)
+         {
+            RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+            instanceOne.setTransform(transform);
+
+            ConvexPolytope transformedPolytope = new ConvexPolytope(polytope);
+            transformedPolytope.applyTransform(transform);
+
+            for (int j = 0; j < 100; j++)
+            {
+               Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+               Point3D expectedSupportingVertex = transformedPolytope.getSupportingVertex(supportDirection);
+               instanceOne.getSupportingVertex(supportDirection, supportingVertex);
+
+               assertEquals(expectedSupportingVertex.dot(supportDirection), supportingVertex.dot(supportDirection), 1e-10);
+            }
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testCollisionBetweenInstancesOfTheSameGeometry()
+   {
+      Random random = new Random(1066L);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      ConvexPolytope box = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.5, 0.25, 0.1);
+      ConvexPolytopeGeometry geometry = new ConvexPolytopeGeometry(box);
+      PosedConvexPolytope instanceOne = new PosedConvexPolytope(geometry);
+      PosedConvexPolytope instanceTwo = new PosedConvexPolytope(geometry);
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      Point3D expectedPointOnA = new Point3D();
+      Point3D expectedPointOnB = new Point3D();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         RigidBodyTransform transformOne = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         RigidBodyTransform transformTwo = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         instanceOne.setTransform(transformOne);
+         instanceTwo.setTransform(transformTwo);
+
+         ConvexPolytope boxOne = new ConvexPolytope(box);
+         boxOne.applyTransform(transformOne);
+         ConvexPolytope boxTwo = new ConvexPolytope(box);
+         boxTwo.applyTransform(transformTwo);
+
+         boolean expectedColliding = detector.arePolytopesColliding(boxOne, boxTwo, expectedPointOnA, expectedPointOnB);
+         boolean colliding = detector.arePolytopesColliding(instanceOne, instanceTwo, pointOnA, pointOnB);
+
+         assertEquals(expectedColliding, colliding);
+         if (!colliding)
+            assertEquals(expectedPointOnA.distance(expectedPointOnB), pointOnA.distance(pointOnB), 1e-7);
+      }
+
+      // The shared geometry is untouched by posing the instances.
+      ConvexPolytopeGeometry untouchedGeometry = new ConvexPolytopeGeometry(box);
+      for (int i = 0; i < geometry.getNumberOfVertices(); i++)
+      {
+         Point3D vertex = new Point3D();
+         Point3D untouchedVertex = new Point3D();
+         geometry.getVertex(i, vertex);
+         untouchedGeometry.getVertex(i, untouchedVertex);
+         EuclidCoreTestTools.assertTuple3DEquals(untouchedVertex, vertex, 0.0);
+      }
+   }
+}
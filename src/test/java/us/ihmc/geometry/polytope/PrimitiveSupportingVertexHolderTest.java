@@ -0,0 +1,145 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+public class PrimitiveSupportingVertexHolderTest
+{
+   @Test(timeout = 30000)
+   public void testBoxMatchesBoxPolytope()
+   {
+      Random random = new Random(1984L);
+
+      BoxSupportingVertexHolder box = new BoxSupportingVertexHolder(0.5, 1.0, 2.0);
+      ConvexPolytope boxPolytope = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.5, 1.0, 2.0);
+
+      Point3D supportingVertex = new Point3D();
+
+      for (int i = 0; i < 20; i++)
+      {
+         RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         box.setTransform(transform);
+
+         ConvexPolytope transformedPolytope = new ConvexPolytope(boxPolytope);
+         transformedPolytope.applyTransform(transform);
+
+         for (int j = 0; j < 100; j++)
+         {
+            Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+            box.getSupportingVertex(supportDirection, supportingVertex);
+
+            Point3D expectedSupportingVertex = transformedPolytope.getSupportingVertex(supportDirection);
+            assertEquals(expectedSupportingVertex.dot(supportDirection), supportingVertex.dot(supportDirection), 1e-10);
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testSupportingVertexDominatesSampledSurfacePoints()
+   {
+      Random random = new Random(1776L);
+
+      PosedSupportingVertexHolder[] shapes = new PosedSupportingVertexHolder[] {new SphereSupportingVertexHolder(0.7), new CapsuleSupportingVertexHolder(0.3, 1.2),
+            new BoxSupportingVertexHolder(0.2, 0.4, 0.6), new ConeSupportingVertexHolder(0.5, 1.5), new CylinderSupportingVertexHolder(0.4, 0.8),
+            new EllipsoidSupportingVertexHolder(0.3, 0.6, 1.1),
+            new LineSegmentSupportingVertexHolder(new Point3D(-0.1, 0.2, 0.3), new Point3D(0.5, -0.4, 0.1)),
+            new PointSupportingVertexHolder(new Point3D(0.1, 0.2, 0.3))};
+
+      Point3D supportingVertex = new Point3D();
+      Point3D sampledVertex = new Point3D();
+
+      for (PosedSupportingVertexHolder shape : shapes)
+      {
+         RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         shape.setTransform(transform);
+
+         for (int i = 0; i < 200; i++)
+         {
+            Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+            shape.getSupportingVertex(supportDirection, supportingVertex);
+
+            Point3D supportingVertexFromOldApi = shape.getSupportingVertex(supportDirection);
+            assertTrue(supportingVertex.epsilonEquals(supportingVertexFromOldApi, 1e-12));
+
+            double supportValue = supportingVertex.dot(supportDirection);
+
+            // Supporting vertices in other directions are on the surface, so none of them should go further along this direction.
+            for (int j = 0; j < 50; j++)
+            {
+               shape.getSupportingVertex(EuclidCoreRandomTools.nextVector3D(random), sampledVertex);
+               assertTrue(shape + ": " + sampledVertex.dot(supportDirection) + " > " + supportValue, sampledVertex.dot(supportDirection) <= supportValue + 1e-10);
+            }
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testSupportingVerticesAreOnTheSurface()
+   {
+      Random random = new Random(1066L);
+
+      SphereSupportingVertexHolder sphere = new SphereSupportingVertexHolder(0.7);
+      CapsuleSupportingVertexHolder capsule = new CapsuleSupportingVertexHolder(0.3, 1.2);
+      EllipsoidSupportingVertexHolder ellipsoid = new EllipsoidSupportingVertexHolder(0.3, 0.6, 1.1);
+      ConeSupportingVertexHolder cone = new ConeSupportingVertexHolder(0.5, 1.5);
+
+      Point3D point = new Point3D();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+
+         sphere.getSupportingVertex(supportDirection, point);
+         assertEquals(0.7, point.distanceFromOrigin(), 1e-10);
+
+         capsule.getSupportingVertex(supportDirection, point);
+         double axisZ = Math.max(-0.6, Math.min(0.6, point.getZ()));
+         assertEquals(0.3, point.distance(new Point3D(0.0, 0.0, axisZ)), 1e-10);
+
+         ellipsoid.getSupportingVertex(supportDirection, point);
+         double x = point.getX() / 0.3, y = point.getY() / 0.6, z = point.getZ() / 1.1;
+         assertEquals(1.0, x * x + y * y + z * z, 1e-10);
+
+         cone.getSupportingVertex(supportDirection, point);
+         boolean isApex = point.epsilonEquals(new Point3D(0.0, 0.0, 0.75), 1e-12);
+         boolean isOnRim = Math.abs(point.getZ() + 0.75) < 1e-12 && Math.abs(Math.hypot(point.getX(), point.getY()) - 0.5) < 1e-10;
+         assertTrue(isApex || isOnRim);
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testShortDirectionsGiveTheSameSupportingVertex()
+   {
+      Random random = new Random(1492L);
+
+      SupportingVertexHolder[] shapes = new SupportingVertexHolder[] {new SphereSupportingVertexHolder(0.7), new CapsuleSupportingVertexHolder(0.3, 1.2),
+            new ConeSupportingVertexHolder(0.5, 1.5), new CylinderSupportingVertexHolder(0.4, 0.8), new EllipsoidSupportingVertexHolder(0.3, 0.6, 1.1),
+            new SphereSweptSupportingVertexHolder(new BoxSupportingVertexHolder(0.2, 0.4, 0.6), 0.1)};
+
+      Point3D supportingVertex = new Point3D();
+      Point3D shortDirectionSupportingVertex = new Point3D();
+
+      for (SupportingVertexHolder shape : shapes)
+      {
+         for (int i = 0; i < 100; i++)
+         {
+            Vector3D supportDirection = EuclidCoreRandomTools.nextVector3D(random);
+            supportDirection.normalize();
+            shape.getSupportingVertex(supportDirection, supportingVertex);
+
+            // Only a zero direction has no supporting vertex, a short one is as good as any.
+            supportDirection.scale(1e-9);
+            shape.getSupportingVertex(supportDirection, shortDirectionSupportingVertex);
+            assertTrue(shape + ": " + supportingVertex + " != " + shortDirectionSupportingVertex, supportingVertex.epsilonEquals(shortDirectionSupportingVertex, 1e-12));
+         }
+      }
+   }
+}
@@ -0,0 +1,210 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.commons.RandomNumbers;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tools.EuclidCoreTestTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+public class SignedDistanceCalculatorTest
+{
+   @Test(timeout = 30000)
+   public void testMatchesCollisionDetectorFollowedByExpandingPolytopeAlgorithm()
+   {
+      Random random = new Random(1886L);
+
+      SignedDistanceCalculator calculator = new SignedDistanceCalculator(1e-5);
+      SignedDistanceResult result = new SignedDistanceResult();
+
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+      ExpandingPolytopeAlgorithm expandingPolytopeAlgorithm = new ExpandingPolytopeAlgorithm(1e-5);
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      Vector3D separatingVector = new Vector3D();
+
+      int numberOfSeparatedPairs = 0;
+      int numberOfPenetratingPairs = 0;
+
+      for (int i = 0; i < 2000; i++)
+      {
+         ConvexPolytope polytopeA = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, RandomNumbers.nextInt(random, 4, 20),
+                                                                                                    RandomNumbers.nextDouble(random, 0.5, 2.0), 0.0);
+         ConvexPolytope polytopeB = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, RandomNumbers.nextInt(random, 4, 20),
+                                                                                                    RandomNumbers.nextDouble(random, 0.5, 2.0), 0.0);
+         RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transform.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 2.0));
+         polytopeB.applyTransform(transform);
+
+         calculator.computeSignedDistance(polytopeA, polytopeB, result);
+         boolean areColliding = detector.arePolytopesColliding(polytopeA, polytopeB, pointOnA, pointOnB);
+         assertEquals(areColliding, result.areColliding());
+         assertEquals(detector.getNumberOfIterations(), result.getNumberOfGJKIterations());
+
+         if (!areColliding)
+         {
+            numberOfSeparatedPairs++;
+            assertEquals(pointOnA.distance(pointOnB), result.getSignedDistance(), 1e-12);
+            EuclidCoreTestTools.assertTuple3DEquals(pointOnA, result.getPointOnA(), 1e-12);
+            EuclidCoreTestTools.assertTuple3DEquals(pointOnB, result.getPointOnB(), 1e-12);
+            assertEquals(0, result.getNumberOfEPAIterations());
+         }
+         else if (detector.getSimplex().getNumberOfPoints() == 4)
+         {
+            numberOfPenetratingPairs++;
+            expandingPolytopeAlgorithm.setPolytopes(detector.getSimplex(), polytopeA, polytopeB);
+            expandingPolytopeAlgorithm.computeExpandedPolytope(separatingVector, pointOnA, pointOnB);
+
+            assertEquals(-separatingVector.length(), result.getSignedDistance(), 1e-12);
+            EuclidCoreTestTools.assertTuple3DEquals(pointOnA, result.getPointOnA(), 1e-12);
+            EuclidCoreTestTools.assertTuple3DEquals(pointOnB, result.getPointOnB(), 1e-12);
+            assertEquals(expandingPolytopeAlgorithm.getNumberOfIterations(), result.getNumberOfEPAIterations());
+         }
+
+         assertEquals(Math.abs(result.getSignedDistance()), result.getPointOnA().distance(result.getPointOnB()), 1e-7);
+         if (result.getTerminationReason() != SignedDistanceResult.TerminationReason.TOUCHING_CORES)
+         {
+            assertEquals(1.0, result.getNormal().length(), 1e-12);
+            separatingVector.sub(result.getPointOnB(), result.getPointOnA());
+            assertEquals(result.getSignedDistance(), separatingVector.dot(result.getNormal()), 1e-7);
+         }
+      }
+
+      assertTrue(numberOfSeparatedPairs > 200);
+      assertTrue(numberOfPenetratingPairs > 200);
+   }
+
+   @Test(timeout = 30000)
+   public void testCompletesTheSimplexOfConcentricBoxes()
+   {
+      Random random = new Random(1776L);
+
+      SignedDistanceCalculator calculator = new SignedDistanceCalculator();
+      SignedDistanceResult result = new SignedDistanceResult();
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      int numberOfCompletedSimplices = 0;
+
+      for (int i = 0; i < 500; i++)
+      {
+         // The Minkowski difference is symmetric about the origin, so GJK usually stops with a segment through it.
+         RigidBodyTransform transformA = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformA.setTranslation(0.0, 0.0, 0.0);
+         RigidBodyTransform transformB = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transformB.setTranslation(0.0, 0.0, 0.0);
+
+         BoxSupportingVertexHolder boxA = new BoxSupportingVertexHolder(RandomNumbers.nextDouble(random, 0.2, 1.0), RandomNumbers.nextDouble(random, 0.2, 1.0),
+                                                                        RandomNumbers.nextDouble(random, 0.2, 1.0));
+         BoxSupportingVertexHolder boxB = new BoxSupportingVertexHolder(RandomNumbers.nextDouble(random, 0.2, 1.0), RandomNumbers.nextDouble(random, 0.2, 1.0),
+                                                                        RandomNumbers.nextDouble(random, 0.2, 1.0));
+         boxA.setTransform(transformA);
+         boxB.setTransform(transformB);
+
+         detector.arePolytopesColliding(boxA, boxB, new Point3D(), new Point3D());
+         if (detector.getSimplex().getNumberOfPoints() < 4)
+            numberOfCompletedSimplices++;
+
+         calculator.computeSignedDistance(boxA, boxB, result);
+
+         double expectedDepth = computePenetrationDepthWithSeparatingAxes(boxA, transformA, boxB, transformB);
+         assertEquals(-expectedDepth, result.getSignedDistance(), 1e-4 * expectedDepth);
+         assertEquals(expectedDepth, result.getPointOnA().distance(result.getPointOnB()), 1e-7);
+      }
+
+      assertTrue("numberOfCompletedSimplices = " + numberOfCompletedSimplices, numberOfCompletedSimplices > 250);
+   }
+
+   /**
+    * The penetration depth of two boxes is the smallest overlap along the 15 separating axes: the face normals of each box
+    * and the cross products of their edges.
+    */
+   private static double computePenetrationDepthWithSeparatingAxes(BoxSupportingVertexHolder boxA, RigidBodyTransform transformA,
+                                                                   BoxSupportingVertexHolder boxB, RigidBodyTransform transformB)
+   {
+      Vector3D[] axesA = new Vector3D[3];
+      Vector3D[] axesB = new Vector3D[3];
+      for (int i = 0; i < 3; i++)
+      {
+         axesA[i] = new Vector3D(i == 0 ? 1.0 : 0.0, i == 1 ? 1.0 : 0.0, i == 2 ? 1.0 : 0.0);
+         transformA.transform(axesA[i]);
+         axesB[i] = new Vector3D(i == 0 ? 1.0 : 0.0, i == 1 ? 1.0 : 0.0, i == 2 ? 1.0 : 0.0);
+         transformB.transform(axesB[i]);
+      }
+
+      double depth = Double.POSITIVE_INFINITY;
+      depth = Math.min(depth, computeOverlap(boxA, boxB, axesA));
+      depth = Math.min(depth, computeOverlap(boxA, boxB, axesB));
+      for (int i = 0; i < 3; i++)
+      {
+         Vector3D[] crossProducts = new Vector3D[3];
+         for (int j = 0; j < 3; j++)
+         {
+            crossProducts[j] = new Vector3D();
+            crossProducts[j].cross(axesA[i], axesB[j]);
+         }
+         depth = Math.min(depth, computeOverlap(boxA, boxB, crossProducts));
+      }
+
+      return depth;
+   }
+
+   private static double computeOverlap(BoxSupportingVertexHolder boxA, BoxSupportingVertexHolder boxB, Vector3D[] axes)
+   {
+      double overlap = Double.POSITIVE_INFINITY;
+      Vector3D negativeAxis = new Vector3D();
+
+      for (Vector3D axis : axes)
+      {
+         if (axis.length() < 1e-7)
+            continue;
+         axis.normalize();
+
+         for (int side = 0; side < 2; side++)
+         {
+            axis.negate();
+            negativeAxis.set(axis);
+            negativeAxis.negate();
+            double extent = axis.dot(boxA.getSupportingVertex(axis)) - axis.dot(boxB.getSupportingVertex(negativeAxis));
+            overlap = Math.min(overlap, extent);
+         }
+      }
+
+      return overlap;
+   }
+
+   @Test(timeout = 30000)
+   public void testSpheresOnlyUseTheMargins()
+   {
+      SignedDistanceCalculator calculator = new SignedDistanceCalculator();
+      SignedDistanceResult result = new SignedDistanceResult();
+
+      SphereSupportingVertexHolder sphereA = new SphereSupportingVertexHolder(1.0);
+      SphereSupportingVertexHolder sphereB = new SphereSupportingVertexHolder(0.5);
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.setTranslation(1.0, 0.0, 0.0);
+      sphereB.setTransform(transform);
+
+      calculator.computeSignedDistance(sphereA, sphereB, result);
+
+      assertEquals(-0.5, result.getSignedDistance(), 1e-12);
+      EuclidCoreTestTools.assertTuple3DEquals(new Vector3D(1.0, 0.0, 0.0), result.getNormal(), 1e-12);
+      EuclidCoreTestTools.assertTuple3DEquals(new Point3D(1.0, 0.0, 0.0), result.getPointOnA(), 1e-12);
+      EuclidCoreTestTools.assertTuple3DEquals(new Point3D(0.5, 0.0, 0.0), result.getPointOnB(), 1e-12);
+      assertEquals(SignedDistanceResult.TerminationReason.OVERLAPPING_MARGINS, result.getTerminationReason());
+      assertEquals(0, result.getNumberOfEPAIterations());
+
+      transform.setTranslation(2.0, 0.0, 0.0);
+      sphereB.setTransform(transform);
+      calculator.computeSignedDistance(sphereA, sphereB, result);
+
+      assertEquals(0.5, result.getSignedDistance(), 1e-12);
+      EuclidCoreTestTools.assertTuple3DEquals(new Vector3D(1.0, 0.0, 0.0), result.getNormal(), 1e-12);
+      assertFalse(result.areColliding());
+   }
+}
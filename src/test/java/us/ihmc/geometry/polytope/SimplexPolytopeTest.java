@@ -2,8 +2,11 @@ package us.ihmc.geometry.polytope;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+
 import org.junit.Test;
 
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
 import us.ihmc.euclid.tools.EuclidCoreTestTools;
 import us.ihmc.euclid.tuple3D.Point3D;
 
@@ -384,6 +387,174 @@ public class SimplexPolytopeTest
       assertLambdasOnSimplex(simplex);
    }
 
+   @Test(timeout = 30000)
+   public void testCorrespondingPointsFollowRetainedVertices()
+   {
+      SimplexPolytope simplex = new SimplexPolytope();
+
+      Point3D pointOne = new Point3D(0.0, 3.0, 0.0);
+      Point3D pointTwo = new Point3D(-1.0, 1.0, 0.0);
+      Point3D pointThree = new Point3D(1.0, 1.0, 0.0);
+      Point3D[] pointsOnA = {new Point3D(0.0, 3.0, 1.0), new Point3D(-1.0, 1.0, 1.0), new Point3D(1.0, 1.0, 1.0)};
+      Point3D[] pointsOnB = {new Point3D(0.0, 0.0, 1.0), new Point3D(0.0, 0.0, 1.0), new Point3D(0.0, 0.0, 1.0)};
+
+      assertTrue(simplex.addVertex(pointOne, pointsOnA[0], pointsOnB[0]));
+      assertTrue(simplex.addVertex(pointTwo, pointsOnA[1], pointsOnB[1]));
+      assertFalse(simplex.addVertex(new Point3D(-1.0, 1.0, 0.0), new Point3D(pointsOnA[1]), new Point3D(pointsOnB[1])));
+      assertTrue(simplex.addVertex(pointThree, pointsOnA[2], pointsOnB[2]));
+      assertEquals(3, simplex.getNumberOfPoints());
+
+      Point3D closestPointToOrigin = new Point3D();
+      simplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(closestPointToOrigin);
+      EuclidCoreTestTools.assertTuple3DEquals("", new Point3D(0.0, 1.0, 0.0), closestPointToOrigin, 1e-10);
+
+      // The first point is dropped, the two others are moved to the first slots.
+      assertEquals(2, simplex.getNumberOfPoints());
+      assertTrue(simplex.getPoint(0) == pointTwo);
+      assertTrue(simplex.getPoint(1) == pointThree);
+      assertNull(simplex.getPoint(2));
+      assertFalse(simplex.containsPoint(pointOne));
+
+      assertTrue(simplex.getCorrespondingPointOnPolytopeA(pointTwo) == pointsOnA[1]);
+      assertTrue(simplex.getCorrespondingPointOnPolytopeB(pointThree) == pointsOnB[2]);
+      assertNull(simplex.getCorrespondingPointOnPolytopeA(pointOne));
+      assertEquals(0.5, simplex.getLambda(pointTwo), 1e-10);
+      assertEquals(0.5, simplex.getLambda(new Point3D(pointThree)), 1e-10);
+      assertEquals(0.0, simplex.getLambda(pointOne), 0.0);
+
+      Point3D pointOnA = new Point3D();
+      Point3D pointOnB = new Point3D();
+      simplex.getClosestPointsOnAAndB(pointOnA, pointOnB);
+      EuclidCoreTestTools.assertTuple3DEquals("", new Point3D(0.0, 1.0, 1.0), pointOnA, 1e-10);
+      EuclidCoreTestTools.assertTuple3DEquals("", new Point3D(0.0, 0.0, 1.0), pointOnB, 1e-10);
+
+      simplex.removePoint(pointTwo);
+      assertEquals(1, simplex.getNumberOfPoints());
+      assertTrue(simplex.getCorrespondingPointOnPolytopeA(pointThree) == pointsOnA[2]);
+      assertEquals(0.5, simplex.getLambda(pointThree), 1e-10);
+   }
+
+   @Test(timeout = 30000)
+   public void testOtherDistanceSubalgorithmsMatchVoronoiRegions()
+   {
+      for (SimplexPolytope.DistanceSubalgorithm distanceSubalgorithm : new SimplexPolytope.DistanceSubalgorithm[] {
+            SimplexPolytope.DistanceSubalgorithm.SIGNED_VOLUMES, SimplexPolytope.DistanceSubalgorithm.JOHNSON})
+      {
+         Random random = new Random(1789L);
+         SimplexPolytope voronoiSimplex = new SimplexPolytope();
+         SimplexPolytope otherSimplex = new SimplexPolytope();
+         otherSimplex.setDistanceSubalgorithm(distanceSubalgorithm);
+
+         Point3D voronoiClosestPoint = new Point3D();
+         Point3D otherClosestPoint = new Point3D();
+
+         for (int i = 0; i < 10000; i++)
+         {
+            Point3D[] points = new Point3D[1 + random.nextInt(4)];
+            for (int j = 0; j < points.length; j++)
+               points[j] = EuclidCoreRandomTools.nextPoint3D(random, 1.0);
+
+            voronoiSimplex.setPoints(points);
+            voronoiSimplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(voronoiClosestPoint);
+            otherSimplex.setPoints(points);
+            otherSimplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(otherClosestPoint);
+
+            EuclidCoreTestTools.assertTuple3DEquals(distanceSubalgorithm.toString(), voronoiClosestPoint, otherClosestPoint, 1e-10);
+            assertEquals(voronoiSimplex.getNumberOfPoints(), otherSimplex.getNumberOfPoints());
+            for (int j = 0; j < otherSimplex.getNumberOfPoints(); j++)
+               assertTrue(voronoiSimplex.containsPoint(otherSimplex.getPoint(j)));
+            assertLambdasOnSimplex(otherSimplex);
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testJohnsonOnlyComputesTheDotProductsOfNewPoints()
+   {
+      Random random = new Random(1610L);
+      SimplexPolytope johnsonSimplex = new SimplexPolytope();
+      johnsonSimplex.setDistanceSubalgorithm(SimplexPolytope.DistanceSubalgorithm.JOHNSON);
+      SimplexPolytope voronoiSimplex = new SimplexPolytope();
+
+      Point3D johnsonClosestPoint = new Point3D();
+      Point3D voronoiClosestPoint = new Point3D();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         Point3D simplexPoint = EuclidCoreRandomTools.nextPoint3D(random, 1.0);
+         Point3D pointOnA = EuclidCoreRandomTools.nextPoint3D(random, 1.0);
+         Point3D pointOnB = new Point3D();
+         pointOnB.sub(pointOnA, simplexPoint);
+
+         if (johnsonSimplex.getNumberOfPoints() == 4)
+         {
+            johnsonSimplex.clearPoints();
+            voronoiSimplex.clearPoints();
+         }
+
+         // The simplices are only compared when both keep the same points.
+         boolean johnsonAdded = johnsonSimplex.addVertex(simplexPoint, pointOnA, pointOnB);
+         boolean voronoiAdded = voronoiSimplex.addVertex(simplexPoint, pointOnA, pointOnB);
+         assertEquals(johnsonAdded, voronoiAdded);
+
+         // Only the products of the new point with the others and itself are computed.
+         int expectedNumberOfComputedDotProducts = johnsonAdded ? johnsonSimplex.getNumberOfPoints() : 0;
+         long numberOfComputedDotProducts = johnsonSimplex.getNumberOfComputedDotProducts();
+         johnsonSimplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(johnsonClosestPoint);
+         voronoiSimplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(voronoiClosestPoint);
+
+         assertEquals(expectedNumberOfComputedDotProducts, johnsonSimplex.getNumberOfComputedDotProducts() - numberOfComputedDotProducts);
+         EuclidCoreTestTools.assertTuple3DEquals("", voronoiClosestPoint, johnsonClosestPoint, 1e-10);
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testSignedVolumesOnDegenerateSimplices()
+   {
+      SimplexPolytope simplex = new SimplexPolytope();
+      simplex.setDistanceSubalgorithm(SimplexPolytope.DistanceSubalgorithm.SIGNED_VOLUMES);
+      Point3D closestPointToOrigin = new Point3D();
+
+      // Same point twice.
+      Point3D pointOne = new Point3D(1.0, 2.0, 3.0);
+      simplex.setPoints(pointOne, new Point3D(pointOne));
+      simplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(closestPointToOrigin);
+      assertLambdasOnSimplex(simplex);
+      assertEquals(1, simplex.getNumberOfPoints());
+      EuclidCoreTestTools.assertTuple3DEquals("", pointOne, closestPointToOrigin, 1e-12);
+
+      // Collinear triangle, the middle point is dropped.
+      pointOne = new Point3D(-1.0, 1.0, 0.0);
+      Point3D pointTwo = new Point3D(0.0, 1.0, 0.0);
+      Point3D pointThree = new Point3D(3.0, 1.0, 0.0);
+      simplex.setPoints(pointOne, pointTwo, pointThree);
+      simplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(closestPointToOrigin);
+      assertLambdasOnSimplex(simplex);
+      EuclidCoreTestTools.assertTuple3DEquals("", new Point3D(0.0, 1.0, 0.0), closestPointToOrigin, 1e-12);
+
+      // Flat tetragon with the origin in its plane, on a diagonal of the square.
+      pointOne = new Point3D(-1.0, -1.0, 0.0);
+      pointTwo = new Point3D(1.0, -1.0, 0.0);
+      pointThree = new Point3D(1.0, 1.0, 0.0);
+      Point3D pointFour = new Point3D(-1.0, 1.0, 0.0);
+      simplex.setPoints(pointOne, pointTwo, pointThree, pointFour);
+      simplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(closestPointToOrigin);
+      assertLambdasOnSimplex(simplex);
+      assertEquals(2, simplex.getNumberOfPoints());
+      EuclidCoreTestTools.assertTuple3DEquals("", new Point3D(), closestPointToOrigin, 1e-12);
+
+      // Flat tetragon above the origin, which is not below a diagonal.
+      pointOne = new Point3D(-1.0, -2.0, 2.0);
+      pointTwo = new Point3D(2.0, -1.0, 2.0);
+      pointThree = new Point3D(1.0, 1.0, 2.0);
+      pointFour = new Point3D(-1.0, 1.0, 2.0);
+      simplex.setPoints(pointOne, pointTwo, pointThree, pointFour);
+      simplex.getClosestPointToOriginOnConvexHullAndRemoveUnusedVertices(closestPointToOrigin);
+      assertLambdasOnSimplex(simplex);
+      assertEquals(3, simplex.getNumberOfPoints());
+      EuclidCoreTestTools.assertTuple3DEquals("", new Point3D(0.0, 0.0, 2.0), closestPointToOrigin, 1e-12);
+   }
+
    private void assertLambdasOnSimplex(SimplexPolytope simplex)
    {
       int numberOfPoints = simplex.getNumberOfPoints();
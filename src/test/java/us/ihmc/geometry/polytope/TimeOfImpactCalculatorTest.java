@@ -0,0 +1,189 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.commons.RandomNumbers;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tools.EuclidCoreTestTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+public class TimeOfImpactCalculatorTest
+{
+   private static final double DISTANCE_TOLERANCE = 1e-4;
+
+   @Test(timeout = 30000)
+   public void testTranslatingSpheres()
+   {
+      Random random = new Random(1789L);
+      TimeOfImpactCalculator calculator = new TimeOfImpactCalculator(DISTANCE_TOLERANCE);
+
+      int numberOfHits = 0;
+      int numberOfMisses = 0;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         double radiusA = RandomNumbers.nextDouble(random, 0.1, 1.0);
+         double radiusB = RandomNumbers.nextDouble(random, 0.1, 1.0);
+         SphereSupportingVertexHolder sphereA = new SphereSupportingVertexHolder(radiusA);
+         SphereSupportingVertexHolder sphereB = new SphereSupportingVertexHolder(radiusB);
+
+         RigidBodyTransform startPoseA = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         RigidBodyTransform endPoseA = new RigidBodyTransform(startPoseA);
+         RigidBodyTransform startPoseB = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         RigidBodyTransform endPoseB = new RigidBodyTransform(startPoseB);
+         Point3D startA = EuclidCoreRandomTools.nextPoint3D(random, 3.0);
+         Point3D endA = EuclidCoreRandomTools.nextPoint3D(random, 3.0);
+         Point3D startB = EuclidCoreRandomTools.nextPoint3D(random, 1.0);
+         Point3D endB = EuclidCoreRandomTools.nextPoint3D(random, 1.0);
+         startPoseA.setTranslation(startA);
+         endPoseA.setTranslation(endA);
+         startPoseB.setTranslation(startB);
+         endPoseB.setTranslation(endB);
+
+         // Smallest root of |offset + t relativeMotion| = radiusA + radiusB, with the offset from A to B.
+         Vector3D offset = new Vector3D();
+         offset.sub(startB, startA);
+         Vector3D relativeMotion = new Vector3D();
+         relativeMotion.sub(endB, startB);
+         relativeMotion.sub(endA);
+         relativeMotion.add(startA);
+         double contactDistance = radiusA + radiusB;
+         double a = relativeMotion.dot(relativeMotion);
+         double b = relativeMotion.dot(offset);
+         double c = offset.dot(offset) - contactDistance * contactDistance;
+         double discriminant = b * b - a * c;
+
+         // Spheres colliding at the start and grazing motions are left out.
+         if (c <= 0.0 || (discriminant > -1e-6 && discriminant < 1e-6))
+            continue;
+
+         double expectedTime = (-b - Math.sqrt(discriminant)) / a;
+         boolean expectedHit = discriminant >= 0.0 && expectedTime >= 0.0 && expectedTime <= 1.0;
+
+         boolean hit = calculator.computeTimeOfImpact(sphereA, startPoseA, endPoseA, sphereB, startPoseB, endPoseB);
+         assertEquals(expectedHit, hit);
+
+         if (hit)
+         {
+            numberOfHits++;
+            double time = calculator.getTimeOfImpact();
+            assertTrue(time <= expectedTime + 1e-12);
+
+            Vector3D centerToCenter = new Vector3D(relativeMotion);
+            centerToCenter.scaleAdd(time, offset);
+            assertEquals(contactDistance + 0.5 * DISTANCE_TOLERANCE, centerToCenter.length(), 0.5 * DISTANCE_TOLERANCE + 1e-9);
+            assertEquals(centerToCenter.length() - contactDistance, calculator.getPointOnA().distance(calculator.getPointOnB()), 1e-9);
+
+            centerToCenter.normalize();
+            EuclidCoreTestTools.assertTuple3DEquals(centerToCenter, calculator.getNormal(), 1e-6);
+         }
+         else
+         {
+            numberOfMisses++;
+         }
+      }
+
+      assertTrue("numberOfHits = " + numberOfHits, numberOfHits > 100);
+      assertTrue("numberOfMisses = " + numberOfMisses, numberOfMisses > 100);
+   }
+
+   @Test(timeout = 30000)
+   public void testRotatingBoxDoesNotTunnelThroughThinPlate()
+   {
+      Random random = new Random(1815L);
+      TimeOfImpactCalculator calculator = new TimeOfImpactCalculator(DISTANCE_TOLERANCE);
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      BoxSupportingVertexHolder plate = new BoxSupportingVertexHolder(0.005, 1.0, 1.0);
+      RigidBodyTransform platePose = new RigidBodyTransform();
+
+      for (int i = 0; i < 100; i++)
+      {
+         BoxSupportingVertexHolder box = new BoxSupportingVertexHolder(RandomNumbers.nextDouble(random, 0.05, 0.3), RandomNumbers.nextDouble(random, 0.05, 0.3),
+                                                                       RandomNumbers.nextDouble(random, 0.05, 0.3));
+         double startYaw = RandomNumbers.nextDouble(random, Math.PI);
+         double endYaw = startYaw + RandomNumbers.nextDouble(random, 3.0);
+         double y = RandomNumbers.nextDouble(random, 0.5);
+         double z = RandomNumbers.nextDouble(random, 0.5);
+         RigidBodyTransform startPose = createPose(startYaw, -2.0, y, z);
+         RigidBodyTransform endPose = createPose(endYaw, 2.0, -y, -z);
+
+         // The plate is crossed in a single step, sampling the start and end poses alone would miss it.
+         assertTrue(calculator.computeTimeOfImpact(box, startPose, endPose, plate, platePose, platePose));
+         double timeOfImpact = calculator.getTimeOfImpact();
+         assertTrue("numberOfIterations = " + calculator.getNumberOfIterations(), calculator.getNumberOfIterations() < 64);
+         assertTrue(calculator.getPointOnA().distance(calculator.getPointOnB()) <= DISTANCE_TOLERANCE);
+         assertEquals(1.0, calculator.getNormal().length(), 1e-12);
+
+         BoxSupportingVertexHolder movingBox = new BoxSupportingVertexHolder(box.getHalfLengthX(), box.getHalfWidthY(), box.getHalfHeightZ());
+         Point3D pointOnA = new Point3D();
+         Point3D pointOnB = new Point3D();
+
+         // Right at the time of impact, the shapes are closer than the tolerances of GJK.
+         for (int j = 0; j < 100; j++)
+         {
+            double time = j * timeOfImpact / 100.0;
+            movingBox.setTransform(createPose(startYaw + time * (endYaw - startYaw), -2.0 + 4.0 * time, y - 2.0 * time * y, z - 2.0 * time * z));
+            assertFalse(detector.arePolytopesColliding(movingBox, plate, pointOnA, pointOnB));
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testSeparatingAndStartingInCollision()
+   {
+      TimeOfImpactCalculator calculator = new TimeOfImpactCalculator();
+      SphereSupportingVertexHolder sphereA = new SphereSupportingVertexHolder(0.5);
+      BoxSupportingVertexHolder boxB = new BoxSupportingVertexHolder(0.5, 0.5, 0.5);
+
+      RigidBodyTransform startPoseA = createPose(0.0, -1.5, 0.0, 0.0);
+      RigidBodyTransform endPoseA = createPose(0.0, -3.0, 0.0, 0.0);
+      RigidBodyTransform poseB = createPose(0.5, 0.0, 0.0, 0.0);
+      assertFalse(calculator.computeTimeOfImpact(sphereA, startPoseA, endPoseA, boxB, poseB, poseB));
+
+      endPoseA = createPose(0.0, -0.5, 0.0, 0.0);
+      assertFalse(calculator.computeTimeOfImpact(sphereA, startPoseA, endPoseA, boxB, poseB, createPose(0.5, 2.0, 0.0, 0.0)));
+
+      startPoseA = createPose(0.0, -0.8, 0.0, 0.0);
+      assertTrue(calculator.computeTimeOfImpact(sphereA, startPoseA, endPoseA, boxB, poseB, poseB));
+      assertEquals(0.0, calculator.getTimeOfImpact(), 0.0);
+      assertEquals(1, calculator.getNumberOfIterations());
+   }
+
+   @Test(timeout = 30000)
+   public void testSlowGrazingMotionIsNotReportedAsHit()
+   {
+      TimeOfImpactCalculator calculator = new TimeOfImpactCalculator();
+      SphereSupportingVertexHolder sphereA = new SphereSupportingVertexHolder(1.0);
+      SphereSupportingVertexHolder sphereB = new SphereSupportingVertexHolder(1.0);
+
+      // The spinning sphere never gets closer, but its rotation keeps the time steps small.
+      RigidBodyTransform startPoseA = createPose(0.0, 0.0, 0.0, 0.0);
+      RigidBodyTransform endPoseA = createPose(0.9 * Math.PI, 0.0, 0.0, 0.0);
+      RigidBodyTransform poseB = createPose(0.0, 2.01, 0.0, 0.0);
+
+      assertFalse(calculator.computeTimeOfImpact(sphereA, startPoseA, endPoseA, sphereB, poseB, poseB));
+      assertTrue(calculator.isMaximumNumberOfIterationsReached());
+      assertTrue(calculator.getTimeOfImpact() < 1.0);
+      assertEquals(0.01, calculator.getDistance(), 1e-9);
+
+      endPoseA = createPose(0.0, 0.5, 0.0, 0.0);
+      assertTrue(calculator.computeTimeOfImpact(sphereA, startPoseA, endPoseA, sphereB, poseB, poseB));
+      assertFalse(calculator.isMaximumNumberOfIterationsReached());
+      assertTrue(calculator.getDistance() <= DISTANCE_TOLERANCE);
+   }
+
+   private static RigidBodyTransform createPose(double yaw, double x, double y, double z)
+   {
+      RigidBodyTransform pose = new RigidBodyTransform();
+      pose.setRotationYawAndZeroTranslation(yaw);
+      pose.setTranslation(x, y, z);
+      return pose;
+   }
+}